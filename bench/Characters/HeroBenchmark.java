@@ -0,0 +1,79 @@
+package Characters;
+
+import Items.Armor;
+import Items.Fist;
+import Misc.ClassTree;
+import Misc.Classes;
+import Misc.SwordmanClass;
+import Tree.BinaryTreeNode;
+import Tree.InBreadthIterator;
+import Tree.TreeShapes;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Hero.searchHeroSkillTreeNode over generated skill trees. breadthScan is
+ * the breadth-first search the method used to do, kept as the baseline.
+ * Run with: ant bench -Dbench.args=HeroBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeroBenchmark {
+
+    @Param({"WIDE", "DEEP", "BALANCED"})
+    public String shape;
+
+    @Param({"100", "10000", "100000"})
+    public int size;
+
+    private Hero hero;
+    private String lastId;
+
+    @Setup(Level.Trial)
+    public void createHero() {
+        hero = new Hero("Bench", new Fist("", "Bare Hands", "H000", 5, 1, "", 0),
+                new Armor("", "Broken Cloath", "A000", 5, "", 5), new SwordmanClass("", true, "class0"));
+        ClassTree tree = new ClassTree();
+        TreeShapes.build(tree, shape, size, i -> new SwordmanClass("", true, "class" + i));
+        hero.setUnlockedClasses(tree);
+        lastId = "CLASS" + (size - 1);
+    }
+
+    @Benchmark
+    public boolean searchLast() {
+        return hero.searchHeroSkillTreeNode(lastId);
+    }
+
+    @Benchmark
+    public boolean searchMissing() {
+        return hero.searchHeroSkillTreeNode("missing");
+    }
+
+    @Benchmark
+    public boolean breadthScan() {
+        boolean found = false;
+        InBreadthIterator<Classes> it = hero.getUnlockedClasses().inBreadthIterator();
+        while (it.hasNext() && !found) {
+            BinaryTreeNode<Classes> node = it.nextNode();
+            if (node.getInfo().getId().equalsIgnoreCase(lastId)) {
+                found = true;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,84 @@
+package Tree;
+
+/*
+ * Regression benchmark for the recursive -> iterative rewrites.
+ * Builds degenerate trees (a zig-zag binary chain and a root with one
+ * long brothers chain) of growing depth and times the operations that used
+ * to recurse. Times must grow linearly and no size may overflow the stack.
+ *
+ * ant compile
+ * javac -d build/bench -cp build/classes bench/Tree/DeepTreeBenchmark.java
+ * java -Xss512k -cp build/classes:build/bench Tree.DeepTreeBenchmark
+ */
+public class DeepTreeBenchmark {
+
+	private static final int[] DEPTHS = {1000, 10000, 100000, 1000000};
+
+	public static void main(String[] args) {
+		// warm up so the first row is not paying for the JIT
+		run(DEPTHS[1], false);
+
+		System.out.println("depth      level(ms)  nodeLevel(ms)  getSubTree(ms)  nodeDegree(ms)  posOrder(ms)");
+		for (int depth : DEPTHS)
+			run(depth, true);
+	}
+
+	private static void run(int depth, boolean print) {
+		BinaryTreeNode<Integer> root = new BinaryTreeNode<Integer>(0);
+		BinaryTreeNode<Integer> deepest = root;
+
+		for (int i = 1; i < depth; i++) {
+			BinaryTreeNode<Integer> node = new BinaryTreeNode<Integer>(i);
+			if (i % 2 == 0)
+				deepest.setLeft(node);
+			else
+				deepest.setRight(node);
+			deepest = node;
+		}
+
+		BinaryTree<Integer> binary = new BinaryTree<Integer>(root);
+
+		long start = System.nanoTime();
+		int height = binary.treeHeight();
+		long levelTime = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		int level = binary.nodeLevel(deepest);
+		long nodeLevelTime = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		BinaryTree<Integer> copy = binary.getSubTree(root);
+		long subTreeTime = System.nanoTime() - start;
+
+		GeneralTree<Integer> general = new GeneralTree<Integer>(new BinaryTreeNode<Integer>(0));
+		BinaryTreeNode<Integer> father = (BinaryTreeNode<Integer>) general.getRoot();
+		BinaryTreeNode<Integer> brother = new BinaryTreeNode<Integer>(1);
+		father.setLeft(brother);
+		for (int i = 2; i <= depth; i++) {
+			brother.setRight(new BinaryTreeNode<Integer>(i));
+			brother = brother.getRight();
+		}
+
+		start = System.nanoTime();
+		int degree = general.nodeDegree(father);
+		long degreeTime = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		int visited = 0;
+		PosOrderIterator<Integer> iterator = new PosOrderIterator<Integer>(general);
+		while (iterator.hasNext()) {
+			iterator.nextNode();
+			visited++;
+		}
+		long posOrderTime = System.nanoTime() - start;
+
+		if (height != depth - 1 || level != depth - 1 || copy == null ||
+				degree != depth || visited != depth + 1)
+			throw new IllegalStateException("Wrong result for depth " + depth);
+
+		if (print)
+			System.out.printf("%-10d %-10.3f %-14.3f %-15.3f %-15.3f %.3f%n", depth,
+					levelTime / 1e6, nodeLevelTime / 1e6, subTreeTime / 1e6,
+					degreeTime / 1e6, posOrderTime / 1e6);
+	}
+}
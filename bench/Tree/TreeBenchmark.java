@@ -0,0 +1,155 @@
+package Tree;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/*
+ * Baseline for the GeneralTree operations and every iterator of the
+ * package, by tree implementation, shape and size.
+ * The target node of insert/getFather/delete/nodeLevel is the last one
+ * created, which is the worst case of the scans in the plain tree.
+ * Run with: ant bench
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeBenchmark {
+
+	@Param({"plain", "indexed", "augmented"})
+	public String implementation;
+
+	@Param({"WIDE", "DEEP", "BALANCED"})
+	public String shape;
+
+	@Param({"1000", "10000", "100000"})
+	public int size;
+
+	GeneralTree<Integer> tree;
+	BinaryTreeNode<Integer> last;
+
+	@Setup(Level.Trial)
+	public void buildTree() {
+		tree = TreeShapes.newTree(implementation);
+		List<BinaryTreeNode<Integer>> nodes = TreeShapes.build(tree, shape, size,
+				Integer::valueOf);
+		last = nodes.get(nodes.size() - 1);
+	}
+
+	// A detached node, taken out again after each insertNode call
+	@State(Scope.Thread)
+	public static class Detached {
+		BinaryTreeNode<Integer> node;
+		private TreeBenchmark benchmark;
+
+		@Setup(Level.Invocation)
+		public void create(TreeBenchmark benchmark) {
+			this.benchmark = benchmark;
+			node = new BinaryTreeNode<Integer>(-1);
+		}
+
+		@TearDown(Level.Invocation)
+		public void remove() {
+			if (benchmark.last.getLeft() == node)
+				benchmark.tree.deleteNode(node);
+		}
+	}
+
+	// A node already hung from the last node, ready to be deleted
+	@State(Scope.Thread)
+	public static class Attached {
+		BinaryTreeNode<Integer> node;
+
+		@Setup(Level.Invocation)
+		public void insert(TreeBenchmark benchmark) {
+			node = new BinaryTreeNode<Integer>(-1);
+			benchmark.tree.insertNode(node, benchmark.last);
+		}
+	}
+
+	@Benchmark
+	public boolean insertNode(Detached detached) {
+		return tree.insertNode(detached.node, last);
+	}
+
+	@Benchmark
+	public Integer deleteNode(Attached attached) {
+		return tree.deleteNode(attached.node);
+	}
+
+	@Benchmark
+	public BinaryTreeNode<Integer> getFather() {
+		return tree.getFather(last);
+	}
+
+	@Benchmark
+	public int nodeLevel() {
+		return tree.nodeLevel(last);
+	}
+
+	@Benchmark
+	public void inDepthIterator(Blackhole blackhole) {
+		drain(tree.inDepthIterator(), blackhole);
+	}
+
+	@Benchmark
+	public void preorderIterator(Blackhole blackhole) {
+		drain(new PreorderIterator<Integer>(tree), blackhole);
+	}
+
+	@Benchmark
+	public void fastPreorderIterator(Blackhole blackhole) {
+		drain(tree.fastInDepthIterator(), blackhole);
+	}
+
+	@Benchmark
+	public void posOrderIterator(Blackhole blackhole) {
+		drain(new PosOrderIterator<Integer>(tree), blackhole);
+	}
+
+	@Benchmark
+	public void fastPosOrderIterator(Blackhole blackhole) {
+		drain(new FastPosOrderIterator<Integer>(tree), blackhole);
+	}
+
+	@Benchmark
+	public void symmetricIterator(Blackhole blackhole) {
+		drain(new SymmetricIterator<Integer>(tree), blackhole);
+	}
+
+	@Benchmark
+	public void inBreadthIterator(Blackhole blackhole) {
+		drain(tree.inBreadthIterator(), blackhole);
+	}
+
+	@Benchmark
+	public void inBreadthIteratorWithLevels(Blackhole blackhole) {
+		drain(tree.inBreadthIteratorWithLevels(), blackhole);
+	}
+
+	@Benchmark
+	public void fastInBreadthIteratorWithLevels(Blackhole blackhole) {
+		drain(tree.fastInBreadthIteratorWithLevels(), blackhole);
+	}
+
+	private static void drain(ITreeIterator<Integer> iterator, Blackhole blackhole) {
+		while (iterator.hasNext())
+			blackhole.consume(iterator.nextNode());
+	}
+}
@@ -0,0 +1,70 @@
+package Tree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/*
+ * Builds the trees used by the benchmarks. Nodes are linked by hand and
+ * hung with setRoot, so building a deep tree does not cost O(n^2) even
+ * with the plain GeneralTree.
+ * WIDE: every node is a son of the root.
+ * DEEP: every node is the only son of the previous one.
+ * BALANCED: every node has up to 4 sons, filled level by level.
+ */
+public final class TreeShapes {
+
+	public static final int BRANCHING = 4;
+
+	private TreeShapes() {
+	}
+
+	// Returns the nodes in creation order, index 0 is the root
+	public static <E> List<BinaryTreeNode<E>> build(GeneralTree<E> tree, String shape,
+			int size, IntFunction<E> info) {
+		List<BinaryTreeNode<E>> nodes = new ArrayList<BinaryTreeNode<E>>(size);
+		BinaryTreeNode<E> root = new BinaryTreeNode<E>(info.apply(0));
+		nodes.add(root);
+
+		for (int i = 1; i < size; i++) {
+			BinaryTreeNode<E> node = new BinaryTreeNode<E>(info.apply(i));
+			BinaryTreeNode<E> father;
+
+			if (shape.equals("WIDE"))
+				father = root;
+			else if (shape.equals("DEEP"))
+				father = nodes.get(i - 1);
+			else if (shape.equals("BALANCED"))
+				father = nodes.get((i - 1) / BRANCHING);
+			else
+				throw new IllegalArgumentException("Unknown shape " + shape);
+
+			// sons are filled in creation order, so the previous node is
+			// the last son whenever the father already has sons
+			if (father.getLeft() == null)
+				father.setLeft(node);
+			else
+				nodes.get(i - 1).setRight(node);
+
+			nodes.add(node);
+		}
+
+		tree.setRoot(root);
+		return nodes;
+	}
+
+	public static <E> GeneralTree<E> newTree(String implementation) {
+		GeneralTree<E> tree;
+
+		if (implementation.equals("plain"))
+			tree = new GeneralTree<E>();
+		else if (implementation.equals("indexed"))
+			tree = new IndexedGeneralTree<E>();
+		else if (implementation.equals("augmented"))
+			tree = new AugmentedGeneralTree<E>();
+		else
+			throw new IllegalArgumentException("Unknown implementation " + implementation);
+
+		return tree;
+	}
+}
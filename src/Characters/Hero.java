@@ -4,10 +4,13 @@ import Items.*;
 import Logic.Game;
 import Tree.*;
 import Misc.*;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 import java.util.Random;
 import javafx.scene.image.Image;
@@ -33,16 +36,26 @@ public class Hero implements Serializable {
     private int actualLife;
     private int money;
     private int defeatedMonsters;
+    private Inventory inventory;
+    // Only set by heroes serialized before Inventory, moved to it on read
     private LinkedList<Item> items;
     private Weapon actualWeapon;
     private Armor armor;
     private GeneralTree<Classes> unlockedClasses;
+    private transient volatile PersistentGeneralTree<Classes> classesSnapshot;
     private Queue<Task> tasks;
     private Deque<Task> completedTasks;
+    // States of tasks and completedTasks when a snapshot was taken or the
+    // tasks were read from a save, in their order. Null in the hero being
+    // played
+    private transient boolean[] taskStates;
+    private transient boolean[] completedStates;
 
     private Location lastLocation = Location.UNKNOWN;
     private double lastPosX = 0.0;
     private double lastPosY = 0.0;
+    // Milliseconds played, kept up to date by Game before each save
+    private long playTime;
 
     public Hero(String name, Weapon weapon, Armor armor, Classes root) {
         setName(name);
@@ -57,16 +70,52 @@ public class Hero implements Serializable {
         setExpActual(0);
         setArmor(armor);
         setMoney(50);
-        items = new LinkedList<>();
+        inventory = new Inventory();
         actualWeapon = weapon;
         BinaryTreeNode<Classes> heroRoot = new BinaryTreeNode<>(root);
-        unlockedClasses = new GeneralTree<>(heroRoot);
+        unlockedClasses = new ClassTree(heroRoot);
+        classesSnapshot = PersistentGeneralTree.of(unlockedClasses);
         tasks = new ArrayDeque<>();
         completedTasks = new ArrayDeque<>();
         loadFxImage();
         defeatedMonsters = 0;
     }
 
+    // Detached copy to be saved from another thread while this one keeps
+    // playing. Items and tasks are shared, their collections are not, and
+    // the task states are copied. Classes are only kept as their immutable
+    // snapshot: getUnlockedClasses is null in the copy
+    private Hero(Hero other) {
+        name = other.name;
+        spritePath = other.spritePath;
+        expMax = other.expMax;
+        expActual = other.expActual;
+        attack = other.attack;
+        magic = other.magic;
+        defense = other.defense;
+        level = other.level;
+        life = other.life;
+        actualLife = other.actualLife;
+        money = other.money;
+        defeatedMonsters = other.defeatedMonsters;
+        inventory = new Inventory(other.inventory);
+        actualWeapon = other.actualWeapon;
+        armor = other.armor;
+        classesSnapshot = other.classesSnapshot;
+        tasks = new ArrayDeque<>(other.tasks);
+        completedTasks = new ArrayDeque<>(other.completedTasks);
+        taskStates = other.getTaskStates();
+        completedStates = other.getCompletedTaskStates();
+        lastLocation = other.lastLocation;
+        lastPosX = other.lastPosX;
+        lastPosY = other.lastPosY;
+        playTime = other.playTime;
+    }
+
+    public Hero snapshot() {
+        return new Hero(this);
+    }
+
     public void growDefeatedMonsters() {
         defeatedMonsters++;
     }
@@ -75,6 +124,10 @@ public class Hero implements Serializable {
         return defeatedMonsters;
     }
 
+    public void setDefeatedMonsters(int defeatedMonsters) {
+        this.defeatedMonsters = defeatedMonsters;
+    }
+
     public int getMoney() {
         return money;
     }
@@ -106,18 +159,11 @@ public class Hero implements Serializable {
     }
 
     public boolean searchHeroSkillTreeNode(String nodeId) {
-        boolean found = false;
-        BinaryTreeNode<Classes> ahya = (BinaryTreeNode<Classes>) unlockedClasses.getRoot();
-        InBreadthIterator<Classes> it = unlockedClasses.inBreadthIterator();
-        while (it.hasNext() && !found) {
-            BinaryTreeNode<Classes> node = it.nextNode();
-            Classes cl = (Classes) node.getInfo();
-            if (cl.getId().equalsIgnoreCase(nodeId)) {
-                found = true;
-            }
+        return findHeroSkillTreeNode(nodeId) != null;
+    }
 
-        }
-        return found;
+    public BinaryTreeNode<Classes> findHeroSkillTreeNode(String nodeId) {
+        return ((ClassTree) unlockedClasses).findById(nodeId);
     }
 
     public int getExpMax() {
@@ -160,6 +206,18 @@ public class Hero implements Serializable {
         this.lastPosY = lastPosY;
     }
 
+    public long getPlayTime() {
+        return playTime;
+    }
+
+    public void setPlayTime(long playTime) {
+        this.playTime = playTime;
+    }
+
+    public void addPlayTime(long millis) {
+        playTime += millis;
+    }
+
     public Armor getArmor() {
         return armor;
     }
@@ -178,7 +236,53 @@ public class Hero implements Serializable {
     }
 
     public void setUnlockedClasses(GeneralTree<Classes> unlockedClasses) {
-        this.unlockedClasses = unlockedClasses;
+        this.unlockedClasses = toClassTree(unlockedClasses);
+        this.classesSnapshot = PersistentGeneralTree.of(this.unlockedClasses);
+    }
+
+    public boolean unlockClass(Classes unlocked, BinaryTreeNode<Classes> father) {
+        ClassTree tree = (ClassTree) unlockedClasses;
+        int[] path = tree.pathOf(father);
+        boolean inserted = tree.insertNode(new BinaryTreeNode<>(unlocked), father);
+        if (inserted) {
+            classesSnapshot = (path != null)
+                    ? classesSnapshot.insertNode(unlocked, path)
+                    : PersistentGeneralTree.of(tree);
+        }
+        return inserted;
+    }
+
+    // Immutable version of the unlocked classes, safe to read from any thread.
+    // It follows the changes made through unlockClass and setUnlockedClasses
+    public PersistentGeneralTree<Classes> getUnlockedClassesSnapshot() {
+        return classesSnapshot;
+    }
+
+    private static ClassTree toClassTree(GeneralTree<Classes> tree) {
+        ClassTree classTree;
+        if (tree instanceof ClassTree) {
+            classTree = (ClassTree) tree;
+        } else {
+            classTree = new ClassTree();
+            if (tree != null) {
+                classTree.setRoot(tree.getRoot());
+            }
+        }
+        return classTree;
+    }
+
+    // Saves written before the class index existed hold a plain GeneralTree
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (inventory == null) {
+            inventory = new Inventory();
+            if (items != null) {
+                inventory.addAll(items);
+            }
+            items = null;
+        }
+        unlockedClasses = toClassTree(unlockedClasses);
+        classesSnapshot = PersistentGeneralTree.of(unlockedClasses);
     }
 
     public int getLife() {
@@ -291,12 +395,22 @@ public class Hero implements Serializable {
         }
     }
 
-    public LinkedList<Item> getItems() {
-        return items;
+    // Every unit the hero has, see Inventory
+    public List<Item> getItems() {
+        return inventory;
+    }
+
+    public void setItems(List<Item> items) {
+        inventory = new Inventory();
+        inventory.addAll(items);
     }
 
-    public void setItems(LinkedList<Item> items) {
-        this.items = items;
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    public void setInventory(Inventory inventory) {
+        this.inventory = inventory;
     }
 
     public Weapon getActualWeapon() {
@@ -319,6 +433,59 @@ public class Hero implements Serializable {
         return tasks;
     }
 
+    // State of each task in getTasks order, as it was when this snapshot
+    // was taken or the save read or, in the hero being played, as it is now
+    public boolean[] getTaskStates() {
+        return taskStates != null ? taskStates.clone() : states(tasks);
+    }
+
+    // Same for getCompletedTasks
+    public boolean[] getCompletedTaskStates() {
+        return completedStates != null ? completedStates.clone() : states(completedTasks);
+    }
+
+    private static boolean[] states(Queue<Task> tasks) {
+        boolean[] states = new boolean[tasks.size()];
+        int i = 0;
+        for (Task t : tasks) {
+            states[i++] = t.isState();
+        }
+        return states;
+    }
+
+    // Replaces both task lists with tasks read from a save. Their states are
+    // kept apart until applyTaskStates, as the tasks may be shared with the
+    // hero being played
+    public void setTasks(Task[] tasks, boolean[] states, Task[] completed, boolean[] completedStates) {
+        this.tasks.clear();
+        for (Task t : tasks) {
+            this.tasks.offer(t);
+        }
+        completedTasks.clear();
+        for (Task t : completed) {
+            completedTasks.addLast(t);
+        }
+        taskStates = states.clone();
+        this.completedStates = completedStates.clone();
+    }
+
+    // Sets on the tasks the states read with them. Called once this hero
+    // becomes the game hero
+    public void applyTaskStates() {
+        if (taskStates != null) {
+            int i = 0;
+            for (Task t : tasks) {
+                t.setState(taskStates[i++]);
+            }
+            i = 0;
+            for (Task t : completedTasks) {
+                t.setState(completedStates[i++]);
+            }
+            taskStates = null;
+            completedStates = null;
+        }
+    }
+
     public void addTasks(Task t) {
         tasks.offer(t);
     }
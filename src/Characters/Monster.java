@@ -31,6 +31,25 @@ public class Monster extends NPC {
         setMoney(money);
     }
 
+    private Monster(Monster template) {
+        super(template);
+        this.actualWeapon = template.actualWeapon;
+        this.attack = template.attack;
+        this.defense = template.defense;
+        this.life = template.life;
+        this.actualLife = template.actualLife;
+        this.loot = new ArrayList<>(template.loot);
+        this.exp = template.exp;
+        this.encounter = template.encounter;
+        this.money = template.money;
+    }
+
+    // A monster to fight, made from this one as a template. The weapon and
+    // the sprite image are shared with the template
+    public Monster spawn() {
+        return new Monster(this);
+    }
+
     public int getMoney() {
         return money;
     }
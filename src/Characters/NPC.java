@@ -15,6 +15,14 @@ public abstract class NPC {
         loadFxImage(spritePath);
         setName(name);
     }
+
+    // Copy that shares the image of other instead of loading it again
+    protected NPC(NPC other) {
+        this.name = other.name;
+        this.dialogue = other.dialogue;
+        this.spritePath = other.spritePath;
+        this.fxImage = other.fxImage;
+    }
     
     public String getMessageFromList(int pos){
         return dialogue.get(pos);
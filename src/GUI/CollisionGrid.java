@@ -0,0 +1,214 @@
+package GUI;
+
+import java.util.Arrays;
+import javafx.geometry.Rectangle2D;
+
+/*
+ * Índice de colisiones en rejilla uniforme para los obstáculos de una escena.
+ * Cada rectángulo queda apuntado en las celdas que toca, así una consulta
+ * solo prueba los rectángulos de las celdas bajo el área pedida y no toda la
+ * lista de obstáculos. Se llena con add y se indexa con build; si se consulta
+ * después de un cambio sin llamar a build, se indexa en esa consulta.
+ * Va bien con obstáculos de tamaño parecido; para zonas de tamaños muy
+ * distintos o mapas muy dispersos está StaticRTree.
+ */
+public class CollisionGrid extends CollisionIndex {
+
+    public static final double DEFAULT_CELL = 64.0;
+
+    // Con mapas enormes la celda crece hasta quedar por debajo de este total
+    private static final int MAX_CELLS = 1 << 16;
+
+    private final double cellSize;
+    private boolean dirty;
+
+    private double cell;
+    private double originX;
+    private double originY;
+    private int cols;
+    private int rows;
+    // Los rectángulos de la celda c son cellItems[cellStart[c] .. cellStart[c + 1])
+    private int[] cellStart = new int[1];
+    private int[] cellItems = new int[0];
+
+    // Marca por rectángulo para no dar dos veces uno que ocupa varias celdas
+    private int[] marks = new int[16];
+    private int mark;
+
+    public CollisionGrid() {
+        this(DEFAULT_CELL);
+    }
+
+    public CollisionGrid(double cellSize) {
+        super(16);
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("Tamaño de celda no válido: " + cellSize);
+        }
+        this.cellSize = cellSize;
+    }
+
+    // Devuelve el índice del rectángulo, que es su orden de llegada
+    public int add(Rectangle2D rect) {
+        return add(rect.getMinX(), rect.getMinY(), rect.getWidth(), rect.getHeight());
+    }
+
+    public int add(double x, double y, double w, double h) {
+        if (count == minX.length) {
+            int capacity = count * 2;
+            minX = Arrays.copyOf(minX, capacity);
+            minY = Arrays.copyOf(minY, capacity);
+            maxX = Arrays.copyOf(maxX, capacity);
+            maxY = Arrays.copyOf(maxY, capacity);
+        }
+        minX[count] = x;
+        minY[count] = y;
+        maxX[count] = x + w;
+        maxY[count] = y + h;
+        dirty = true;
+        return count++;
+    }
+
+    public void clear() {
+        count = 0;
+        dirty = true;
+    }
+
+    public void build() {
+        dirty = false;
+        if (marks.length < count) {
+            marks = new int[minX.length];
+            mark = 0;
+        }
+
+        if (count == 0) {
+            cols = 0;
+            rows = 0;
+            cellStart = new int[1];
+            return;
+        }
+
+        originX = minX[0];
+        originY = minY[0];
+        double endX = maxX[0];
+        double endY = maxY[0];
+        for (int i = 1; i < count; i++) {
+            originX = Math.min(originX, minX[i]);
+            originY = Math.min(originY, minY[i]);
+            endX = Math.max(endX, maxX[i]);
+            endY = Math.max(endY, maxY[i]);
+        }
+
+        cell = cellSize;
+        long cells;
+        do {
+            cols = (int) Math.min(MAX_CELLS, (long) ((endX - originX) / cell) + 1);
+            rows = (int) Math.min(MAX_CELLS, (long) ((endY - originY) / cell) + 1);
+            cells = (long) cols * rows;
+            if (cells > MAX_CELLS) {
+                cell *= 2;
+            }
+        } while (cells > MAX_CELLS);
+
+        // Primera pasada: cuántos rectángulos caen en cada celda
+        cellStart = new int[cols * rows + 1];
+        for (int i = 0; i < count; i++) {
+            int c0 = col(minX[i]);
+            int c1 = col(maxX[i]);
+            int r0 = row(minY[i]);
+            int r1 = row(maxY[i]);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    cellStart[r * cols + c + 1]++;
+                }
+            }
+        }
+        for (int c = 0; c < cols * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+
+        // Segunda pasada: se reparten en el orden en que se añadieron
+        cellItems = new int[cellStart[cols * rows]];
+        int[] next = Arrays.copyOf(cellStart, cols * rows);
+        for (int i = 0; i < count; i++) {
+            int c0 = col(minX[i]);
+            int c1 = col(maxX[i]);
+            int r0 = row(minY[i]);
+            int r1 = row(maxY[i]);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    cellItems[next[r * cols + c]++] = i;
+                }
+            }
+        }
+    }
+
+    // Sin pasar por collect: para en el primer choque
+    @Override
+    public boolean intersects(double x, double y, double w, double h) {
+        if (dirty) {
+            build();
+        }
+        boolean found = false;
+        if (count > 0) {
+            int c0 = col(x);
+            int c1 = col(x + w);
+            int r0 = row(y);
+            int r1 = row(y + h);
+            for (int r = r0; r <= r1 && !found; r++) {
+                for (int c = c0; c <= c1 && !found; c++) {
+                    int cellIndex = r * cols + c;
+                    for (int k = cellStart[cellIndex]; k < cellStart[cellIndex + 1] && !found; k++) {
+                        found = overlaps(cellItems[k], x, y, w, h);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    @Override
+    int collect(double x0, double y0, double x1, double y1) {
+        if (dirty) {
+            build();
+        }
+        int found = 0;
+        if (count > 0) {
+            nextMark();
+            int c0 = col(x0);
+            int c1 = col(x1);
+            int r0 = row(y0);
+            int r1 = row(y1);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    int cellIndex = r * cols + c;
+                    for (int k = cellStart[cellIndex]; k < cellStart[cellIndex + 1]; k++) {
+                        int i = cellItems[k];
+                        if (marks[i] != mark) {
+                            marks[i] = mark;
+                            found = addCandidate(found, i);
+                        }
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private void nextMark() {
+        mark++;
+        if (mark == 0) {
+            Arrays.fill(marks, 0);
+            mark = 1;
+        }
+    }
+
+    private int col(double x) {
+        int c = (int) Math.floor((x - originX) / cell);
+        return c < 0 ? 0 : (c >= cols ? cols - 1 : c);
+    }
+
+    private int row(double y) {
+        int r = (int) Math.floor((y - originY) / cell);
+        return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+    }
+}
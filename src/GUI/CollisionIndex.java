@@ -0,0 +1,162 @@
+package GUI;
+
+import java.util.Arrays;
+
+/*
+ * Rectángulos de colisión de una escena con consultas por área, por punto y
+ * por barrido (una caja que se mueve de (x, y) a (x + dx, y + dy)).
+ * Cada rectángulo se identifica por su índice, que es su orden de llegada;
+ * los resultados se leen con hit(0 .. n - 1), de menor a mayor índice.
+ * Las subclases solo deciden qué rectángulos son candidatos (collect); las
+ * pruebas exactas están aquí. Las áreas que solo se tocan en el borde no
+ * chocan, igual que en Rectangle2D.intersects; un punto en el borde sí está
+ * dentro. Las consultas no reservan memoria y son para el hilo de JavaFX.
+ */
+public abstract class CollisionIndex {
+
+    double[] minX;
+    double[] minY;
+    double[] maxX;
+    double[] maxY;
+    int count;
+
+    int[] candidates = new int[16];
+    private int[] hits = new int[8];
+
+    CollisionIndex(int capacity) {
+        minX = new double[capacity];
+        minY = new double[capacity];
+        maxX = new double[capacity];
+        maxY = new double[capacity];
+    }
+
+    // Deja en candidates, sin repetir, al menos todos los rectángulos que
+    // tocan [x0, x1] x [y0, y1] (bordes incluidos) y devuelve cuántos son
+    abstract int collect(double x0, double y0, double x1, double y1);
+
+    public int size() {
+        return count;
+    }
+
+    public int hit(int n) {
+        return hits[n];
+    }
+
+    // true si el área choca con algún rectángulo
+    public boolean intersects(double x, double y, double w, double h) {
+        int found = collect(x, y, x + w, y + h);
+        boolean hit = false;
+        for (int k = 0; k < found && !hit; k++) {
+            hit = overlaps(candidates[k], x, y, w, h);
+        }
+        return hit;
+    }
+
+    public int query(double x, double y, double w, double h) {
+        int found = collect(x, y, x + w, y + h);
+        int n = 0;
+        for (int k = 0; k < found; k++) {
+            if (overlaps(candidates[k], x, y, w, h)) {
+                n = addHit(n, candidates[k]);
+            }
+        }
+        return sortHits(n);
+    }
+
+    public int queryPoint(double x, double y) {
+        int found = collect(x, y, x, y);
+        int n = 0;
+        for (int k = 0; k < found; k++) {
+            int i = candidates[k];
+            if (x >= minX[i] && x <= maxX[i] && y >= minY[i] && y <= maxY[i]) {
+                n = addHit(n, i);
+            }
+        }
+        return sortHits(n);
+    }
+
+    // Rectángulos que la caja pisa en algún momento de su recorrido
+    public int querySwept(double x, double y, double w, double h, double dx, double dy) {
+        int found = collectSwept(x, y, w, h, dx, dy);
+        int n = 0;
+        for (int k = 0; k < found; k++) {
+            if (entryTime(candidates[k], x, y, w, h, dx, dy) <= 1.0) {
+                n = addHit(n, candidates[k]);
+            }
+        }
+        return sortHits(n);
+    }
+
+    // Fracción del recorrido (0 a 1) en la que la caja empieza a chocar con
+    // el primer rectángulo. 0 si ya choca al salir; 1 si el camino está libre
+    public double sweep(double x, double y, double w, double h, double dx, double dy) {
+        int found = collectSwept(x, y, w, h, dx, dy);
+        double first = 1.0;
+        for (int k = 0; k < found; k++) {
+            first = Math.min(first, entryTime(candidates[k], x, y, w, h, dx, dy));
+        }
+        return first;
+    }
+
+    boolean overlaps(int i, double x, double y, double w, double h) {
+        return x < maxX[i] && x + w > minX[i] && y < maxY[i] && y + h > minY[i];
+    }
+
+    // Momento (desde 0) en que la caja en movimiento empieza a solaparse con
+    // el rectángulo i, o infinito si no llega a hacerlo antes de terminar
+    double entryTime(int i, double x, double y, double w, double h, double dx, double dy) {
+        // La caja se reduce a su esquina y el rectángulo crece lo que ella mide
+        double enter = 0;
+        double exit = 1;
+
+        if (dx == 0) {
+            if (x <= minX[i] - w || x >= maxX[i]) {
+                exit = -1;
+            }
+        } else {
+            double t1 = (minX[i] - w - x) / dx;
+            double t2 = (maxX[i] - x) / dx;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+
+        if (dy == 0) {
+            if (y <= minY[i] - h || y >= maxY[i]) {
+                exit = -1;
+            }
+        } else {
+            double t1 = (minY[i] - h - y) / dy;
+            double t2 = (maxY[i] - y) / dy;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+
+        return enter < exit ? enter : Double.POSITIVE_INFINITY;
+    }
+
+    int addCandidate(int n, int i) {
+        if (n == candidates.length) {
+            candidates = Arrays.copyOf(candidates, n * 2);
+        }
+        candidates[n] = i;
+        return n + 1;
+    }
+
+    private int collectSwept(double x, double y, double w, double h, double dx, double dy) {
+        return collect(Math.min(x, x + dx), Math.min(y, y + dy),
+                Math.max(x, x + dx) + w, Math.max(y, y + dy) + h);
+    }
+
+    private int addHit(int n, int i) {
+        if (n == hits.length) {
+            hits = Arrays.copyOf(hits, n * 2);
+        }
+        hits[n] = i;
+        return n + 1;
+    }
+
+    private int sortHits(int n) {
+        Arrays.sort(hits, 0, n);
+        return n;
+    }
+}
@@ -235,18 +235,12 @@ public class CombatScreen {
     private Monster foundMonster(String encounter) {
         Monster m = null;
         boolean found = false;
-        while (!found) {
-            for (int i = 0; i < game.getCharacters().size() && !found; i++) {
-                NPC n = game.getCharacters().get(i);
-                if (n instanceof Monster) {
-                    if (((Monster) n).getEncounter().equalsIgnoreCase(encounter)) {
-                        if (rnd.nextInt(0, 10) == 7) {
-                            Monster t = (Monster) n;
-                            m = new Monster(t.getActualWeapon(), t.getAttack(), t.getDefense(), t.getName(),
-                                    t.getSpritePath(), t.getLife(), t.getActualLife(), t.getExp(), t.getMoney(), t.getEncounter());
-                            found = true;
-                        }
-                    }
+        List<Monster> candidates = game.getCatalog().findEncounter(encounter);
+        while (!found && !candidates.isEmpty()) {
+            for (int i = 0; i < candidates.size() && !found; i++) {
+                if (rnd.nextInt(0, 10) == 7) {
+                    m = candidates.get(i).spawn();
+                    found = true;
                 }
             }
         }
@@ -254,8 +248,7 @@ public class CombatScreen {
     }
 
     private Monster createBoss(Boss t) {
-        Monster m = new Monster(t.getActualWeapon(), t.getAttack(), t.getDefense(), t.getName(),
-                t.getSpritePath(), t.getLife(), t.getActualLife(), t.getExp(), t.getMoney(), t.getEncounter());;
+        Monster m = t.spawn();
 
         return m;
     }
@@ -505,6 +498,16 @@ public class CombatScreen {
                 String alert = "You have leveled up! Now You Are level" + String.valueOf(game.getHero().getLevel());
                 toastQueue.enqueue(alert);
             }
+            // La pantalla se cierra antes de que termine, los fallos van al log
+            try {
+                game.getSaveService().autoSave().whenComplete((saved, error) -> {
+                    if (error != null) {
+                        System.err.println("No se pudo autoguardar tras el combate: " + error.getMessage());
+                    }
+                });
+            } catch (Throwable t) {
+                System.err.println("No se pudo autoguardar tras el combate: " + t.getMessage());
+            }
             endCombatAndReturnToMap();
         }
         if (!endCombatNow) {
@@ -3,80 +3,43 @@ package GUI;
 import GUI.JVInn;
 import GUI.JVMayor;
 import GUI.JVStore;
-import GUI.GameMapScreen;
 import Runner.MainScreen;
 import Characters.Hero;
 import Logic.Game;
 import com.almasb.fxgl.dsl.FXGL;
-import javafx.animation.FadeTransition;
 import javafx.animation.PauseTransition;
-import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.geometry.Point2D;
 import javafx.geometry.Rectangle2D;
-import javafx.geometry.Pos;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
-import javafx.scene.layout.Pane;
-import javafx.scene.layout.StackPane;
-import javafx.scene.media.Media;
-import javafx.scene.media.MediaPlayer;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Text;
 import javafx.util.Duration;
 
-import java.net.URL;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
-public class FieldVillage {
-
-    private final StackPane root;
-    private final Pane world;
-    private final StackPane loadingOverlay;
-    private ImageView backgroundView;
-    private MediaPlayer music;
-
-    private final ImageView heroView;
-    private final double HERO_W = 48;
-    private final double HERO_H = 48;
-    private final double HERO_SPEED = 180.0;
-    private final Set<KeyCode> keys = new HashSet<>();
-    private AnimationTimer mover;
-
-    private final double VIEW_W = 800;
-    private final double VIEW_H = 600;
-    private double worldW = VIEW_W;
-    private double worldH = VIEW_H;
-
-    private Rectangle startRect;
-    private boolean onStartRect = false;
+public class FieldVillage extends SceneEngine {
 
     private Runnable onExitCallback;
-    private final Game game;
 
     // Sistema de colisiones
     private final List<Obstacle> obstacles = new ArrayList<>();
+    // Puertas, en el orden de obstacles, y su árbol para checkInteractable
+    private final List<Obstacle> doors = new ArrayList<>();
+    private StaticRTree doorIndex = new StaticRTree.Builder().build();
+    private Text interactIndicator;
     private boolean debugEnabled = false;
 
     // Inventario (si se abre desde aquí se pasa this)
     private InventoryScreen inventory;
     private Obstacle currentInteractable = null;
 
-    // Direcciones del héroe (para depuración con tecla P)
-    public enum Direction {
-        NONE, N, NE, E, SE, S, SW, W, NW
-    }
-    private Direction currentDirection = Direction.NONE;
-
     // Tipos de obstáculos para la aldea
    private enum ObstacleType {
     HOUSE, TREE, WELL, FENCE, BUSH, EXIT, BLOCK, DOOR
@@ -96,37 +59,15 @@ public class FieldVillage {
     }
 
     public FieldVillage(Game game) {
-        this.game = game;
-        root = new StackPane();
-        root.setPrefSize(VIEW_W, VIEW_H);
-
-        world = new Pane();
-        world.setPrefSize(VIEW_W, VIEW_H);
-
-        loadingOverlay = createLoadingOverlay();
-
-        root.getChildren().addAll(world, loadingOverlay);
-
-        heroView = createHeroView();
+        super(game);
+        installLoadingOverlay("Cargando aldea...");
+        heroView.setImage(loadImage("/Resources/sprites/hero.png"));
 
         installInputHandlers();
-        createMover();
-
-        root.focusedProperty().addListener((obs, wasFocused, isFocused) -> {
-            if (!isFocused) clearInputState();
-        });
     }
 
     // ---------------- public API ----------------
 
-    public StackPane getRoot() {
-        return root;
-    }
-
-    public Point2D getHeroMapTopLeft() {
-        return new Point2D(heroView.getLayoutX(), heroView.getLayoutY());
-    }
-
     public void showWithLoading(Runnable onLoaded, Runnable onExit) {
         this.onExitCallback = onExit;
 
@@ -134,8 +75,8 @@ public class FieldVillage {
             FXGL.getGameScene().addUINode(root);
             showLoading(true);
 
-            boolean imageOk = loadBackgroundImage("/Resources/textures/fieldVillage/fieldVillage.png");
-            boolean musicOk = startVillageMusic("/Resources/music/fieldVillage.mp3");
+            boolean imageOk = loadBackgroundImage("/Resources/textures/fieldVillage/fieldVillage.png", "aldea");
+            boolean musicOk = startMusic("/Resources/music/fieldVillage.mp3");
 
             // Primero poblar colisiones
             populateVillageObstacles();
@@ -160,130 +101,8 @@ public class FieldVillage {
         });
     }
 
-    public void hide() {
-        Platform.runLater(() -> {
-            stopVillageMusic();
-            stopMover();
-            try { FXGL.getGameScene().removeUINode(root); } catch (Throwable ignored) {}
-        });
-    }
-
-    public void setHeroPosition(double x, double y) {
-        double nx = clamp(x, 0, Math.max(0, worldW - HERO_W));
-        double ny = clamp(y, 0, Math.max(0, worldH - HERO_H));
-        heroView.setLayoutX(nx);
-        heroView.setLayoutY(ny);
-        updateCamera();
-    }
-
-    public void startMover() {
-        if (mover != null) mover.start();
-    }
-
-    public void stopMover() {
-        if (mover != null) mover.stop();
-    }
-
-    public void stopVillageMusic() {
-        try {
-            if (music != null) {
-                music.stop();
-                music.dispose();
-                music = null;
-            }
-        } catch (Throwable ignored) {}
-    }
-
     // ---------------- internals / UI ----------------
 
-    private StackPane createLoadingOverlay() {
-        StackPane overlay = new StackPane();
-        overlay.setPickOnBounds(true);
-
-        Rectangle bg = new Rectangle(VIEW_W, VIEW_H);
-        bg.setFill(Color.rgb(0, 0, 0, 0.6));
-
-        Text label = new Text("Cargando aldea...");
-        label.setStyle("-fx-font-size: 24px; -fx-fill: #e0d090;");
-
-        overlay.getChildren().addAll(bg, label);
-        StackPane.setAlignment(label, Pos.CENTER);
-        overlay.setVisible(false);
-        return overlay;
-    }
-
-    private void showLoading(boolean show) {
-        loadingOverlay.setVisible(show);
-        if (show) loadingOverlay.toFront();
-        else loadingOverlay.toBack();
-    }
-
-    private void fadeInContent() {
-        FadeTransition ft = new FadeTransition(Duration.millis(400), root);
-        ft.setFromValue(0.2);
-        ft.setToValue(1.0);
-        ft.play();
-    }
-
-    private boolean loadBackgroundImage(String path) {
-        try {
-            Image img = new Image(getClass().getResourceAsStream(path));
-            backgroundView = new ImageView(img);
-            backgroundView.setPreserveRatio(false);
-            backgroundView.setSmooth(true);
-
-            worldW = img.getWidth() > 0 ? img.getWidth() : VIEW_W;
-            worldH = img.getHeight() > 0 ? img.getHeight() : VIEW_H;
-
-            backgroundView.setFitWidth(worldW);
-            backgroundView.setFitHeight(worldH);
-
-            world.setPrefSize(worldW, worldH);
-            world.getChildren().clear();
-            world.getChildren().add(backgroundView);
-
-            if (!world.getChildren().contains(heroView)) {
-                world.getChildren().add(heroView);
-            } else {
-                heroView.toFront();
-            }
-            return true;
-        } catch (Throwable t) {
-            Text err = new Text("No se pudo cargar la imagen de la aldea.");
-            err.setStyle("-fx-font-size: 16px; -fx-fill: #ffdddd;");
-            root.getChildren().add(err);
-            return false;
-        }
-    }
-
-    private boolean startVillageMusic(String path) {
-        try {
-            URL res = getClass().getResource(path);
-            if (res == null) return false;
-            Media media = new Media(res.toExternalForm());
-            stopVillageMusic();
-            music = new MediaPlayer(media);
-            music.setCycleCount(MediaPlayer.INDEFINITE);
-            music.setVolume(MainScreen.getVolumeSetting());
-            music.play();
-            return true;
-        } catch (Throwable t) {
-            return false;
-        }
-    }
-
-    private ImageView createHeroView() {
-        Image img = null;
-        try { img = new Image(getClass().getResourceAsStream("/Resources/sprites/hero.png")); }
-        catch (Throwable ignored) { img = null; }
-        ImageView iv = new ImageView(img);
-        iv.setPreserveRatio(true);
-        iv.setFitWidth(HERO_W);
-        iv.setFitHeight(HERO_H);
-        iv.setMouseTransparent(true);
-        return iv;
-    }
-
 
     private void populateVillageObstacles() {
         obstacles.clear();
@@ -575,6 +394,26 @@ public class FieldVillage {
         ));
 
         // Puedes añadir más obstáculos aquí si los necesitas
+
+        indexObstacles();
+    }
+
+    // Rehace el índice de colisiones con la lista de obstáculos actual
+    private void indexObstacles() {
+        collisionGrid.clear();
+        doors.clear();
+        StaticRTree.Builder doorRects = new StaticRTree.Builder();
+        for (Obstacle ob : obstacles) {
+            // Las puertas se atraviesan
+            if (ob.type == ObstacleType.DOOR) {
+                doors.add(ob);
+                doorRects.add(ob.collisionRect);
+                continue;
+            }
+            collisionGrid.add(ob.collisionRect);
+        }
+        collisionGrid.build();
+        doorIndex = doorRects.build();
     }
 
     private void drawDebugObstacles() {
@@ -667,7 +506,7 @@ public class FieldVillage {
         double rh = HERO_H + 8;
 
         startRect = new Rectangle(rx - 4, ry - 4, rw, rh);
-        startRect.setFill(Color.rgb(0, 120, 255, 0.28));
+        startRect.setFill(ZONE_FILL);
         startRect.setStroke(Color.rgb(0, 80, 200, 0.9));
         startRect.setMouseTransparent(true);
         startRect.getProperties().put("tag", "exit_area");
@@ -737,10 +576,7 @@ public class FieldVillage {
         }
         
     
-            if (k == KeyCode.W || k == KeyCode.UP) keys.add(KeyCode.W);
-            if (k == KeyCode.S || k == KeyCode.DOWN) keys.add(KeyCode.S);
-            if (k == KeyCode.A || k == KeyCode.LEFT) keys.add(KeyCode.A);
-            if (k == KeyCode.D || k == KeyCode.RIGHT) keys.add(KeyCode.D);
+            motion.press(k);
 
             if (k == KeyCode.P) {
                 System.out.println("Hero position (aldea): (" + heroView.getLayoutX() + ", " + heroView.getLayoutY() + ")");
@@ -812,7 +648,7 @@ public class FieldVillage {
                         }
                     } catch (Throwable ignored) {}
 
-                    stopVillageMusic();
+                    stopMusic();
                     try { FXGL.getGameScene().removeUINode(root); } catch (Throwable ignored) {}
                     MainScreen.restoreMenuAndMusic();
                 } else {
@@ -826,10 +662,7 @@ public class FieldVillage {
 
         root.addEventFilter(KeyEvent.KEY_RELEASED, ev -> {
             KeyCode k = ev.getCode();
-            if (k == KeyCode.W || k == KeyCode.UP) keys.remove(KeyCode.W);
-            if (k == KeyCode.S || k == KeyCode.DOWN) keys.remove(KeyCode.S);
-            if (k == KeyCode.A || k == KeyCode.LEFT) keys.remove(KeyCode.A);
-            if (k == KeyCode.D || k == KeyCode.RIGHT) keys.remove(KeyCode.D);
+            motion.release(k);
             ev.consume();
         });
 
@@ -864,216 +697,57 @@ public class FieldVillage {
         });
     }
 
-    private void createMover() {
-        mover = new AnimationTimer() {
-            private long last = -1;
-            @Override
-            public void handle(long now) {
-                if (last < 0) last = now;
-                double dt = (now - last) / 1e9;
-                last = now;
-
-                if (root.getScene() == null || !root.isFocused()) {
-                    clearInputState();
-                    return;
-                }
-
-                updateAndMove(dt);
-            }
-        };
-    }
-
-   private void updateAndMove(double dt) {
-    double vx = 0;
-    double vy = 0;
-    if (keys.contains(KeyCode.A)) vx -= HERO_SPEED;
-    if (keys.contains(KeyCode.D)) vx += HERO_SPEED;
-    if (keys.contains(KeyCode.W)) vy -= HERO_SPEED;
-    if (keys.contains(KeyCode.S)) vy += HERO_SPEED;
-
-    Direction newDir = (vx != 0 || vy != 0) ? directionFromVector(vx, vy) : Direction.NONE;
-    setDirectionIfChanged(newDir);
-
-    if (vx == 0 && vy == 0) {
+    @Override
+    protected void checkZones() {
         checkInteractable();
         showInteractableIndicator();
         checkStartIntersection();
-        return;
-    }
-
-    moveHero(vx * dt, vy * dt);
-}
-
-    private void moveHero(double dx, double dy) {
-    double curX = heroView.getLayoutX();
-    double curY = heroView.getLayoutY();
-
-    double proposedX = clamp(curX + dx, 0, Math.max(0, worldW - HERO_W));
-    double proposedY = clamp(curY + dy, 0, Math.max(0, worldH - HERO_H));
-
-    Rectangle2D heroRect = new Rectangle2D(proposedX, proposedY, HERO_W, HERO_H);
-    boolean collision = false;
-
-    for (Obstacle ob : obstacles) {
-        // IGNORAR PUERTAS - el héroe puede pasar por ellas
-        if (ob.type == ObstacleType.DOOR) {
-            continue; // Saltar puertas en la detección de colisión
-        }
-        
-        if (heroRect.intersects(ob.collisionRect)) {
-            collision = true;
-            break;
-        }
     }
 
-    if (!collision) {
-        heroView.setLayoutX(proposedX);
-        heroView.setLayoutY(proposedY);
-    } else {
-        Rectangle2D heroRectX = new Rectangle2D(proposedX, curY, HERO_W, HERO_H);
-        Rectangle2D heroRectY = new Rectangle2D(curX, proposedY, HERO_W, HERO_H);
-
-        boolean canMoveX = true;
-        boolean canMoveY = true;
-
-        for (Obstacle ob : obstacles) {
-            // IGNORAR PUERTAS también aquí
-            if (ob.type == ObstacleType.DOOR) {
-                continue;
-            }
-            
-            if (heroRectX.intersects(ob.collisionRect)) canMoveX = false;
-            if (heroRectY.intersects(ob.collisionRect)) canMoveY = false;
-        }
+    
+ private void checkInteractable() {
+    currentInteractable = null;
 
-        if (canMoveX) heroView.setLayoutX(proposedX);
-        if (canMoveY) heroView.setLayoutY(proposedY);
+    // Solo interaccionamos con puertas (DOOR); la primera de la lista gana
+    if (doorIndex.query(heroView.getLayoutX(), heroView.getLayoutY(), HERO_W, HERO_H) > 0) {
+        currentInteractable = doors.get(doorIndex.hit(0));
     }
-    checkInteractable();
-    showInteractableIndicator();
-    checkStartIntersection();
-    updateCamera();
 }
-
-    private Direction directionFromVector(double vx, double vy) {
-        if (vx == 0 && vy == 0) return Direction.NONE;
-        double angle = Math.toDegrees(Math.atan2(-vy, vx));
-        if (angle < 0) angle += 360.0;
-
-        if (angle >= 337.5 || angle < 22.5) return Direction.E;
-        if (angle < 67.5) return Direction.NE;
-        if (angle < 112.5) return Direction.N;
-        if (angle < 157.5) return Direction.NW;
-        if (angle < 202.5) return Direction.W;
-        if (angle < 247.5) return Direction.SW;
-        if (angle < 292.5) return Direction.S;
-        if (angle < 337.5) return Direction.SE;
-        return Direction.NONE;
-    }
-
-    private void setDirectionIfChanged(Direction newDir) {
-        if (newDir == null) newDir = Direction.NONE;
-        currentDirection = newDir;
-    }
-
-    public Direction getHeroDirection() {
-        return currentDirection;
-    }
-
-    private void checkStartIntersection() {
-        if (startRect == null) {
-            onStartRect = false;
-            return;
+    
+private void showInteractableIndicator() {
+    // Un solo indicador que se recoloca, en lugar de crear uno por frame
+    if (currentInteractable == null) {
+        if (interactIndicator != null) {
+            interactIndicator.setVisible(false);
         }
-        boolean intersects = heroView.getBoundsInParent().intersects(startRect.getBoundsInParent());
-        onStartRect = intersects;
-        startRect.setFill(intersects ? Color.rgb(0, 120, 255, 0.42) : Color.rgb(0, 120, 255, 0.28));
+        return;
     }
 
-    private void updateCamera() {
-        double heroCenterX = heroView.getLayoutX() + HERO_W / 2.0;
-        double heroCenterY = heroView.getLayoutY() + HERO_H / 2.0;
-
-        double targetTx = VIEW_W / 2.0 - heroCenterX;
-        double targetTy = VIEW_H / 2.0 - heroCenterY;
-
-        double minTx = Math.min(0, VIEW_W - worldW);
-        double maxTx = 0;
-        double minTy = Math.min(0, VIEW_H - worldH);
-        double maxTy = 0;
-
-        double tx = clamp(targetTx, minTx, maxTx);
-        double ty = clamp(targetTy, minTy, maxTy);
-
-        double lowerZone = worldH * 0.75;
-        if (heroCenterY > lowerZone) {
-            double factor = 0.45;
-            ty = ty * factor + (VIEW_H / 2.0 - heroCenterY) * (1 - factor);
-            ty = clamp(ty, minTy, maxTy);
-        }
-
-        world.setTranslateX(tx);
-        world.setTranslateY(ty);
+    if (interactIndicator == null) {
+        interactIndicator = new Text("Presiona ENTER para entrar");
+        interactIndicator.setStyle("-fx-font-size: 16px; -fx-fill: #FFFFFF; -fx-stroke: #ffffff; -fx-stroke-width: 2px;");
+        interactIndicator.getProperties().put("tag", "interact_indicator");
+        interactIndicator.setMouseTransparent(true);
     }
-
-    private static double clamp(double v, double lo, double hi) {
-        if (v < lo) return lo;
-        if (v > hi) return hi;
-        return v;
+    if (interactIndicator.getParent() != world) {
+        world.getChildren().add(interactIndicator);
     }
 
-    private void clearInputState() {
-        keys.clear();
-    }
+    // Posicionar encima del héroe
+    double indicatorX = heroView.getLayoutX() + HERO_W/2 - interactIndicator.getLayoutBounds().getWidth()/2;
+    double indicatorY = heroView.getLayoutY() - 10;
 
-    
- private void checkInteractable() {
-    currentInteractable = null;
-    Rectangle2D heroRect = new Rectangle2D(
-        heroView.getLayoutX(), 
-        heroView.getLayoutY(), 
-        HERO_W, 
-        HERO_H
-    );
-    
-    for (Obstacle ob : obstacles) {
-        if (heroRect.intersects(ob.collisionRect)) {
-            // Solo interaccionamos con puertas (DOOR)
-            if (ob.type == ObstacleType.DOOR) {
-                currentInteractable = ob;
-                break;
-            }
-        }
-    }
-}
-    
-private void showInteractableIndicator() {
-    // Remover indicador anterior si existe
-    world.getChildren().removeIf(n -> "interact_indicator".equals(n.getProperties().get("tag")));
-    
-    if (currentInteractable != null) {
-        Text indicator = new Text("Presiona ENTER para entrar");
-        indicator.setStyle("-fx-font-size: 16px; -fx-fill: #FFFFFF; -fx-stroke: #ffffff; -fx-stroke-width: 2px;");
-        indicator.getProperties().put("tag", "interact_indicator");
-        
-        // Posicionar encima del héroe
-        double indicatorX = heroView.getLayoutX() + HERO_W/2 - indicator.getLayoutBounds().getWidth()/2;
-        double indicatorY = heroView.getLayoutY() - 10;
-        
-        indicator.setX(indicatorX);
-        indicator.setY(indicatorY);
-        indicator.setMouseTransparent(true);
-        
-        world.getChildren().add(indicator);
-        indicator.toFront();
-    }
+    interactIndicator.setX(indicatorX);
+    interactIndicator.setY(indicatorY);
+    interactIndicator.setVisible(true);
+    interactIndicator.toFront();
 }
     
    private void enterInteractable(Obstacle interactable) {
     final Point2D savedHeroTopLeft = getHeroMapTopLeft();
     
     clearInputState();
-    stopVillageMusic();
+    stopMusic();
     stopMover();
     
     try {
@@ -1082,7 +756,7 @@ private void showInteractableIndicator() {
     
     Runnable returnCallback = () -> {
         Platform.runLater(() -> {
-            startVillageMusic("/Resources/music/fieldVillage.mp3");
+            startMusic("/Resources/music/fieldVillage.mp3");
             try {
                 FXGL.getGameScene().addUINode(root);
             } catch (Throwable ignored) {}
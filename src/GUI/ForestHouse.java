@@ -4,57 +4,23 @@ import Runner.MainScreen;
 import Characters.Hero;
 import Logic.Game;
 import com.almasb.fxgl.dsl.FXGL;
-import javafx.animation.FadeTransition;
 import javafx.animation.PauseTransition;
-import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
-import javafx.geometry.Point2D;
 import javafx.geometry.Rectangle2D;
-import javafx.geometry.Pos;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
-import javafx.scene.layout.Pane;
-import javafx.scene.layout.StackPane;
-import javafx.scene.media.Media;
-import javafx.scene.media.MediaPlayer;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
-import javafx.scene.text.Text;
 import javafx.util.Duration;
 
-import java.net.URL;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
-
-public class ForestHouse {
-
-    private final StackPane root;
-    private final Pane world;
-    private final StackPane loadingOverlay;
-    private ImageView backgroundView;
-    private MediaPlayer music;
-
-    private final ImageView heroView;
-    private final double HERO_W = 48;
-    private final double HERO_H = 48;
-    private final double HERO_SPEED = 180.0;
-    private final Set<KeyCode> keys = new HashSet<>();
-    private AnimationTimer mover;
-
-    private final double VIEW_W = 800;
-    private final double VIEW_H = 600;
-    private double worldW = VIEW_W;
-    private double worldH = VIEW_H;
-
-    private Rectangle startRect;
-    private boolean onStartRect = false;
+
+public class ForestHouse extends SceneEngine {
+
     private Rectangle houseEntranceRect;
     private boolean onHouseEntranceRect = false;
     private Rectangle houseExitRect;
@@ -67,7 +33,6 @@ public class ForestHouse {
     private boolean entranceHouse = false;
 
     private Runnable onExitCallback;
-    private final Game game;
 
     // Sistema de colisiones
     private final List<Obstacle> obstacles = new ArrayList<>();
@@ -76,12 +41,6 @@ public class ForestHouse {
     // Inventario (si se abre desde aquí se pasa this)
     private InventoryScreen inventory;
 
-    // Direcciones del héroe (para depuración con tecla P)
-    public enum Direction {
-        NONE, N, NE, E, SE, S, SW, W, NW
-    }
-    private Direction currentDirection = Direction.NONE;
-
     // Tipos de obstáculos para la aldea
     private enum ObstacleType {
         HOUSE, TREE, FENCE, BUSH, BLOCK, PLANT, DECORATION
@@ -102,35 +61,10 @@ public class ForestHouse {
     }
 
     public ForestHouse(Game game) {
-        this.game = game;
-        root = new StackPane();
-        root.setPrefSize(VIEW_W, VIEW_H);
-
-        world = new Pane();
-        world.setPrefSize(VIEW_W, VIEW_H);
-
-        loadingOverlay = createLoadingOverlay();
-
-        root.getChildren().addAll(world, loadingOverlay);
-
-        heroView = createHeroView();
+        super(game);
+        installLoadingOverlay("Cargando aldea...");
 
         installInputHandlers();
-        createMover();
-
-        root.focusedProperty().addListener((obs, wasFocused, isFocused) -> {
-            if (!isFocused) {
-                clearInputState();
-            }
-        });
-    }
-
-    public StackPane getRoot() {
-        return root;
-    }
-
-    public Point2D getHeroMapTopLeft() {
-        return new Point2D(heroView.getLayoutX(), heroView.getLayoutY());
     }
 
     public void showWithLoading(Runnable onLoaded, Runnable onExit) {
@@ -140,8 +74,8 @@ public class ForestHouse {
             FXGL.getGameScene().addUINode(root);
             showLoading(true);
 
-            boolean imageOk = loadBackgroundImage("/Resources/textures/forestHouse/forestHouseOutside2.png");
-            boolean musicOk = startVillageMusic("/Resources/music/forestHouse.mp3");
+            boolean imageOk = loadBackgroundImage("/Resources/textures/forestHouse/forestHouseOutside2.png", "aldea");
+            boolean musicOk = startMusic("/Resources/music/forestHouse.mp3");
 
             populateForestHouseObstacles();
 
@@ -163,145 +97,6 @@ public class ForestHouse {
         });
     }
 
-    public void hide() {
-        Platform.runLater(() -> {
-            stopVillageMusic();
-            stopMover();
-            try {
-                FXGL.getGameScene().removeUINode(root);
-            } catch (Throwable ignored) {
-            }
-        });
-    }
-
-    public void setHeroPosition(double x, double y) {
-        double nx = clamp(x, 0, Math.max(0, worldW - HERO_W));
-        double ny = clamp(y, 0, Math.max(0, worldH - HERO_H));
-        heroView.setLayoutX(nx);
-        heroView.setLayoutY(ny);
-        updateCamera();
-    }
-
-    public void startMover() {
-        if (mover != null) {
-            mover.start();
-        }
-    }
-
-    public void stopMover() {
-        if (mover != null) {
-            mover.stop();
-        }
-    }
-
-    public void stopVillageMusic() {
-        try {
-            if (music != null) {
-                music.stop();
-                music.dispose();
-                music = null;
-            }
-        } catch (Throwable ignored) {
-        }
-    }
-
-    // ---------------- internals / UI ----------------
-    private StackPane createLoadingOverlay() {
-        StackPane overlay = new StackPane();
-        overlay.setPickOnBounds(true);
-
-        Rectangle bg = new Rectangle(VIEW_W, VIEW_H);
-        bg.setFill(Color.rgb(0, 0, 0, 0.6));
-
-        Text label = new Text("Cargando aldea...");
-        label.setStyle("-fx-font-size: 24px; -fx-fill: #e0d090;");
-
-        overlay.getChildren().addAll(bg, label);
-        StackPane.setAlignment(label, Pos.CENTER);
-        overlay.setVisible(false);
-        return overlay;
-    }
-
-    private void showLoading(boolean show) {
-        loadingOverlay.setVisible(show);
-        if (show) {
-            loadingOverlay.toFront();
-        } else {
-            loadingOverlay.toBack();
-        }
-    }
-
-    private void fadeInContent() {
-        FadeTransition ft = new FadeTransition(Duration.millis(400), root);
-        ft.setFromValue(0.2);
-        ft.setToValue(1.0);
-        ft.play();
-    }
-
-    private boolean loadBackgroundImage(String path) {
-        try {
-            Image img = new Image(getClass().getResourceAsStream(path));
-            backgroundView = new ImageView(img);
-            backgroundView.setPreserveRatio(false);
-            backgroundView.setSmooth(true);
-
-            worldW = img.getWidth() > 0 ? img.getWidth() : VIEW_W;
-            worldH = img.getHeight() > 0 ? img.getHeight() : VIEW_H;
-
-            backgroundView.setFitWidth(worldW);
-            backgroundView.setFitHeight(worldH);
-
-            world.setPrefSize(worldW, worldH);
-            world.getChildren().clear();
-            world.getChildren().add(backgroundView);
-
-            if (!world.getChildren().contains(heroView)) {
-                world.getChildren().add(heroView);
-            } else {
-                heroView.toFront();
-            }
-            return true;
-        } catch (Throwable t) {
-            Text err = new Text("No se pudo cargar la imagen de la aldea.");
-            err.setStyle("-fx-font-size: 16px; -fx-fill: #ffdddd;");
-            root.getChildren().add(err);
-            return false;
-        }
-    }
-
-    private boolean startVillageMusic(String path) {
-        try {
-            URL res = getClass().getResource(path);
-            if (res == null) {
-                return false;
-            }
-            Media media = new Media(res.toExternalForm());
-            stopVillageMusic();
-            music = new MediaPlayer(media);
-            music.setCycleCount(MediaPlayer.INDEFINITE);
-            music.setVolume(MainScreen.getVolumeSetting());
-            music.play();
-            return true;
-        } catch (Throwable t) {
-            return false;
-        }
-    }
-
-    private ImageView createHeroView() {
-        Image img = null;
-        try {
-            img = new Image(getClass().getResourceAsStream(game.getHero().getSpritePath()));
-        } catch (Throwable ignored) {
-            img = null;
-        }
-        ImageView iv = new ImageView(img);
-        iv.setPreserveRatio(true);
-        iv.setFitWidth(HERO_W);
-        iv.setFitHeight(HERO_H);
-        iv.setMouseTransparent(true);
-        return iv;
-    }
-
     // ---------------- metodos de colisiones  ----------------
     private void populateForestHouseObstacles() {
         obstacles.clear();
@@ -422,6 +217,8 @@ public class ForestHouse {
                 ObstacleType.DECORATION,
                 "Chimenea"
         ));
+
+        indexObstacles();
     }
 
     private void colisicions2Floor() {
@@ -488,6 +285,7 @@ public class ForestHouse {
                 "MesaMapas"
         ));
 
+        indexObstacles();
     }
 
     private void colissionInSide() {
@@ -613,6 +411,17 @@ public class ForestHouse {
                 ObstacleType.DECORATION,
                 "MesaCentro"
         ));
+
+        indexObstacles();
+    }
+
+    // Rehace el índice de colisiones con la lista de obstáculos actual
+    private void indexObstacles() {
+        collisionGrid.clear();
+        for (ForestHouse.Obstacle ob : obstacles) {
+            collisionGrid.add(ob.collisionRect);
+        }
+        collisionGrid.build();
     }
 
     // ---------------- movimiento , y entradas ----------------
@@ -647,7 +456,7 @@ public class ForestHouse {
         double rh = 50;
 
         startRect = new Rectangle(rx, ry, rw, rh);
-        startRect.setFill(Color.rgb(0, 120, 255, 0.28));
+        startRect.setFill(ZONE_FILL);
         startRect.setStroke(Color.rgb(0, 80, 200, 0.9));
         startRect.setMouseTransparent(true);
         startRect.getProperties().put("tag", "exit_area");
@@ -671,7 +480,7 @@ public class ForestHouse {
         double rh = 20;
 
         houseEntranceRect = new Rectangle(rx - 4, ry - 4, rw, rh);
-        houseEntranceRect.setFill(Color.rgb(0, 120, 255, 0.28));
+        houseEntranceRect.setFill(ZONE_FILL);
         houseEntranceRect.setStroke(Color.rgb(0, 80, 200, 0.9));
         houseEntranceRect.setMouseTransparent(true);
         houseEntranceRect.getProperties().put("tag", "house_entrance");
@@ -695,7 +504,7 @@ public class ForestHouse {
         double rh = 50;
 
         houseExitRect = new Rectangle(rx - 4, ry - 4, rw, rh);
-        houseExitRect.setFill(Color.rgb(0, 120, 255, 0.28));
+        houseExitRect.setFill(ZONE_FILL);
         houseExitRect.setStroke(Color.rgb(0, 80, 200, 0.9));
         houseExitRect.setMouseTransparent(true);
         houseExitRect.getProperties().put("tag", "house_exit");
@@ -719,7 +528,7 @@ public class ForestHouse {
         double rh = 50;
 
         floor2EntranceRect = new Rectangle(rx - 4, ry - 4, rw, rh);
-        floor2EntranceRect.setFill(Color.rgb(0, 120, 255, 0.28));
+        floor2EntranceRect.setFill(ZONE_FILL);
         floor2EntranceRect.setStroke(Color.rgb(0, 80, 200, 0.9));
         floor2EntranceRect.setMouseTransparent(true);
         floor2EntranceRect.getProperties().put("tag", "floor_entrance");
@@ -743,7 +552,7 @@ public class ForestHouse {
         double rh = 30;
 
         floor2ExitRect = new Rectangle(rx - 4, ry - 4, rw, rh);
-        floor2ExitRect.setFill(Color.rgb(0, 120, 255, 0.28));
+        floor2ExitRect.setFill(ZONE_FILL);
         floor2ExitRect.setStroke(Color.rgb(0, 80, 200, 0.9));
         floor2ExitRect.setMouseTransparent(true);
         floor2ExitRect.getProperties().put("tag", "floor_entrance");
@@ -759,18 +568,7 @@ public class ForestHouse {
         root.addEventFilter(KeyEvent.KEY_PRESSED, ev -> {
             KeyCode k = ev.getCode();
 
-            if (k == KeyCode.W || k == KeyCode.UP) {
-                keys.add(KeyCode.W);
-            }
-            if (k == KeyCode.S || k == KeyCode.DOWN) {
-                keys.add(KeyCode.S);
-            }
-            if (k == KeyCode.A || k == KeyCode.LEFT) {
-                keys.add(KeyCode.A);
-            }
-            if (k == KeyCode.D || k == KeyCode.RIGHT) {
-                keys.add(KeyCode.D);
-            }
+            motion.press(k);
 
             if (k == KeyCode.P) {
                 System.out.println("Hero position (aldea): (" + heroView.getLayoutX() + ", " + heroView.getLayoutY() + ")");
@@ -861,7 +659,7 @@ public class ForestHouse {
                     } catch (Throwable ignored) {
                     }
 
-                    stopVillageMusic();
+                    stopMusic();
                     try {
                         FXGL.getGameScene().removeUINode(root);
                     } catch (Throwable ignored) {
@@ -878,18 +676,7 @@ public class ForestHouse {
 
         root.addEventFilter(KeyEvent.KEY_RELEASED, ev -> {
             KeyCode k = ev.getCode();
-            if (k == KeyCode.W || k == KeyCode.UP) {
-                keys.remove(KeyCode.W);
-            }
-            if (k == KeyCode.S || k == KeyCode.DOWN) {
-                keys.remove(KeyCode.S);
-            }
-            if (k == KeyCode.A || k == KeyCode.LEFT) {
-                keys.remove(KeyCode.A);
-            }
-            if (k == KeyCode.D || k == KeyCode.RIGHT) {
-                keys.remove(KeyCode.D);
-            }
+            motion.release(k);
             ev.consume();
         });
 
@@ -943,163 +730,13 @@ public class ForestHouse {
         });
     }
 
-    private void createMover() {
-        mover = new AnimationTimer() {
-            private long last = -1;
-
-            @Override
-            public void handle(long now) {
-                if (last < 0) {
-                    last = now;
-                }
-                double dt = (now - last) / 1e9;
-                last = now;
-
-                if (root.getScene() == null || !root.isFocused()) {
-                    clearInputState();
-                    return;
-                }
-
-                updateAndMove(dt);
-            }
-        };
-    }
-
-    private void updateAndMove(double dt) {
-        double vx = 0;
-        double vy = 0;
-        if (keys.contains(KeyCode.A)) {
-            vx -= HERO_SPEED;
-        }
-        if (keys.contains(KeyCode.D)) {
-            vx += HERO_SPEED;
-        }
-        if (keys.contains(KeyCode.W)) {
-            vy -= HERO_SPEED;
-        }
-        if (keys.contains(KeyCode.S)) {
-            vy += HERO_SPEED;
-        }
-
-        ForestHouse.Direction newDir = (vx != 0 || vy != 0)
-                ? directionFromVector(vx, vy) : ForestHouse.Direction.NONE;
-        setDirectionIfChanged(newDir);
-
-        if (vx == 0 && vy == 0) {
-            checkStartIntersection();
-            checkHouseEntranceIntersection();
-            checkHouseExitIntersection();
-            checkfloor2EntranceIntersection();
-            checkfloor2EnxitIntersection();
-            return;
-        }
-
-        moveHero(vx * dt, vy * dt);
-    }
-
-    private void moveHero(double dx, double dy) {
-        double curX = heroView.getLayoutX();
-        double curY = heroView.getLayoutY();
-
-        double proposedX = clamp(curX + dx, 0, Math.max(0, worldW - HERO_W));
-        double proposedY = clamp(curY + dy, 0, Math.max(0, worldH - HERO_H));
-
-        Rectangle2D heroRect = new Rectangle2D(proposedX, proposedY, HERO_W, HERO_H);
-        boolean collision = false;
-
-        for (ForestHouse.Obstacle ob : obstacles) {
-            if (heroRect.intersects(ob.collisionRect)) {
-                collision = true;
-                break;
-            }
-        }
-
-        if (!collision) {
-            heroView.setLayoutX(proposedX);
-            heroView.setLayoutY(proposedY);
-        } else {
-            Rectangle2D heroRectX = new Rectangle2D(proposedX, curY, HERO_W, HERO_H);
-            Rectangle2D heroRectY = new Rectangle2D(curX, proposedY, HERO_W, HERO_H);
-
-            boolean canMoveX = true;
-            boolean canMoveY = true;
-
-            for (ForestHouse.Obstacle ob : obstacles) {
-                if (heroRectX.intersects(ob.collisionRect)) {
-                    canMoveX = false;
-                }
-                if (heroRectY.intersects(ob.collisionRect)) {
-                    canMoveY = false;
-                }
-            }
-
-            if (canMoveX) {
-                heroView.setLayoutX(proposedX);
-            }
-            if (canMoveY) {
-                heroView.setLayoutY(proposedY);
-            }
-        }
-
+    @Override
+    protected void checkZones() {
         checkStartIntersection();
-        updateCamera();
-    }
-
-    private ForestHouse.Direction directionFromVector(double vx, double vy) {
-        if (vx == 0 && vy == 0) {
-            return ForestHouse.Direction.NONE;
-        }
-        double angle = Math.toDegrees(Math.atan2(-vy, vx));
-        if (angle < 0) {
-            angle += 360.0;
-        }
-
-        if (angle >= 337.5 || angle < 22.5) {
-            return ForestHouse.Direction.E;
-        }
-        if (angle < 67.5) {
-            return ForestHouse.Direction.NE;
-        }
-        if (angle < 112.5) {
-            return ForestHouse.Direction.N;
-        }
-        if (angle < 157.5) {
-            return ForestHouse.Direction.NW;
-        }
-        if (angle < 202.5) {
-            return ForestHouse.Direction.W;
-        }
-        if (angle < 247.5) {
-            return ForestHouse.Direction.SW;
-        }
-        if (angle < 292.5) {
-            return ForestHouse.Direction.S;
-        }
-        if (angle < 337.5) {
-            return ForestHouse.Direction.SE;
-        }
-        return ForestHouse.Direction.NONE;
-    }
-
-    private void setDirectionIfChanged(ForestHouse.Direction newDir) {
-        if (newDir == null) {
-            newDir = ForestHouse.Direction.NONE;
-        }
-        currentDirection = newDir;
-    }
-
-    public ForestHouse.Direction getHeroDirection() {
-        return currentDirection;
-    }
-
-    private void checkStartIntersection() {
-        if (startRect == null) {
-            onStartRect = false;
-            return;
-        }
-        boolean intersects = heroView.getBoundsInParent().intersects(startRect.getBoundsInParent());
-        onStartRect = intersects;
-        startRect.setFill(intersects ? Color.rgb(0, 120, 255, 0.42) : Color.rgb(0, 120, 255, 0.28));
+        checkHouseEntranceIntersection();
+        checkHouseExitIntersection();
+        checkfloor2EntranceIntersection();
+        checkfloor2EnxitIntersection();
     }
 
     private void checkHouseEntranceIntersection() {
@@ -1109,7 +746,7 @@ public class ForestHouse {
         }
         boolean intersects = heroView.getBoundsInParent().intersects(houseEntranceRect.getBoundsInParent());
         onHouseEntranceRect = intersects;
-        houseEntranceRect.setFill(intersects ? Color.rgb(0, 120, 255, 0.42) : Color.rgb(0, 120, 255, 0.28));
+        houseEntranceRect.setFill(intersects ? ZONE_FILL_ACTIVE : ZONE_FILL);
     }
 
     private void checkHouseExitIntersection() {
@@ -1119,7 +756,7 @@ public class ForestHouse {
         }
         boolean intersects = heroView.getBoundsInParent().intersects(houseExitRect.getBoundsInParent());
         onHouseExit = intersects;
-        houseExitRect.setFill(intersects ? Color.rgb(0, 120, 255, 0.42) : Color.rgb(0, 120, 255, 0.28));
+        houseExitRect.setFill(intersects ? ZONE_FILL_ACTIVE : ZONE_FILL);
 
     }
 
@@ -1130,7 +767,7 @@ public class ForestHouse {
         }
         boolean intersects = heroView.getBoundsInParent().intersects(floor2EntranceRect.getBoundsInParent());
         onFloor2Entrance = intersects;
-        floor2EntranceRect.setFill(intersects ? Color.rgb(0, 120, 255, 0.42) : Color.rgb(0, 120, 255, 0.28));
+        floor2EntranceRect.setFill(intersects ? ZONE_FILL_ACTIVE : ZONE_FILL);
 
     }
 
@@ -1141,48 +778,8 @@ public class ForestHouse {
         }
         boolean intersects = heroView.getBoundsInParent().intersects(floor2ExitRect.getBoundsInParent());
         onFloor2Exit = intersects;
-        floor2ExitRect.setFill(intersects ? Color.rgb(0, 120, 255, 0.42) : Color.rgb(0, 120, 255, 0.28));
-
-    }
-
-    private void updateCamera() {
-        double heroCenterX = heroView.getLayoutX() + HERO_W / 2.0;
-        double heroCenterY = heroView.getLayoutY() + HERO_H / 2.0;
-
-        double targetTx = VIEW_W / 2.0 - heroCenterX;
-        double targetTy = VIEW_H / 2.0 - heroCenterY;
-
-        double minTx = Math.min(0, VIEW_W - worldW);
-        double maxTx = 0;
-        double minTy = Math.min(0, VIEW_H - worldH);
-        double maxTy = 0;
-
-        double tx = clamp(targetTx, minTx, maxTx);
-        double ty = clamp(targetTy, minTy, maxTy);
-
-        double lowerZone = worldH * 0.75;
-        if (heroCenterY > lowerZone) {
-            double factor = 0.45;
-            ty = ty * factor + (VIEW_H / 2.0 - heroCenterY) * (1 - factor);
-            ty = clamp(ty, minTy, maxTy);
-        }
-
-        world.setTranslateX(tx);
-        world.setTranslateY(ty);
-    }
-
-    private static double clamp(double v, double lo, double hi) {
-        if (v < lo) {
-            return lo;
-        }
-        if (v > hi) {
-            return hi;
-        }
-        return v;
-    }
+        floor2ExitRect.setFill(intersects ? ZONE_FILL_ACTIVE : ZONE_FILL);
 
-    private void clearInputState() {
-        keys.clear();
     }
     //---Metodo para cambiar el fondo la musica y las colisiones,y todo dentro del 1er piso-----
 
@@ -1191,10 +788,10 @@ public class ForestHouse {
         colissionInSide();
         startRect = null;
 
-        loadBackgroundImage("/Resources/textures/forestHouse/1stFloorForestHouse.png");// cambiando fondo
+        loadBackgroundImage("/Resources/textures/forestHouse/1stFloorForestHouse.png", "aldea");// cambiando fondo
 
-        stopVillageMusic();
-        startVillageMusic("/Resources/music/interiorOST.mp3");//camniar musica
+        stopMusic();
+        startMusic("/Resources/music/interiorOST.mp3");//camniar musica
         if (entranceHouse) {
             setHeroPosition(411.0, 576.0); //poisiconar heroe
         } else {
@@ -1212,10 +809,10 @@ public class ForestHouse {
         houseExitRect = null;
         createStartRectAtHeroStart();
 
-        loadBackgroundImage("/Resources/textures/forestHouse/foresthouseOutside2.png");// cambiando fondo
+        loadBackgroundImage("/Resources/textures/forestHouse/foresthouseOutside2.png", "aldea");// cambiando fondo
 
-        stopVillageMusic();
-        startVillageMusic("/Resources/music/forestHouse.mp3");//camniar musica
+        stopMusic();
+        startMusic("/Resources/music/forestHouse.mp3");//camniar musica
 
         setHeroPosition(379.0, 410.0); //poisiconar heroe 
     }
@@ -1226,7 +823,7 @@ public class ForestHouse {
         createFloor2ExitRect();
         houseExitRect = null;
 
-        loadBackgroundImage("/Resources/textures/forestHouse/2ndFloorForestHouse.png");// cambiando fondo
+        loadBackgroundImage("/Resources/textures/forestHouse/2ndFloorForestHouse.png", "aldea");// cambiando fondo
         setHeroPosition(0, 530.0); //poisiconar heroe   
     }
 
@@ -7,7 +7,6 @@ import Logic.Game;
 import Misc.Classes;
 import Tree.InBreadthIterator;
 import com.almasb.fxgl.dsl.FXGL;
-import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.geometry.Point2D;
 import javafx.geometry.Rectangle2D;
@@ -21,55 +20,35 @@ import javafx.scene.input.KeyEvent;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.input.ScrollEvent;
-import javafx.scene.layout.Pane;
-import javafx.scene.layout.StackPane;
-import javafx.scene.media.Media;
-import javafx.scene.media.MediaPlayer;
 import javafx.scene.transform.Scale;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.paint.Color;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
 
-public class GameMapScreen {
+public class GameMapScreen extends SceneEngine {
 
-    public final StackPane root;
-    private final Pane container;
     private final ImageView mapView;
-    public final ImageView heroView;
     private final Scale containerScale;
 
     private double lastMouseX, lastMouseY;
     private boolean draggingMap = false;
-    private boolean up, down, left, right;
-    private final AnimationTimer mover;
-    private double vx = 0, vy = 0;
-    private final double SPEED = 180.0;
 
     private final double mapW;
     private final double mapH;
 
-    private MediaPlayer mapMusic;
-
+    // Mismo orden que collisionGrid: el índice i de la rejilla es obstacles.get(i)
     private final List<Obstacle> obstacles = new ArrayList<>();
     private Obstacle currentInteractable = null;
 
-    private final Game game;
-
     // Ruta configurable para la música de combate
     private String combatMusicPath = "/Resources/music/fieldBattle.mp3";
 
     // Inventario
     private InventoryScreen inventory;
 
-    public enum Direction {
-        NONE, N, NE, E, SE, S, SW, W, NW
-    }
-    private Direction currentDirection = Direction.NONE;
-
     private static final double VILLAGE_COLLISION_SCALE = 0.22;
 
     // Offset específico para FIELD_VILLAGE
@@ -105,7 +84,7 @@ public class GameMapScreen {
     private final Random rnd = new Random();
 
     public GameMapScreen(Game game) {
-        this.game = game;
+        super(game);
         Hero hero = game.getHero();
 
         Image mapImg;
@@ -129,19 +108,16 @@ public class GameMapScreen {
         mapView.setFitWidth(mapW);
         mapView.setFitHeight(mapH);
 
-        container = new Pane();
-        container.setPrefSize(mapW, mapH);
-        container.getChildren().add(mapView);
+        worldW = mapW;
+        worldH = mapH;
+        world.setPrefSize(mapW, mapH);
+        world.getChildren().add(mapView);
 
-        heroView = createHeroView(hero);
-        container.getChildren().add(heroView);
+        heroView.setImage(heroImage(hero));
+        world.getChildren().add(heroView);
 
         containerScale = new Scale(1.0, 1.0, 0, 0);
-        container.getTransforms().add(containerScale);
-
-        root = new StackPane();
-        root.setPrefSize(800, 600);
-        root.getChildren().add(container);
+        world.getTransforms().add(containerScale);
 
         root.addEventFilter(MouseEvent.ANY, MouseEvent::consume);
 
@@ -151,32 +127,6 @@ public class GameMapScreen {
         installControls();
         installEscHandler();
 
-        mover = new AnimationTimer() {
-            private long last = -1;
-
-            @Override
-            public void handle(long now) {
-                if (last < 0) {
-                    last = now;
-                }
-                double dt = (now - last) / 1e9;
-                last = now;
-
-                if (root.getScene() == null || !root.isFocused()) {
-                    clearInputState();
-                    return;
-                }
-
-                updateVelocity();
-                boolean moving = (vx != 0 || vy != 0);
-                if (moving) {
-                    double dx = vx * dt;
-                    double dy = vy * dt;
-                    moveHeroWithCollision(dx, dy);
-                }
-            }
-        };
-
         // Si la escena se asigna, posicionamos el héroe solo si no se ha inicializado externamente
         root.sceneProperty().addListener((obs, oldScene, newScene) -> {
             boolean sceneReady = newScene != null;
@@ -186,17 +136,10 @@ public class GameMapScreen {
                         positionHeroCenter();
                     }
                     root.requestFocus();
-                    mover.start();
+                    startMover();
                 });
             } else {
-                mover.stop();
-                clearInputState();
-            }
-        });
-
-        // Limpia inputs al perder foco
-        root.focusedProperty().addListener((obs, wasFocused, isFocused) -> {
-            if (!isFocused) {
+                stopMover();
                 clearInputState();
             }
         });
@@ -208,7 +151,8 @@ public class GameMapScreen {
         }
     }
 
-    private ImageView createHeroView(Hero hero) {
+    // Imagen del héroe o, si no tiene, el sprite por defecto
+    private Image heroImage(Hero hero) {
         Image img = null;
         if (hero != null) {
             try {
@@ -217,17 +161,9 @@ public class GameMapScreen {
             }
         }
         if (img == null) {
-            try {
-                img = new Image(getClass().getResourceAsStream("/Resources/sprites/hero.png"));
-            } catch (Throwable ignored) {
-            }
+            img = loadImage("/Resources/sprites/hero.png");
         }
-        ImageView iv = new ImageView(img);
-        iv.setPreserveRatio(true);
-        iv.setFitWidth(48);
-        iv.setFitHeight(48);
-        iv.setMouseTransparent(true);
-        return iv;
+        return img;
     }
 
     private void positionHeroCenter() {
@@ -265,8 +201,8 @@ public class GameMapScreen {
             if (draggingMap) {
                 double dx = e.getSceneX() - lastMouseX;
                 double dy = e.getSceneY() - lastMouseY;
-                container.setTranslateX(container.getTranslateX() + dx);
-                container.setTranslateY(container.getTranslateY() + dy);
+                world.setTranslateX(world.getTranslateX() + dx);
+                world.setTranslateY(world.getTranslateY() + dy);
                 lastMouseX = e.getSceneX();
                 lastMouseY = e.getSceneY();
             }
@@ -311,14 +247,8 @@ public class GameMapScreen {
                 handled = true;
                 clearInputState();
                 openInventory();
-            } else if (k == KeyCode.W || k == KeyCode.UP) {
-                up = true;
-            } else if (k == KeyCode.S || k == KeyCode.DOWN) {
-                down = true;
-            } else if (k == KeyCode.A || k == KeyCode.LEFT) {
-                left = true;
-            } else if (k == KeyCode.D || k == KeyCode.RIGHT) {
-                right = true;
+            } else if (MovementKernel.bitOf(k) != 0) {
+                motion.press(k);
             } else if (k == KeyCode.L) {
                 enterDebugSwamp();
             }
@@ -336,26 +266,14 @@ public class GameMapScreen {
         });
 
         root.addEventFilter(KeyEvent.KEY_RELEASED, ev -> {
-            KeyCode k = ev.getCode();
-            if (k == KeyCode.W || k == KeyCode.UP) {
-                up = false;
-            }
-            if (k == KeyCode.S || k == KeyCode.DOWN) {
-                down = false;
-            }
-            if (k == KeyCode.A || k == KeyCode.LEFT) {
-                left = false;
-            }
-            if (k == KeyCode.D || k == KeyCode.RIGHT) {
-                right = false;
-            }
+            motion.release(ev.getCode());
         });
 
         root.setFocusTraversable(true);
     }
 
     private void openInventory() {
-        mover.stop();
+        stopMover();
 
         InventoryScreen inventory = new InventoryScreen(game, this);
 
@@ -366,7 +284,7 @@ public class GameMapScreen {
                 } catch (Throwable ignored) {
                 }
 
-                mover.start();
+                startMover();
                 root.requestFocus();
             });
         });
@@ -421,7 +339,7 @@ public class GameMapScreen {
             } catch (Throwable ignored) {
             }
 
-            stopMapMusic();
+            stopMusic();
             try {
                 FXGL.getGameScene().removeUINode(root);
             } catch (Throwable ignored) {
@@ -433,26 +351,9 @@ public class GameMapScreen {
         }
     }
 
-    private void updateVelocity() {
-        vx = 0;
-        vy = 0;
-        if (left) {
-            vx -= SPEED;
-        }
-        if (right) {
-            vx += SPEED;
-        }
-        if (up) {
-            vy -= SPEED;
-        }
-        if (down) {
-            vy += SPEED;
-        }
-        Direction newDir = (vx != 0 || vy != 0) ? directionFromVector(vx, vy) : Direction.NONE;
-        setDirectionIfChanged(newDir);
-    }
-
-    private void moveHeroWithCollision(double dx, double dy) {
+    // En el mapa no se desliza: si el destino choca el héroe se queda quieto
+    @Override
+    protected void moveHero(double dx, double dy) {
         currentInteractable = null;
 
         double hw = heroView.getBoundsInLocal().getWidth();
@@ -461,19 +362,17 @@ public class GameMapScreen {
         double proposedX = clamp(heroView.getLayoutX() + dx, 0, mapW - hw);
         double proposedY = clamp(heroView.getLayoutY() + dy, 0, mapH - hh);
 
-        Rectangle2D heroRect = new Rectangle2D(proposedX, proposedY, hw, hh);
-
-        boolean blocked = false;
-        for (Obstacle ob : obstacles) {
-            boolean hit = heroRect.intersects(ob.collisionRect);
-            if (hit && ob.type == ObstacleType.VILLAGE) {
+        int hits = collisionGrid.query(proposedX, proposedY, hw, hh);
+        for (int i = 0; i < hits; i++) {
+            Obstacle ob = obstacles.get(collisionGrid.hit(i));
+            if (ob.type == ObstacleType.VILLAGE) {
                 currentInteractable = ob;
             }
-            blocked = blocked || hit;
         }
+        boolean blocked = hits > 0;
 
         if (blocked) {
-            setDirectionIfChanged(Direction.NONE);
+            setDirection(Direction.NONE);
         } else {
             heroView.setLayoutX(proposedX);
             heroView.setLayoutY(proposedY);
@@ -493,95 +392,33 @@ public class GameMapScreen {
     }
 
     public void startMapMusic() {
-        try {
-            stopMapMusic();
-            URL res = getClass().getResource("/Resources/music/gameMapScreen.mp3");
-            boolean hasRes = res != null;
-            if (hasRes) {
-                Media media = new Media(res.toExternalForm());
-                mapMusic = new MediaPlayer(media);
-                mapMusic.setCycleCount(MediaPlayer.INDEFINITE);
-                mapMusic.setVolume(MainScreen.getVolumeSetting());
-                mapMusic.play();
-
-                AudioManager.register(mapMusic);
-            }
-        } catch (Throwable ignored) {
-        }
+        startMusic("/Resources/music/gameMapScreen.mp3");
     }
 
-    public void stopMapMusic() {
-        try {
-            boolean exists = mapMusic != null;
-            if (exists) {
-                AudioManager.unregister(mapMusic);
-                mapMusic.stop();
-                mapMusic.dispose();
-                mapMusic = null;
-            }
-        } catch (Throwable ignored) {
-        }
-    }
-
-    private static double clamp(double v, double lo, double hi) {
-        double out = v;
-        if (out < lo) {
-            out = lo;
-        } else if (out > hi) {
-            out = hi;
-        }
-        return out;
-    }
-
-    private Direction directionFromVector(double vx, double vy) {
-        if (vx == 0 && vy == 0) {
-            return Direction.NONE;
-        }
-        double angle = Math.toDegrees(Math.atan2(-vy, vx));
-        if (angle < 0) {
-            angle += 360.0;
-        }
-
-        if (angle >= 337.5 || angle < 22.5) {
-            return Direction.E;
-        }
-        if (angle < 67.5) {
-            return Direction.NE;
-        }
-        if (angle < 112.5) {
-            return Direction.N;
-        }
-        if (angle < 157.5) {
-            return Direction.NW;
-        }
-        if (angle < 202.5) {
-            return Direction.W;
-        }
-        if (angle < 247.5) {
-            return Direction.SW;
-        }
-        if (angle < 292.5) {
-            return Direction.S;
-        }
-        if (angle < 337.5) {
-            return Direction.SE;
-        }
-        return Direction.NONE;
+    // El mapa no tiene cámara que siga al héroe (se mueve con zoom y arrastre)
+    // ni zonas que comprobar
+    @Override
+    protected void afterFrame(boolean moved) {
     }
 
-    private void setDirectionIfChanged(Direction newDir) {
-        if (newDir == null) {
-            newDir = Direction.NONE;
+    // Journaled save of the map position before leaving for another scene
+    private void autoSaveOnMap(Point2D heroTopLeft) {
+        try {
+            if (game != null && game.getHero() != null) {
+                Hero h = game.getHero();
+                h.setLastLocation(Hero.Location.MAP);
+                h.setLastPosX(heroTopLeft.getX());
+                h.setLastPosY(heroTopLeft.getY());
+                // Se sale del mapa antes de que termine, los fallos van al log
+                game.getSaveService().autoSave().whenComplete((saved, error) -> {
+                    if (error != null) {
+                        System.err.println("No se pudo autoguardar en el mapa: " + error.getMessage());
+                    }
+                });
+            }
+        } catch (Throwable t) {
+            System.err.println("No se pudo autoguardar en el mapa: " + t.getMessage());
         }
-        currentDirection = newDir;
-    }
-
-    public Direction getHeroDirection() {
-        return currentDirection;
-    }
-
-    public Point2D getHeroMapTopLeft() {
-        return new Point2D(heroView.getLayoutX(), heroView.getLayoutY());
     }
 
     public Point2D getHeroMapCenter() {
@@ -597,11 +434,11 @@ public class GameMapScreen {
     }
 
     public Point2D sceneToMap(double sceneX, double sceneY) {
-        return container.sceneToLocal(sceneX, sceneY);
+        return world.sceneToLocal(sceneX, sceneY);
     }
 
     public Point2D mapToScene(double mapX, double mapY) {
-        return container.localToScene(mapX, mapY);
+        return world.localToScene(mapX, mapY);
     }
 
     private void addVillageAtCenter(Point2D center, double visualW, double visualH, String id) {
@@ -631,6 +468,7 @@ public class GameMapScreen {
         Rectangle2D collision = new Rectangle2D(cx, cy, finalW, finalH);
 
         obstacles.add(new Obstacle(visual, collision, ObstacleType.VILLAGE, id));
+        collisionGrid.add(collision);
     }
 
     private void addBlockAtCenter(Point2D center, double width, double height) {
@@ -638,10 +476,12 @@ public class GameMapScreen {
         double y = center.getY() - height / 2.0;
         Rectangle2D collision = new Rectangle2D(x, y, width, height);
         obstacles.add(new Obstacle(null, collision, ObstacleType.BLOCK, null));
+        collisionGrid.add(collision);
     }
 
     private void populateVillagesFromList() {
         obstacles.clear();
+        collisionGrid.clear();
 
         double visualW = 64;
         double visualH = 48;
@@ -754,10 +594,11 @@ public class GameMapScreen {
         for (Point2D c : blockCenters) {
             addBlockAtCenter(c, blockW, blockH);
         }
+        collisionGrid.build();
     }
 
     public void drawDebugObstacles() {
-        container.getChildren().removeIf(n -> "debug".equals(n.getProperties().get("tag")));
+        world.getChildren().removeIf(n -> "debug".equals(n.getProperties().get("tag")));
 
         if (!debugEnabled) {
             return;
@@ -772,7 +613,7 @@ public class GameMapScreen {
                 rv.setStroke(Color.rgb(0, 0, 120, 0.5));
                 rv.getProperties().put("tag", "debug");
                 rv.setMouseTransparent(true);
-                container.getChildren().add(rv);
+                world.getChildren().add(rv);
             }
 
             Rectangle rc = new Rectangle(
@@ -787,7 +628,7 @@ public class GameMapScreen {
             }
             rc.getProperties().put("tag", "debug");
             rc.setMouseTransparent(true);
-            container.getChildren().add(rc);
+            world.getChildren().add(rc);
         }
     }
 
@@ -797,10 +638,11 @@ public class GameMapScreen {
 
         if (isFieldVillage) {
             final Point2D savedHeroTopLeft = getHeroMapTopLeft();
+            autoSaveOnMap(savedHeroTopLeft);
 
             clearInputState();
 
-            stopMapMusic();
+            stopMusic();
             try {
                 FXGL.getGameScene().removeUINode(root);
             } catch (Throwable ignored) {
@@ -822,15 +664,16 @@ public class GameMapScreen {
                     }
                     root.requestFocus();
                     clearInputState();
-                    mover.start();
+                    startMover();
                 });
             });
         } else if (isForestHouse) {
             final Point2D savedHeroTopLeft = getHeroMapTopLeft();
+            autoSaveOnMap(savedHeroTopLeft);
 
             clearInputState();
 
-            stopMapMusic();
+            stopMusic();
             try {
                 FXGL.getGameScene().removeUINode(root);
             } catch (Throwable ignored) {
@@ -852,7 +695,7 @@ public class GameMapScreen {
                     }
                     root.requestFocus();
                     clearInputState();
-                    mover.start();
+                    startMover();
                 });
             });
         } else {
@@ -880,7 +723,7 @@ public class GameMapScreen {
 
         clearInputState();
 
-        stopMapMusic();
+        stopMusic();
         try {
             FXGL.getGameScene().removeUINode(root);
         } catch (Throwable ignored) {
@@ -902,12 +745,13 @@ public class GameMapScreen {
                 }
                 root.requestFocus();
                 clearInputState();
-                mover.start();
+                startMover();
             });
         });
 
     }
 
+    @Override
     public void setHeroPosition(double x, double y) {
         if (heroView != null) {
             double hw = heroView.getBoundsInLocal().getWidth();
@@ -922,14 +766,15 @@ public class GameMapScreen {
         positionHeroCenter();
     }
 
-    private void clearInputState() {
-        up = down = left = right = false;
+    @Override
+    protected void clearInputState() {
+        super.clearInputState();
         draggingMap = false;
     }
 
     private void openDebugCombat() {
         String bg = "/Resources/textures/Battle/fieldBattle.png";
-        stopMapMusic();
+        stopMusic();
 
         GUI.CombatScreen cs = new GUI.CombatScreen(game, bg, "Overworld", game.getHero(), false, null);
 
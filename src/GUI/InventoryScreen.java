@@ -29,10 +29,8 @@ import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Font;
 import javafx.util.Duration;
 
-import java.lang.reflect.Method;
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.LinkedList;
 import java.util.Queue;
 
 public class InventoryScreen {
@@ -423,11 +421,11 @@ public class InventoryScreen {
         waresList.setStyle("-fx-background-color: transparent;");
 
         int healingItems = 0;
-        LinkedList<Item> allItems = hero.getItems();
-        for (Item item : allItems) {
-            if (item instanceof Wares ware) {
+        // One row per stack, copies of an item share it
+        for (ItemStack stack : hero.getInventory().getStacks()) {
+            if (stack.getItem() instanceof Wares ware) {
                 healingItems++;
-                HBox wareRow = createItemRow(ware.getName(),
+                HBox wareRow = createItemRow(ware.getName() + " x" + stack.getQuantity(),
                         "Healing: " + ware.getHealing() + " | ID: " + ware.getId(),
                         false);
                 wareRow.setStyle("-fx-background-color: rgba(68, 255, 68, 0.1); -fx-background-radius: 5;");
@@ -761,18 +759,8 @@ public class InventoryScreen {
             }
 
             try {
-                if (mapScreen != null) {
-                    try {
-                        Method m = mapScreen.getClass().getMethod("stopMapMusic");
-                        m.invoke(mapScreen);
-                    } catch (NoSuchMethodException nsme) {
-                        try {
-                            Method mv = mapScreen.getClass().getMethod("stopVillageMusic");
-                            mv.invoke(mapScreen);
-                        } catch (Throwable ignored2) {
-                        }
-                    } catch (Throwable ignored) {
-                    }
+                if (mapScreen instanceof SceneEngine) {
+                    ((SceneEngine) mapScreen).stopMusic();
                 }
             } catch (Throwable ignored) {
             }
@@ -1052,16 +1040,8 @@ public class InventoryScreen {
     }
 
     private Point2D tryGetHeroTopLeftFromProvider() {
-        if (mapScreen == null) {
-            return null;
-        }
-        try {
-            Method m = mapScreen.getClass().getMethod("getHeroMapTopLeft");
-            Object res = m.invoke(mapScreen);
-            if (res instanceof Point2D) {
-                return (Point2D) res;
-            }
-        } catch (Throwable ignored) {
+        if (mapScreen instanceof SceneEngine) {
+            return ((SceneEngine) mapScreen).getHeroMapTopLeft();
         }
         return null;
     }
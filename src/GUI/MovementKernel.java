@@ -0,0 +1,182 @@
+package GUI;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.input.KeyCode;
+
+/*
+ * Movimiento del héroe compartido por las escenas, sin reservar memoria en
+ * cada frame. Las direcciones pulsadas son bits de un int (W/flecha arriba,
+ * S/abajo, A/izquierda, D/derecha), el rumbo sale de una tabla y el paso
+ * con colisiones trabaja con dobles sobre una caja de trabajo que se
+ * reutiliza. Es para el hilo de JavaFX, como los índices de colisión.
+ */
+public class MovementKernel {
+
+    public static final int UP = 1;
+    public static final int DOWN = 1 << 1;
+    public static final int LEFT = 1 << 2;
+    public static final int RIGHT = 1 << 3;
+
+    // Rumbo de cada combinación de bits, con el orden de los enum Direction
+    // de las escenas: NONE, N, NE, E, SE, S, SW, W, NW
+    private static final int[] HEADINGS = new int[16];
+
+    static {
+        int[][] byStep = {
+            {8, 1, 2},
+            {7, 0, 3},
+            {6, 5, 4}
+        };
+        for (int bits = 0; bits < 16; bits++) {
+            HEADINGS[bits] = byStep[stepY(bits) + 1][stepX(bits) + 1];
+        }
+    }
+
+    private final double speed;
+    private int pressed;
+
+    // Caja de trabajo del héroe; tras step es la posición a la que llegó
+    private final Box hero = new Box();
+
+    public MovementKernel(double speed) {
+        this.speed = speed;
+    }
+
+    // Bit de la tecla, o 0 si no es de dirección
+    public static int bitOf(KeyCode k) {
+        int bit = 0;
+        if (k == KeyCode.W || k == KeyCode.UP) {
+            bit = UP;
+        } else if (k == KeyCode.S || k == KeyCode.DOWN) {
+            bit = DOWN;
+        } else if (k == KeyCode.A || k == KeyCode.LEFT) {
+            bit = LEFT;
+        } else if (k == KeyCode.D || k == KeyCode.RIGHT) {
+            bit = RIGHT;
+        }
+        return bit;
+    }
+
+    // true si la tecla es de dirección
+    public boolean press(KeyCode k) {
+        int bit = bitOf(k);
+        pressed |= bit;
+        return bit != 0;
+    }
+
+    public boolean release(KeyCode k) {
+        int bit = bitOf(k);
+        pressed &= ~bit;
+        return bit != 0;
+    }
+
+    public void clear() {
+        pressed = 0;
+    }
+
+    public int getPressed() {
+        return pressed;
+    }
+
+    // Las teclas opuestas se anulan
+    public boolean isMoving() {
+        return stepX(pressed) != 0 || stepY(pressed) != 0;
+    }
+
+    // Posición en el enum Direction de la escena (0 es NONE)
+    public int heading() {
+        return HEADINGS[pressed];
+    }
+
+    public double velocityX() {
+        return stepX(pressed) * speed;
+    }
+
+    public double velocityY() {
+        return stepY(pressed) * speed;
+    }
+
+    public Box hero() {
+        return hero;
+    }
+
+    // Mueve la caja (x, y, w, h) en (dx, dy) sin salir de [0, worldW] x
+    // [0, worldH]. Si el destino choca con solid prueba cada eje por separado.
+    // Los pasos largos (un frame lento) se parten en tramos de media caja para
+    // no atravesar obstáculos finos. El resultado queda en hero()
+    public Box step(CollisionIndex solid, double x, double y, double w, double h,
+                    double dx, double dy, double worldW, double worldH) {
+        hero.set(x, y, w, h);
+        double maxStep = Math.max(1.0, Math.min(w, h) / 2.0);
+        int parts = (int) Math.ceil(Math.max(Math.abs(dx), Math.abs(dy)) / maxStep);
+        parts = Math.max(1, Math.min(parts, 64));
+        double partX = dx / parts;
+        double partY = dy / parts;
+        double maxX = Math.max(0, worldW - w);
+        double maxY = Math.max(0, worldH - h);
+
+        for (int p = 0; p < parts; p++) {
+            double curX = hero.x;
+            double curY = hero.y;
+            double proposedX = clamp(curX + partX, 0, maxX);
+            double proposedY = clamp(curY + partY, 0, maxY);
+
+            if (!solid.intersects(proposedX, proposedY, w, h)) {
+                hero.x = proposedX;
+                hero.y = proposedY;
+            } else {
+                if (!solid.intersects(proposedX, curY, w, h)) {
+                    hero.x = proposedX;
+                }
+                if (!solid.intersects(curX, proposedY, w, h)) {
+                    hero.y = proposedY;
+                }
+            }
+        }
+        return hero;
+    }
+
+    public static double clamp(double v, double lo, double hi) {
+        if (v < lo) {
+            return lo;
+        }
+        if (v > hi) {
+            return hi;
+        }
+        return v;
+    }
+
+    private static int stepX(int bits) {
+        return ((bits & RIGHT) != 0 ? 1 : 0) - ((bits & LEFT) != 0 ? 1 : 0);
+    }
+
+    private static int stepY(int bits) {
+        return ((bits & DOWN) != 0 ? 1 : 0) - ((bits & UP) != 0 ? 1 : 0);
+    }
+
+    // Caja alineada con los ejes que se rellena en lugar de crear otra
+    public static class Box {
+
+        public double x;
+        public double y;
+        public double w;
+        public double h;
+
+        public Box set(double x, double y, double w, double h) {
+            this.x = x;
+            this.y = y;
+            this.w = w;
+            this.h = h;
+            return this;
+        }
+
+        // Igual que Rectangle2D.intersects: tocarse en el borde no cuenta
+        public boolean intersects(double ox, double oy, double ow, double oh) {
+            return x < ox + ow && x + w > ox && y < oy + oh && y + h > oy;
+        }
+
+        public boolean intersects(Rectangle2D r) {
+            return intersects(r.getMinX(), r.getMinY(), r.getWidth(), r.getHeight());
+        }
+    }
+}
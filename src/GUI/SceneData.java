@@ -0,0 +1,180 @@
+package GUI;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import javafx.geometry.Point2D;
+import javafx.geometry.Rectangle2D;
+
+/*
+ * Datos de una escena leídos de un recurso en lugar de escritos en el código:
+ * obstáculos, zonas de disparo y puntos de aparición. El fichero es un CSV
+ * por secciones; cada sección empieza con [nombre] y sigue con una fila de
+ * números por línea, todas con las mismas columnas (x,y para puntos y
+ * x,y,ancho,alto para rectángulos). Las líneas vacías y las que empiezan
+ * por # no cuentan. Los números se guardan tal cual se escribieron, así que
+ * dan los mismos double que los literales que sustituyen.
+ * Cada recurso se lee una vez con un canal NIO y queda en caché; es para el
+ * hilo de JavaFX, como los índices de colisión. Utils.SceneDataConverter
+ * saca las secciones de los arrays double[][] de una escena.
+ */
+public class SceneData {
+
+    private static final Map<String, SceneData> CACHE = new HashMap<>();
+
+    private final String path;
+    private final Map<String, double[]> values = new HashMap<>();
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    private SceneData(String path) {
+        this.path = path;
+    }
+
+    // Datos del recurso (p. ej. "/Resources/scenes/swamp.csv"), leídos la
+    // primera vez que se piden
+    public static SceneData load(String path) {
+        SceneData data = CACHE.get(path);
+        if (data == null) {
+            data = read(path);
+            CACHE.put(path, data);
+        }
+        return data;
+    }
+
+    // Filas de la sección seguidas (x0, y0, x1, y1...). Es el array de la
+    // caché: no se modifica
+    public double[] values(String section) {
+        double[] found = values.get(section);
+        if (found == null) {
+            throw new IllegalArgumentException("No hay sección [" + section + "] en " + path);
+        }
+        return found;
+    }
+
+    public int columns(String section) {
+        values(section);
+        return columns.get(section);
+    }
+
+    public int rows(String section) {
+        return values(section).length / columns(section);
+    }
+
+    // Primera fila de una sección x,y (puntos de aparición)
+    public Point2D point(String section) {
+        double[] v = values(section);
+        requireColumns(section, 2);
+        return new Point2D(v[0], v[1]);
+    }
+
+    // Primera fila de una sección x,y,ancho,alto
+    public Rectangle2D rect(String section) {
+        double[] v = values(section);
+        requireColumns(section, 4);
+        return new Rectangle2D(v[0], v[1], v[2], v[3]);
+    }
+
+    private void requireColumns(String section, int expected) {
+        if (columns(section) != expected || values(section).length == 0) {
+            throw new IllegalArgumentException("La sección [" + section + "] de " + path
+                    + " no tiene filas de " + expected + " columnas");
+        }
+    }
+
+    private static SceneData read(String path) {
+        InputStream in = SceneData.class.getResourceAsStream(path);
+        if (in == null) {
+            throw new IllegalStateException("No se encuentra la escena " + path);
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(16 * 1024);
+        try (ReadableByteChannel channel = Channels.newChannel(in)) {
+            while (channel.read(bytes) >= 0) {
+                if (!bytes.hasRemaining()) {
+                    bytes = ByteBuffer.allocate(bytes.capacity() * 2).put(bytes.flip());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo leer la escena " + path, e);
+        }
+        bytes.flip();
+
+        SceneData data = new SceneData(path);
+        data.parse(StandardCharsets.UTF_8.decode(bytes));
+        return data;
+    }
+
+    private void parse(CharBuffer text) {
+        String section = null;
+        double[] rows = new double[64];
+        int count = 0;
+        int width = 0;
+        int lineNumber = 0;
+
+        int start = 0;
+        int length = text.length();
+        while (start < length) {
+            int end = start;
+            while (end < length && text.charAt(end) != '\n') {
+                end++;
+            }
+            lineNumber++;
+            String line = text.subSequence(start, end).toString().trim();
+            start = end + 1;
+
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (line.startsWith("[") && line.endsWith("]")) {
+                if (section != null) {
+                    store(section, rows, count, width);
+                }
+                section = line.substring(1, line.length() - 1).trim();
+                if (values.containsKey(section)) {
+                    throw error(lineNumber, "sección repetida [" + section + "]");
+                }
+                count = 0;
+                width = 0;
+                continue;
+            }
+            if (section == null) {
+                throw error(lineNumber, "fila fuera de una sección");
+            }
+
+            String[] cells = line.split(",");
+            if (width == 0) {
+                width = cells.length;
+            } else if (cells.length != width) {
+                throw error(lineNumber, "se esperaban " + width + " columnas y hay " + cells.length);
+            }
+            if (count + width > rows.length) {
+                rows = Arrays.copyOf(rows, Math.max(rows.length * 2, count + width));
+            }
+            for (String cell : cells) {
+                try {
+                    rows[count++] = Double.parseDouble(cell.trim());
+                } catch (NumberFormatException e) {
+                    throw error(lineNumber, "número no válido '" + cell.trim() + "'");
+                }
+            }
+        }
+        if (section != null) {
+            store(section, rows, count, width);
+        }
+    }
+
+    private void store(String section, double[] rows, int count, int width) {
+        values.put(section, Arrays.copyOf(rows, count));
+        columns.put(section, width == 0 ? 2 : width);
+    }
+
+    private IllegalStateException error(int lineNumber, String message) {
+        return new IllegalStateException(path + ":" + lineNumber + ": " + message);
+    }
+}
@@ -0,0 +1,363 @@
+package GUI;
+
+import Logic.Game;
+import Runner.MainScreen;
+import com.almasb.fxgl.dsl.FXGL;
+import java.net.URL;
+import javafx.animation.AnimationTimer;
+import javafx.animation.FadeTransition;
+import javafx.application.Platform;
+import javafx.geometry.Point2D;
+import javafx.geometry.Pos;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.StackPane;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Text;
+import javafx.util.Duration;
+
+/*
+ * Base de las escenas en las que se mueve el héroe (la zona, las aldeas, las
+ * casas y el mapa). Aquí está lo que antes repetía cada escena: la raíz con
+ * el mundo, el héroe, la entrada (MovementKernel), el índice de colisiones,
+ * la cámara, la pantalla de carga, la música y el bucle de movimiento.
+ * El bucle avanza en pasos fijos de STEP segundos, así el movimiento no
+ * depende de los fps; después de los pasos de cada frame se llama a
+ * afterFrame una sola vez. Cada escena pone sus datos (fondo, obstáculos,
+ * zonas) y sus teclas, y cambia los ganchos que necesite.
+ */
+public abstract class SceneEngine {
+
+    // Direcciones del héroe (para depuración con tecla P), en el orden de
+    // MovementKernel.heading
+    public enum Direction {
+        NONE, N, NE, E, SE, S, SW, W, NW
+    }
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // Paso fijo del movimiento y retraso máximo que se recupera de una vez
+    static final double STEP = 1.0 / 120.0;
+    private static final double MAX_LAG = 0.25;
+
+    // Relleno de las zonas de salida; se crea una vez y no en cada frame
+    static final Color ZONE_FILL = Color.rgb(0, 120, 255, 0.28);
+    static final Color ZONE_FILL_ACTIVE = Color.rgb(0, 120, 255, 0.42);
+    static final Color EXIT_FILL_ACTIVE = Color.rgb(255, 120, 0, 0.42);
+
+    protected final double VIEW_W = 800;
+    protected final double VIEW_H = 600;
+    protected final double HERO_W = 48;
+    protected final double HERO_H = 48;
+    protected final double HERO_SPEED = 180.0;
+
+    protected final Game game;
+    protected final StackPane root;
+    protected final Pane world;
+    protected final ImageView heroView;
+    protected double worldW = VIEW_W;
+    protected double worldH = VIEW_H;
+
+    protected final MovementKernel motion = new MovementKernel(HERO_SPEED);
+    protected final CollisionGrid collisionGrid = new CollisionGrid();
+    protected MediaPlayer music;
+
+    // Zona de salida junto a la entrada de la escena
+    protected Rectangle startRect;
+    protected boolean onStartRect = false;
+
+    private StackPane loadingOverlay;
+    private final AnimationTimer mover;
+    private long lastFrame = -1;
+    private double lag;
+    private Direction currentDirection = Direction.NONE;
+
+    protected SceneEngine(Game game) {
+        this.game = game;
+        root = new StackPane();
+        root.setPrefSize(VIEW_W, VIEW_H);
+
+        world = new Pane();
+        world.setPrefSize(VIEW_W, VIEW_H);
+        root.getChildren().add(world);
+
+        heroView = new ImageView(loadHeroImage());
+        heroView.setPreserveRatio(true);
+        heroView.setFitWidth(HERO_W);
+        heroView.setFitHeight(HERO_H);
+        heroView.setMouseTransparent(true);
+
+        mover = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (lastFrame < 0) {
+                    lastFrame = now;
+                }
+                double dt = (now - lastFrame) / 1e9;
+                lastFrame = now;
+                frame(dt);
+            }
+        };
+
+        root.focusedProperty().addListener((obs, wasFocused, isFocused) -> {
+            if (!isFocused) {
+                clearInputState();
+            }
+        });
+    }
+
+    public StackPane getRoot() {
+        return root;
+    }
+
+    public Point2D getHeroMapTopLeft() {
+        return new Point2D(heroView.getLayoutX(), heroView.getLayoutY());
+    }
+
+    public Direction getHeroDirection() {
+        return currentDirection;
+    }
+
+    public void setHeroPosition(double x, double y) {
+        double nx = clamp(x, 0, Math.max(0, worldW - HERO_W));
+        double ny = clamp(y, 0, Math.max(0, worldH - HERO_H));
+        heroView.setLayoutX(nx);
+        heroView.setLayoutY(ny);
+        updateCamera();
+    }
+
+    public void startMover() {
+        // Lo que pasó con el bucle parado no se recupera
+        lastFrame = -1;
+        lag = 0;
+        mover.start();
+    }
+
+    public void stopMover() {
+        mover.stop();
+    }
+
+    public void hide() {
+        Platform.runLater(() -> {
+            stopMusic();
+            stopMover();
+            try {
+                FXGL.getGameScene().removeUINode(root);
+            } catch (Throwable ignored) {
+            }
+        });
+    }
+
+    // Quita la música de la escena (también la usa InventoryScreen al salir)
+    public void stopMusic() {
+        try {
+            if (music != null) {
+                AudioManager.unregister(music);
+                music.stop();
+                music.dispose();
+                music = null;
+            }
+        } catch (Throwable ignored) {
+        }
+    }
+
+    protected boolean startMusic(String path) {
+        try {
+            URL res = getClass().getResource(path);
+            if (res == null) {
+                return false;
+            }
+            Media media = new Media(res.toExternalForm());
+            stopMusic();
+            music = new MediaPlayer(media);
+            music.setCycleCount(MediaPlayer.INDEFINITE);
+            music.setVolume(MainScreen.getVolumeSetting());
+            music.play();
+            AudioManager.register(music);
+            return true;
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    // ---------------- carga ----------------
+
+    protected void installLoadingOverlay(String text) {
+        loadingOverlay = new StackPane();
+        loadingOverlay.setPickOnBounds(true);
+
+        Rectangle bg = new Rectangle(VIEW_W, VIEW_H);
+        bg.setFill(Color.rgb(0, 0, 0, 0.6));
+
+        Text label = new Text(text);
+        label.setStyle("-fx-font-size: 24px; -fx-fill: #e0d090;");
+
+        loadingOverlay.getChildren().addAll(bg, label);
+        StackPane.setAlignment(label, Pos.CENTER);
+        loadingOverlay.setVisible(false);
+        root.getChildren().add(loadingOverlay);
+    }
+
+    protected void showLoading(boolean show) {
+        if (loadingOverlay == null) {
+            return;
+        }
+        loadingOverlay.setVisible(show);
+        if (show) {
+            loadingOverlay.toFront();
+        } else {
+            loadingOverlay.toBack();
+        }
+    }
+
+    protected void fadeInContent() {
+        FadeTransition ft = new FadeTransition(Duration.millis(400), root);
+        ft.setFromValue(0.2);
+        ft.setToValue(1.0);
+        ft.play();
+    }
+
+    // Pone el fondo, ajusta el tamaño del mundo a la imagen y deja al héroe
+    // delante. placeName va en el mensaje de error ("aldea", "Zona"...)
+    protected boolean loadBackgroundImage(String path, String placeName) {
+        try {
+            Image img = new Image(getClass().getResourceAsStream(path));
+            ImageView backgroundView = new ImageView(img);
+            backgroundView.setPreserveRatio(false);
+            backgroundView.setSmooth(true);
+
+            worldW = img.getWidth() > 0 ? img.getWidth() : VIEW_W;
+            worldH = img.getHeight() > 0 ? img.getHeight() : VIEW_H;
+
+            backgroundView.setFitWidth(worldW);
+            backgroundView.setFitHeight(worldH);
+
+            world.setPrefSize(worldW, worldH);
+            world.getChildren().clear();
+            world.getChildren().add(backgroundView);
+
+            if (!world.getChildren().contains(heroView)) {
+                world.getChildren().add(heroView);
+            } else {
+                heroView.toFront();
+            }
+            return true;
+        } catch (Throwable t) {
+            Text err = new Text("No se pudo cargar la imagen de la " + placeName + ".");
+            err.setStyle("-fx-font-size: 16px; -fx-fill: #ffdddd;");
+            root.getChildren().add(err);
+            return false;
+        }
+    }
+
+    // null si no se puede cargar
+    protected Image loadImage(String path) {
+        try {
+            return new Image(getClass().getResourceAsStream(path));
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    private Image loadHeroImage() {
+        try {
+            return loadImage(game.getHero().getSpritePath());
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    // ---------------- bucle y movimiento ----------------
+
+    private void frame(double dt) {
+        if (root.getScene() == null || !root.isFocused()) {
+            clearInputState();
+            lag = 0;
+            return;
+        }
+
+        setDirection(DIRECTIONS[motion.heading()]);
+        lag = Math.min(lag + dt, MAX_LAG);
+        boolean moved = false;
+        while (lag >= STEP) {
+            lag -= STEP;
+            if (motion.isMoving()) {
+                moveHero(motion.velocityX() * STEP, motion.velocityY() * STEP);
+                moved = true;
+            }
+        }
+        afterFrame(moved);
+    }
+
+    // Un paso de movimiento con colisiones
+    protected void moveHero(double dx, double dy) {
+        MovementKernel.Box moved = motion.step(collisionGrid, heroView.getLayoutX(), heroView.getLayoutY(),
+                HERO_W, HERO_H, dx, dy, worldW, worldH);
+        heroView.setLayoutX(moved.x);
+        heroView.setLayoutY(moved.y);
+    }
+
+    // Una vez por frame, tras los pasos; moved dice si hubo movimiento
+    protected void afterFrame(boolean moved) {
+        checkZones();
+        if (moved) {
+            updateCamera();
+        }
+    }
+
+    // Zonas que dependen de la posición del héroe (salidas, puertas...)
+    protected void checkZones() {
+        checkStartIntersection();
+    }
+
+    protected void checkStartIntersection() {
+        if (startRect == null) {
+            onStartRect = false;
+            return;
+        }
+        boolean intersects = heroView.getBoundsInParent().intersects(startRect.getBoundsInParent());
+        onStartRect = intersects;
+        startRect.setFill(intersects ? ZONE_FILL_ACTIVE : ZONE_FILL);
+    }
+
+    protected void setDirection(Direction newDir) {
+        currentDirection = newDir != null ? newDir : Direction.NONE;
+    }
+
+    protected void updateCamera() {
+        double heroCenterX = heroView.getLayoutX() + HERO_W / 2.0;
+        double heroCenterY = heroView.getLayoutY() + HERO_H / 2.0;
+
+        double targetTx = VIEW_W / 2.0 - heroCenterX;
+        double targetTy = VIEW_H / 2.0 - heroCenterY;
+
+        double minTx = Math.min(0, VIEW_W - worldW);
+        double maxTx = 0;
+        double minTy = Math.min(0, VIEW_H - worldH);
+        double maxTy = 0;
+
+        double tx = clamp(targetTx, minTx, maxTx);
+        double ty = clamp(targetTy, minTy, maxTy);
+
+        double lowerZone = worldH * 0.75;
+        if (heroCenterY > lowerZone) {
+            double factor = 0.45;
+            ty = ty * factor + (VIEW_H / 2.0 - heroCenterY) * (1 - factor);
+            ty = clamp(ty, minTy, maxTy);
+        }
+
+        world.setTranslateX(tx);
+        world.setTranslateY(ty);
+    }
+
+    protected void clearInputState() {
+        motion.clear();
+    }
+
+    protected static double clamp(double v, double lo, double hi) {
+        return MovementKernel.clamp(v, lo, hi);
+    }
+}
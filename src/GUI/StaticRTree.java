@@ -0,0 +1,261 @@
+package GUI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.shape.Rectangle;
+
+/*
+ * R-tree estático cargado de una vez con el método STR (Sort-Tile-Recursive):
+ * los rectángulos se ordenan por x, se cortan en franjas, cada franja se
+ * ordena por y y se agrupa en hojas de NODE_SIZE; los niveles de arriba se
+ * forman igual con las cajas del nivel de abajo. Queda un árbol lleno y
+ * poco solapado que no se modifica después: si cambian los rectángulos se
+ * construye otro con un Builder.
+ * Sirve para obstáculos y zonas de disparo de cualquier escena, también
+ * en mapas grandes con miles de rectángulos de tamaños distintos.
+ */
+public class StaticRTree extends CollisionIndex {
+
+    private static final int NODE_SIZE = 8;
+
+    // Nodos de la raíz hacia abajo; las hojas son los nodos desde firstLeaf.
+    // Los hijos de un nodo son nodos [childStart, childEnd) o, en una hoja,
+    // rectángulos items[childStart, childEnd)
+    private final double[] nodeMinX;
+    private final double[] nodeMinY;
+    private final double[] nodeMaxX;
+    private final double[] nodeMaxY;
+    private final int[] childStart;
+    private final int[] childEnd;
+    private final int firstLeaf;
+    private final int[] items;
+
+    private final int[] stack;
+
+    // Junta los rectángulos en orden; cada uno conserva su índice en el árbol
+    public static class Builder {
+
+        private double[] bounds = new double[64];
+        private int count;
+
+        public Builder add(Rectangle2D rect) {
+            return add(rect.getMinX(), rect.getMinY(), rect.getWidth(), rect.getHeight());
+        }
+
+        public Builder add(double x, double y, double w, double h) {
+            if (count * 4 == bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            }
+            bounds[count * 4] = x;
+            bounds[count * 4 + 1] = y;
+            bounds[count * 4 + 2] = x + w;
+            bounds[count * 4 + 3] = y + h;
+            count++;
+            return this;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        public StaticRTree build() {
+            return new StaticRTree(bounds, count);
+        }
+    }
+
+    // Árbol de las zonas dibujadas como Rectangle (x, y, ancho, alto), con
+    // el mismo orden que la lista
+    public static StaticRTree of(List<Rectangle> zones) {
+        Builder builder = new Builder();
+        for (Rectangle r : zones) {
+            builder.add(r.getX(), r.getY(), r.getWidth(), r.getHeight());
+        }
+        return builder.build();
+    }
+
+    private StaticRTree(double[] bounds, int n) {
+        super(n);
+        count = n;
+        for (int i = 0; i < n; i++) {
+            minX[i] = bounds[i * 4];
+            minY[i] = bounds[i * 4 + 1];
+            maxX[i] = bounds[i * 4 + 2];
+            maxY[i] = bounds[i * 4 + 3];
+        }
+
+        // Hojas sobre los rectángulos y niveles hacia arriba hasta la raíz
+        items = strOrder(minX, minY, maxX, maxY, n);
+        List<Level> levels = new ArrayList<>();
+        if (n > 0) {
+            Level level = pack(minX, minY, maxX, maxY, items, n);
+            levels.add(level);
+            while (level.size > 1) {
+                int[] order = strOrder(level.minX, level.minY, level.maxX, level.maxY, level.size);
+                level.reorder(order);
+                level = pack(level.minX, level.minY, level.maxX, level.maxY, identity(level.size), level.size);
+                levels.add(level);
+            }
+        }
+
+        int total = 0;
+        for (Level l : levels) {
+            total += l.size;
+        }
+        nodeMinX = new double[total];
+        nodeMinY = new double[total];
+        nodeMaxX = new double[total];
+        nodeMaxY = new double[total];
+        childStart = new int[total];
+        childEnd = new int[total];
+
+        // La raíz primero; los hijos de un nivel empiezan justo detrás de él
+        int offset = 0;
+        for (int l = levels.size() - 1; l >= 0; l--) {
+            Level level = levels.get(l);
+            int childOffset = l > 0 ? offset + level.size : 0;
+            System.arraycopy(level.minX, 0, nodeMinX, offset, level.size);
+            System.arraycopy(level.minY, 0, nodeMinY, offset, level.size);
+            System.arraycopy(level.maxX, 0, nodeMaxX, offset, level.size);
+            System.arraycopy(level.maxY, 0, nodeMaxY, offset, level.size);
+            for (int j = 0; j < level.size; j++) {
+                childStart[offset + j] = level.start[j] + childOffset;
+                childEnd[offset + j] = level.end[j] + childOffset;
+            }
+            offset += level.size;
+        }
+        firstLeaf = levels.isEmpty() ? 0 : total - levels.get(0).size;
+        stack = new int[levels.size() * NODE_SIZE + 1];
+    }
+
+    @Override
+    int collect(double x0, double y0, double x1, double y1) {
+        int found = 0;
+        if (count > 0) {
+            int top = 0;
+            stack[top++] = 0;
+            while (top > 0) {
+                int node = stack[--top];
+                if (nodeMinX[node] <= x1 && nodeMaxX[node] >= x0 && nodeMinY[node] <= y1 && nodeMaxY[node] >= y0) {
+                    if (node >= firstLeaf) {
+                        for (int k = childStart[node]; k < childEnd[node]; k++) {
+                            found = addCandidate(found, items[k]);
+                        }
+                    } else {
+                        for (int c = childStart[node]; c < childEnd[node]; c++) {
+                            stack[top++] = c;
+                        }
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    // Índices 0 .. n - 1 ordenados por x del centro, en franjas ordenadas por y
+    private static int[] strOrder(double[] minX, double[] minY, double[] maxX, double[] maxY, int n) {
+        Integer[] ids = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i;
+        }
+        Arrays.sort(ids, Comparator.comparingDouble(i -> minX[i] + maxX[i]));
+
+        int nodes = (n + NODE_SIZE - 1) / NODE_SIZE;
+        int slices = (int) Math.ceil(Math.sqrt(nodes));
+        int sliceSize = slices * NODE_SIZE;
+        for (int s = 0; s < n; s += sliceSize) {
+            Arrays.sort(ids, s, Math.min(n, s + sliceSize), Comparator.comparingDouble(i -> minY[i] + maxY[i]));
+        }
+
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = ids[i];
+        }
+        return order;
+    }
+
+    private static int[] identity(int n) {
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i;
+        }
+        return ids;
+    }
+
+    // Agrupa de NODE_SIZE en NODE_SIZE las cajas en el orden dado
+    private static Level pack(double[] minX, double[] minY, double[] maxX, double[] maxY, int[] order, int n) {
+        Level level = new Level((n + NODE_SIZE - 1) / NODE_SIZE);
+        for (int j = 0; j < level.size; j++) {
+            int start = j * NODE_SIZE;
+            int end = Math.min(n, start + NODE_SIZE);
+            double x0 = Double.POSITIVE_INFINITY;
+            double y0 = Double.POSITIVE_INFINITY;
+            double x1 = Double.NEGATIVE_INFINITY;
+            double y1 = Double.NEGATIVE_INFINITY;
+            for (int k = start; k < end; k++) {
+                int i = order[k];
+                x0 = Math.min(x0, minX[i]);
+                y0 = Math.min(y0, minY[i]);
+                x1 = Math.max(x1, maxX[i]);
+                y1 = Math.max(y1, maxY[i]);
+            }
+            level.minX[j] = x0;
+            level.minY[j] = y0;
+            level.maxX[j] = x1;
+            level.maxY[j] = y1;
+            level.start[j] = start;
+            level.end[j] = end;
+        }
+        return level;
+    }
+
+    // Un nivel del árbol mientras se construye
+    private static class Level {
+
+        final int size;
+        double[] minX;
+        double[] minY;
+        double[] maxX;
+        double[] maxY;
+        int[] start;
+        int[] end;
+
+        Level(int size) {
+            this.size = size;
+            this.minX = new double[size];
+            this.minY = new double[size];
+            this.maxX = new double[size];
+            this.maxY = new double[size];
+            this.start = new int[size];
+            this.end = new int[size];
+        }
+
+        // Sus nodos pasan a estar en el orden dado, con sus hijos
+        void reorder(int[] order) {
+            minX = permute(minX, order);
+            minY = permute(minY, order);
+            maxX = permute(maxX, order);
+            maxY = permute(maxY, order);
+            start = permute(start, order);
+            end = permute(end, order);
+        }
+
+        private static double[] permute(double[] values, int[] order) {
+            double[] out = new double[order.length];
+            for (int k = 0; k < order.length; k++) {
+                out[k] = values[order[k]];
+            }
+            return out;
+        }
+
+        private static int[] permute(int[] values, int[] order) {
+            int[] out = new int[order.length];
+            for (int k = 0; k < order.length; k++) {
+                out[k] = values[order[k]];
+            }
+            return out;
+        }
+    }
+}
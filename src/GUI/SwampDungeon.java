@@ -6,66 +6,35 @@ import Logic.Game;
 import Misc.Task;
 import Runner.MainScreen;
 import com.almasb.fxgl.dsl.FXGL;
-import java.net.URL;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
-import java.util.Set;
-import javafx.animation.AnimationTimer;
 import javafx.animation.FadeTransition;
 import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.geometry.Point2D;
-import javafx.geometry.Pos;
 import javafx.geometry.Rectangle2D;
-import javafx.scene.Node;
-import javafx.scene.control.Alert;
-import javafx.scene.control.ButtonType;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
-import javafx.scene.layout.Pane;
-import javafx.scene.layout.StackPane;
-import javafx.scene.media.Media;
-import javafx.scene.media.MediaPlayer;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Text;
 import javafx.util.Duration;
 
-public class SwampDungeon {
+public class SwampDungeon extends SceneEngine {
 
-    private final StackPane root;
-    private final Pane world;
-    private final StackPane loadingOverlay;
-    private ImageView backgroundView;
-    private MediaPlayer music;
-
-    private final ImageView heroView;
-    private final double HERO_W = 48;
-    private final double HERO_H = 48;
-    private final double HERO_SPEED = 180.0;
-    private final Set<KeyCode> keys = new HashSet<>();
-    private AnimationTimer mover;
     private Rectangle orbNode = null;
     private Rectangle2D orbTrigger = null;
     private Text orbHintText = null;
 
-    private final double VIEW_W = 800;
-    private final double VIEW_H = 600;
-    private double worldW = VIEW_W;
-    private double worldH = VIEW_H;
-
-    private Rectangle startRect;
-    private boolean onStartRect = false;
-
     private Runnable onExitCallback;
-    private final Game game;
     // Para cambiar de mapa en el mismo pantano
     private final List<Rectangle> dungeonTriggerRects = new ArrayList<>();
+    // Mismo orden que dungeonTriggerRects; se rehace cada vez que cambia la lista
+    private StaticRTree dungeonTriggerIndex = StaticRTree.of(dungeonTriggerRects);
     private final List<Rectangle> bossTriggerRects = new ArrayList<>();
+    private StaticRTree bossTriggerIndex = StaticRTree.of(bossTriggerRects);
     private boolean beforeDungeon = true;
     private ImageView bossView;
 
@@ -76,12 +45,6 @@ public class SwampDungeon {
     // Inventario (si se abre desde aquí se pasa this)
     private InventoryScreen inventory;
 
-    // Direcciones del héroe (para depuración con tecla P)
-    public enum Direction {
-        NONE, N, NE, E, SE, S, SW, W, NW
-    }
-    private Direction currentDirection = Direction.NONE;
-
     // Tipos de obstáculos para la aldea
     private enum ObstacleType {
         BLOCK, PLANT
@@ -102,35 +65,10 @@ public class SwampDungeon {
     }
 
     public SwampDungeon(Game game) {
-        this.game = game;
-        root = new StackPane();
-        root.setPrefSize(VIEW_W, VIEW_H);
-
-        world = new Pane();
-        world.setPrefSize(VIEW_W, VIEW_H);
-
-        loadingOverlay = createLoadingOverlay();
-
-        root.getChildren().addAll(world, loadingOverlay);
-
-        heroView = createHeroView();
+        super(game);
+        installLoadingOverlay("Loading Terrain...");
 
         installInputHandlers();
-        createMover();
-
-        root.focusedProperty().addListener((obs, wasFocused, isFocused) -> {
-            if (!isFocused) {
-                clearInputState();
-            }
-        });
-    }
-
-    public StackPane getRoot() {
-        return root;
-    }
-
-    public Point2D getHeroMapTopLeft() {
-        return new Point2D(heroView.getLayoutX(), heroView.getLayoutY());
     }
 
     public void showWithLoading(Runnable onLoaded, Runnable onExit) {
@@ -140,8 +78,8 @@ public class SwampDungeon {
             FXGL.getGameScene().addUINode(root);
             showLoading(true);
 
-            boolean imageOk = loadBackgroundImage("/Resources/textures/SwampDungeon/SwampDungeon01.png");
-            boolean musicOk = startVillageMusic("/Resources/music/swampDungeonInside.mp3");
+            boolean imageOk = loadBackgroundImage("/Resources/textures/SwampDungeon/SwampDungeon01.png", "Zona");
+            boolean musicOk = startMusic("/Resources/music/swampDungeonInside.mp3");
 
             populateSwampObstacles();
             createDungeonTriggerRects();
@@ -162,147 +100,6 @@ public class SwampDungeon {
         });
     }
 
-    public void hide() {
-        Platform.runLater(() -> {
-            stopVillageMusic();
-            stopMover();
-            try {
-                FXGL.getGameScene().removeUINode(root);
-            } catch (Throwable ignored) {
-            }
-        });
-    }
-
-    public void setHeroPosition(double x, double y) {
-        double nx = clamp(x, 0, Math.max(0, worldW - HERO_W));
-        double ny = clamp(y, 0, Math.max(0, worldH - HERO_H));
-        heroView.setLayoutX(nx);
-        heroView.setLayoutY(ny);
-        updateCamera();
-    }
-
-    public void startMover() {
-        if (mover != null) {
-            mover.start();
-        }
-    }
-
-    public void stopMover() {
-        if (mover != null) {
-            mover.stop();
-        }
-    }
-
-    public void stopVillageMusic() {
-        try {
-            if (music != null) {
-                music.stop();
-                music.dispose();
-                music = null;
-            }
-        } catch (Throwable ignored) {
-        }
-    }
-
-    // ---------------- internals / UI ----------------
-    private StackPane createLoadingOverlay() {
-        StackPane overlay = new StackPane();
-        overlay.setPickOnBounds(true);
-
-        Rectangle bg = new Rectangle(VIEW_W, VIEW_H);
-        bg.setFill(Color.rgb(0, 0, 0, 0.6));
-
-        Text label = new Text("Loading Terrain...");
-        label.setStyle("-fx-font-size: 24px; -fx-fill: #e0d090;");
-
-        overlay.getChildren().addAll(bg, label);
-        StackPane.setAlignment(label, Pos.CENTER);
-        overlay.setVisible(false);
-        return overlay;
-    }
-
-    private void showLoading(boolean show) {
-        loadingOverlay.setVisible(show);
-        if (show) {
-            loadingOverlay.toFront();
-        } else {
-            loadingOverlay.toBack();
-        }
-    }
-
-    private void fadeInContent() {
-        FadeTransition ft = new FadeTransition(Duration.millis(400), root);
-        ft.setFromValue(0.2);
-        ft.setToValue(1.0);
-        ft.play();
-    }
-
-    private boolean loadBackgroundImage(String path) {
-        boolean ret = false;
-        try {
-            Image img = new Image(getClass().getResourceAsStream(path));
-            backgroundView = new ImageView(img);
-            backgroundView.setPreserveRatio(false);
-            backgroundView.setSmooth(true);
-
-            worldW = img.getWidth() > 0 ? img.getWidth() : VIEW_W;
-            worldH = img.getHeight() > 0 ? img.getHeight() : VIEW_H;
-
-            backgroundView.setFitWidth(worldW);
-            backgroundView.setFitHeight(worldH);
-
-            world.setPrefSize(worldW, worldH);
-            world.getChildren().clear();
-            world.getChildren().add(backgroundView);
-
-            if (!world.getChildren().contains(heroView)) {
-                world.getChildren().add(heroView);
-            } else {
-                heroView.toFront();
-            }
-            ret = true;
-        } catch (Throwable t) {
-            Text err = new Text("No se pudo cargar la imagen de la Zona.");
-            err.setStyle("-fx-font-size: 16px; -fx-fill: #ffdddd;");
-            root.getChildren().add(err);
-        }
-        return ret;
-    }
-
-    private boolean startVillageMusic(String path) {
-        boolean startMusic = true;
-        try {
-            URL res = getClass().getResource(path);
-            if (res == null) {
-                startMusic = false;
-            }
-            Media media = new Media(res.toExternalForm());
-            stopVillageMusic();
-            music = new MediaPlayer(media);
-            music.setCycleCount(MediaPlayer.INDEFINITE);
-            music.setVolume(MainScreen.getVolumeSetting());
-            music.play();
-        } catch (Throwable t) {
-            startMusic = false;
-        }
-        return startMusic;
-    }
-
-    private ImageView createHeroView() {
-        Image img = null;
-        try {
-            img = new Image(getClass().getResourceAsStream(game.getHero().getSpritePath()));
-        } catch (Throwable ignored) {
-            img = null;
-        }
-        ImageView iv = new ImageView(img);
-        iv.setPreserveRatio(true);
-        iv.setFitWidth(HERO_W);
-        iv.setFitHeight(HERO_H);
-        iv.setMouseTransparent(true);
-        return iv;
-    }
-
     // ---------------- colisiones  ----------------
     private void populateSwampObstacles() {
         obstacles.clear();
@@ -473,6 +270,8 @@ public class SwampDungeon {
             ));
             idx++;
         }
+
+        indexObstacles();
     }
 
     private void populateSwamp2Obstacles() {
@@ -683,6 +482,16 @@ public class SwampDungeon {
 
         }
 
+        indexObstacles();
+    }
+
+    // Rehace el índice de colisiones con la lista de obstáculos actual
+    private void indexObstacles() {
+        collisionGrid.clear();
+        for (SwampDungeon.Obstacle ob : obstacles) {
+            collisionGrid.add(ob.collisionRect);
+        }
+        collisionGrid.build();
     }
 
     // ---------------- movimiento y entradas ----------------
@@ -733,7 +542,7 @@ public class SwampDungeon {
         double ry = y - pad;
 
         startRect = new Rectangle(rx, ry, rw, rh);
-        startRect.setFill(Color.rgb(0, 120, 255, 0.28));
+        startRect.setFill(ZONE_FILL);
         startRect.setStroke(Color.rgb(0, 80, 200, 0.9));
         startRect.setMouseTransparent(true);
         startRect.getProperties().put("tag", "exit_area");
@@ -751,24 +560,17 @@ public class SwampDungeon {
         if (bossView != null) {
             double hx = heroView.getLayoutX();
             double hy = heroView.getLayoutY();
-            Rectangle2D heroRect = new Rectangle2D(hx, hy, HERO_W, HERO_H);
-
-            for (Rectangle trigger : bossTriggerRects) {
-                Rectangle2D tr = new Rectangle2D(trigger.getX(), trigger.getY(), trigger.getWidth(), trigger.getHeight());
-                if (heroRect.intersects(tr)) {
-                    combat = true;
-                }
-            }
+            combat = bossTriggerIndex.intersects(hx, hy, HERO_W, HERO_H);
         }
 
         if (combat) {
-            battleAgainstBoss((Boss) game.getCharacters().get(12));
+            battleAgainstBoss((Boss) game.findMonster("Venom Demon King"));
         }
     }
 
     private void battleAgainstBoss(Boss boss) {
         String bg = "/Resources/textures/Battle/swampBattle.png";
-        stopMapMusic();
+        stopMusic();
 
         CombatScreen cs = new GUI.CombatScreen(game, bg, "Swamp", game.getHero(), true, boss);
 
@@ -784,7 +586,7 @@ public class SwampDungeon {
                     FXGL.getGameScene().addUINode(root);
                 } catch (Throwable ignored) {
                 }
-                startMapMusic();
+                startMusic("/Resources/music/swampDungeonInside.mp3");
                 root.requestFocus();
             });
         });
@@ -805,18 +607,7 @@ public class SwampDungeon {
         root.addEventFilter(KeyEvent.KEY_PRESSED, ev -> {
             KeyCode k = ev.getCode();
 
-            if (k == KeyCode.W || k == KeyCode.UP) {
-                keys.add(KeyCode.W);
-            }
-            if (k == KeyCode.S || k == KeyCode.DOWN) {
-                keys.add(KeyCode.S);
-            }
-            if (k == KeyCode.A || k == KeyCode.LEFT) {
-                keys.add(KeyCode.A);
-            }
-            if (k == KeyCode.D || k == KeyCode.RIGHT) {
-                keys.add(KeyCode.D);
-            }
+            motion.press(k);
 
             if (k == KeyCode.P) {
                 System.out.println("Hero position (Zona): (" + heroView.getLayoutX() + ", " + heroView.getLayoutY() + ")");
@@ -892,7 +683,7 @@ public class SwampDungeon {
 
                         clearInputState();
 
-                        stopMapMusic();
+                        stopMusic();
                         try {
                             FXGL.getGameScene().removeUINode(root);
                         } catch (Throwable ignored) {
@@ -902,7 +693,7 @@ public class SwampDungeon {
                         swamp.showWithLoading(null, () -> {
                             Platform.runLater(() -> {
                                 MainScreen.hideMenu();
-                                startMapMusic();
+                                startMusic("/Resources/music/swampDungeonInside.mp3");
                                 try {
                                     FXGL.getGameScene().addUINode(root);
                                 } catch (Throwable ignored) {
@@ -914,7 +705,7 @@ public class SwampDungeon {
                                 }
                                 root.requestFocus();
                                 clearInputState();
-                                mover.start();
+                                startMover();
                             });
                         });
                     } */
@@ -927,18 +718,7 @@ public class SwampDungeon {
 
         root.addEventFilter(KeyEvent.KEY_RELEASED, ev -> {
             KeyCode k = ev.getCode();
-            if (k == KeyCode.W || k == KeyCode.UP) {
-                keys.remove(KeyCode.W);
-            }
-            if (k == KeyCode.S || k == KeyCode.DOWN) {
-                keys.remove(KeyCode.S);
-            }
-            if (k == KeyCode.A || k == KeyCode.LEFT) {
-                keys.remove(KeyCode.A);
-            }
-            if (k == KeyCode.D || k == KeyCode.RIGHT) {
-                keys.remove(KeyCode.D);
-            }
+            motion.release(k);
             ev.consume();
         });
 
@@ -991,234 +771,9 @@ public class SwampDungeon {
         });
     }
 
-    private void createMover() {
-        mover = new AnimationTimer() {
-            private long last = -1;
-
-            @Override
-            public void handle(long now) {
-                if (last < 0) {
-                    last = now;
-                }
-                double dt = (now - last) / 1e9;
-                last = now;
-
-                if (root.getScene() == null || !root.isFocused()) {
-                    clearInputState();
-                    return;
-                }
-
-                updateAndMove(dt);
-            }
-        };
-    }
-
-    private void updateAndMove(double dt) {
-        double vx = 0;
-        double vy = 0;
-        if (keys.contains(KeyCode.A)) {
-            vx -= HERO_SPEED;
-        }
-        if (keys.contains(KeyCode.D)) {
-            vx += HERO_SPEED;
-        }
-        if (keys.contains(KeyCode.W)) {
-            vy -= HERO_SPEED;
-        }
-        if (keys.contains(KeyCode.S)) {
-            vy += HERO_SPEED;
-        }
-
-        SwampDungeon.Direction newDir = (vx != 0 || vy != 0)
-                ? directionFromVector(vx, vy) : SwampDungeon.Direction.NONE;
-        setDirectionIfChanged(newDir);
-
-        if (vx == 0 && vy == 0) {
-            checkStartIntersection();
-            return;
-        }
-
-        moveHero(vx * dt, vy * dt);
-    }
-
-    private void moveHero(double dx, double dy) {
-        double curX = heroView.getLayoutX();
-        double curY = heroView.getLayoutY();
-
-        double proposedX = clamp(curX + dx, 0, Math.max(0, worldW - HERO_W));
-        double proposedY = clamp(curY + dy, 0, Math.max(0, worldH - HERO_H));
-
-        Rectangle2D heroRect = new Rectangle2D(proposedX, proposedY, HERO_W, HERO_H);
-        boolean collision = false;
-
-        for (SwampDungeon.Obstacle ob : obstacles) {
-            if (heroRect.intersects(ob.collisionRect)) {
-                collision = true;
-            }
-        }
-
-        if (!collision) {
-            heroView.setLayoutX(proposedX);
-            heroView.setLayoutY(proposedY);
-        } else {
-            Rectangle2D heroRectX = new Rectangle2D(proposedX, curY, HERO_W, HERO_H);
-            Rectangle2D heroRectY = new Rectangle2D(curX, proposedY, HERO_W, HERO_H);
-
-            boolean canMoveX = true;
-            boolean canMoveY = true;
-
-            for (SwampDungeon.Obstacle ob : obstacles) {
-                if (heroRectX.intersects(ob.collisionRect)) {
-                    canMoveX = false;
-                }
-                if (heroRectY.intersects(ob.collisionRect)) {
-                    canMoveY = false;
-                }
-            }
-
-            if (canMoveX) {
-                heroView.setLayoutX(proposedX);
-            }
-            if (canMoveY) {
-                heroView.setLayoutY(proposedY);
-            }
-        }
-
-        checkStartIntersection();
-        updateCamera();
-    }
-
-    private SwampDungeon.Direction directionFromVector(double vx, double vy) {
-        if (vx == 0 && vy == 0) {
-            return SwampDungeon.Direction.NONE;
-        }
-        double angle = Math.toDegrees(Math.atan2(-vy, vx));
-        if (angle < 0) {
-            angle += 360.0;
-        }
-
-        if (angle >= 337.5 || angle < 22.5) {
-            return SwampDungeon.Direction.E;
-        }
-        if (angle < 67.5) {
-            return SwampDungeon.Direction.NE;
-        }
-        if (angle < 112.5) {
-            return SwampDungeon.Direction.N;
-        }
-        if (angle < 157.5) {
-            return SwampDungeon.Direction.NW;
-        }
-        if (angle < 202.5) {
-            return SwampDungeon.Direction.W;
-        }
-        if (angle < 247.5) {
-            return SwampDungeon.Direction.SW;
-        }
-        if (angle < 292.5) {
-            return SwampDungeon.Direction.S;
-        }
-        if (angle < 337.5) {
-            return SwampDungeon.Direction.SE;
-        }
-        return SwampDungeon.Direction.NONE;
-    }
-
-    private void setDirectionIfChanged(SwampDungeon.Direction newDir) {
-        if (newDir == null) {
-            newDir = SwampDungeon.Direction.NONE;
-        }
-        currentDirection = newDir;
-    }
-
-    public SwampDungeon.Direction getHeroDirection() {
-        return currentDirection;
-    }
-
-    private void checkStartIntersection() {
-        if (startRect == null) {
-            onStartRect = false;
-            return;
-        }
-        boolean intersects = heroView.getBoundsInParent().intersects(startRect.getBoundsInParent());
-        onStartRect = intersects;
-        startRect.setFill(intersects ? Color.rgb(0, 120, 255, 0.42) : Color.rgb(0, 120, 255, 0.28));
-    }
-
-    private void updateCamera() {
-        double heroCenterX = heroView.getLayoutX() + HERO_W / 2.0;
-        double heroCenterY = heroView.getLayoutY() + HERO_H / 2.0;
-
-        double targetTx = VIEW_W / 2.0 - heroCenterX;
-        double targetTy = VIEW_H / 2.0 - heroCenterY;
-
-        double minTx = Math.min(0, VIEW_W - worldW);
-        double maxTx = 0;
-        double minTy = Math.min(0, VIEW_H - worldH);
-        double maxTy = 0;
-
-        double tx = clamp(targetTx, minTx, maxTx);
-        double ty = clamp(targetTy, minTy, maxTy);
-
-        double lowerZone = worldH * 0.75;
-        if (heroCenterY > lowerZone) {
-            double factor = 0.45;
-            ty = ty * factor + (VIEW_H / 2.0 - heroCenterY) * (1 - factor);
-            ty = clamp(ty, minTy, maxTy);
-        }
-
-        world.setTranslateX(tx);
-        world.setTranslateY(ty);
-    }
-
-    private static double clamp(double v, double lo, double hi) {
-        if (v < lo) {
-            return lo;
-        }
-        if (v > hi) {
-            return hi;
-        }
-        return v;
-    }
-
-    private void clearInputState() {
-        keys.clear();
-    }
-
-    public void startMapMusic() {
-        try {
-            stopMapMusic();
-            URL res = getClass().getResource("/Resources/music/swampDungeonInside.mp3");
-            boolean hasRes = res != null;
-            if (hasRes) {
-                Media media = new Media(res.toExternalForm());
-                music = new MediaPlayer(media);
-                music.setCycleCount(MediaPlayer.INDEFINITE);
-                music.setVolume(MainScreen.getVolumeSetting());
-                music.play();
-
-                AudioManager.register(music);
-            }
-        } catch (Throwable ignored) {
-        }
-    }
-
-    public void stopMapMusic() {
-        try {
-            boolean exists = music != null;
-            if (exists) {
-                AudioManager.unregister(music);
-                music.stop();
-                music.dispose();
-                music = null;
-            }
-        } catch (Throwable ignored) {
-        }
-    }
-
     private void openDebugCombat() {
         String bg = "/Resources/textures/Battle/swampBattle.png";
-        stopMapMusic();
+        stopMusic();
 
         GUI.CombatScreen cs = new GUI.CombatScreen(game, bg, "Swamp", game.getHero(), false, null);
 
@@ -1234,7 +789,7 @@ public class SwampDungeon {
                     FXGL.getGameScene().addUINode(root);
                 } catch (Throwable ignored) {
                 }
-                startMapMusic();
+                startMusic("/Resources/music/swampDungeonInside.mp3");
                 root.requestFocus();
             });
         });
@@ -1302,8 +857,8 @@ public class SwampDungeon {
     public boolean checkOrbTrigger() {
         boolean intersects = false;
         if (orbTrigger != null) {
-            Rectangle2D heroRect = new Rectangle2D(heroView.getLayoutX(), heroView.getLayoutY(), HERO_W, HERO_H);
-            intersects = heroRect.intersects(orbTrigger);
+            intersects = motion.hero().set(heroView.getLayoutX(), heroView.getLayoutY(), HERO_W, HERO_H)
+                    .intersects(orbTrigger);
             if (intersects) {
                 if (orbHintText == null) {
                     orbHintText = new Text("Press ENTER to pick up");
@@ -1386,6 +941,7 @@ public class SwampDungeon {
                 world.getChildren().add(r);
             }
         }
+        dungeonTriggerIndex = StaticRTree.of(dungeonTriggerRects);
         heroView.toFront();
     }
 
@@ -1395,14 +951,7 @@ public class SwampDungeon {
         if (beforeDungeon) {
             double hx = heroView.getLayoutX();
             double hy = heroView.getLayoutY();
-            Rectangle2D heroRect = new Rectangle2D(hx, hy, HERO_W, HERO_H);
-
-            for (Rectangle trigger : dungeonTriggerRects) {
-                Rectangle2D tr = new Rectangle2D(trigger.getX(), trigger.getY(), trigger.getWidth(), trigger.getHeight());
-                if (heroRect.intersects(tr)) {
-                    shouldSwitch = true;
-                }
-            }
+            shouldSwitch = dungeonTriggerIndex.intersects(hx, hy, HERO_W, HERO_H);
         }
 
         if (shouldSwitch) {
@@ -1424,7 +973,7 @@ public class SwampDungeon {
             } catch (Throwable ignored) {
             }
 
-            boolean bgOk = loadBackgroundImage("/Resources/textures/SwampDungeon/SwampDungeon02.png");
+            boolean bgOk = loadBackgroundImage("/Resources/textures/SwampDungeon/SwampDungeon02.png", "Zona");
             createOrbTrigger();
             drawBossDungeon();
             setHeroPosition(382.9433579999997, 1126.7086680000002);
@@ -1466,6 +1015,7 @@ public class SwampDungeon {
         r.getProperties().put("id", "dungeonReturn");
 
         dungeonTriggerRects.add(r);
+        dungeonTriggerIndex = StaticRTree.of(dungeonTriggerRects);
         if (!world.getChildren().contains(r)) {
             world.getChildren().add(r);
         }
@@ -1474,7 +1024,7 @@ public class SwampDungeon {
     }
 
     private void returnToPreviousZone() {
-        boolean imageOk = loadBackgroundImage("/Resources/textures/SwampDungeon/SwampDungeon01.png");
+        boolean imageOk = loadBackgroundImage("/Resources/textures/SwampDungeon/SwampDungeon01.png", "Zona");
         if (imageOk) {
 
             beforeDungeon = true;
@@ -1496,25 +1046,15 @@ public class SwampDungeon {
     private void checkReturnToPreviousZone() {
         double hx = heroView.getLayoutX();
         double hy = heroView.getLayoutY();
-        Rectangle2D heroRect = new Rectangle2D(hx, hy, HERO_W, HERO_H);
 
         boolean found = false;
-        Rectangle foundTrigger = null;
-
-        for (Rectangle trigger : dungeonTriggerRects) {
-            Object tag = trigger.getProperties().get("tag");
-            if (!"return_trigger".equals(tag)) {
-            } else {
-                Rectangle2D tr = new Rectangle2D(trigger.getX(), trigger.getY(), trigger.getWidth(), trigger.getHeight());
-                if (heroRect.intersects(tr)) {
-                    found = true;
-                    foundTrigger = trigger;
-                }
-            }
-
+        int hits = dungeonTriggerIndex.query(hx, hy, HERO_W, HERO_H);
+        for (int i = 0; i < hits && !found; i++) {
+            Rectangle trigger = dungeonTriggerRects.get(dungeonTriggerIndex.hit(i));
+            found = "return_trigger".equals(trigger.getProperties().get("tag"));
         }
 
-        if (found && foundTrigger != null) {
+        if (found) {
             returnToPreviousZone();
         }
     }
@@ -1596,6 +1136,7 @@ public class SwampDungeon {
                     world.getChildren().add(r);
                 }
             }
+            bossTriggerIndex = StaticRTree.of(bossTriggerRects);
             heroView.toFront();
         }
     }
@@ -1618,6 +1159,7 @@ public class SwampDungeon {
                     bossTriggerRects.clear();
                 } catch (Throwable ignored) {
                 }
+                bossTriggerIndex = StaticRTree.of(bossTriggerRects);
 
                 obstacles.clear();
                 populateSwamp2Obstacles();
@@ -0,0 +1,140 @@
+package Items;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * The hero's items as stacks over the shared templates. Copies of an item
+ * add to the quantity of the stack of that same template instead of taking
+ * a new entry.
+ * As a List it shows every unit: a stack of two bandages is the bandage
+ * template twice. add puts the item in its stack and remove takes one unit
+ * out of the first stack holding it; adding at an index is not supported,
+ * as stacks keep their own order. Templates are compared by identity.
+ */
+public class Inventory extends AbstractList<Item> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ArrayList<ItemStack> stacks;
+    private int size;
+
+    public Inventory() {
+        this.stacks = new ArrayList<>();
+    }
+
+    // Deep copy: stacks hold state of their own
+    public Inventory(Inventory other) {
+        this.stacks = new ArrayList<>(other.stacks.size());
+        for (ItemStack s : other.stacks) {
+            stacks.add(new ItemStack(s));
+        }
+        this.size = other.size;
+    }
+
+    public List<ItemStack> getStacks() {
+        return Collections.unmodifiableList(stacks);
+    }
+
+    public void addStack(ItemStack stack) {
+        ItemStack same = findStack(stack.getItem());
+        if (same != null) {
+            same.setQuantity(same.getQuantity() + stack.getQuantity());
+        } else {
+            stacks.add(stack);
+        }
+        size += stack.getQuantity();
+        modCount++;
+    }
+
+    // First stack of the template, null when there is none
+    public ItemStack findStack(Item item) {
+        ItemStack found = null;
+        for (int i = 0; i < stacks.size() && found == null; i++) {
+            if (stacks.get(i).getItem() == item) {
+                found = stacks.get(i);
+            }
+        }
+        return found;
+    }
+
+    public int count(Item item) {
+        int count = 0;
+        for (ItemStack s : stacks) {
+            if (s.getItem() == item) {
+                count += s.getQuantity();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Item get(int index) {
+        return stackAt(index).getItem();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(Item item) {
+        addStack(new ItemStack(item));
+        return true;
+    }
+
+    @Override
+    public Item remove(int index) {
+        ItemStack stack = stackAt(index);
+        takeOne(stack);
+        return stack.getItem();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        ItemStack stack = o instanceof Item ? findStack((Item) o) : null;
+        if (stack != null) {
+            takeOne(stack);
+        }
+        return stack != null;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Item && findStack((Item) o) != null;
+    }
+
+    @Override
+    public void clear() {
+        stacks.clear();
+        size = 0;
+        modCount++;
+    }
+
+    private void takeOne(ItemStack stack) {
+        if (stack.getQuantity() > 1) {
+            stack.setQuantity(stack.getQuantity() - 1);
+        } else {
+            stacks.remove(stack);
+        }
+        size--;
+        modCount++;
+    }
+
+    private ItemStack stackAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of 0.." + (size - 1));
+        }
+        int i = 0;
+        int left = index;
+        while (left >= stacks.get(i).getQuantity()) {
+            left -= stacks.get(i).getQuantity();
+            i++;
+        }
+        return stacks.get(i);
+    }
+}
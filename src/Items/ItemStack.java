@@ -0,0 +1,44 @@
+package Items;
+
+import java.io.Serializable;
+
+/*
+ * What the hero owns of one item: the shared item template and how many
+ * copies of it. Templates are never changed through a stack.
+ */
+public class ItemStack implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Item item;
+    private int quantity;
+
+    public ItemStack(Item item) {
+        this(item, 1);
+    }
+
+    public ItemStack(Item item, int quantity) {
+        this.item = item;
+        setQuantity(quantity);
+    }
+
+    public ItemStack(ItemStack other) {
+        this(other.item, other.quantity);
+    }
+
+    public Item getItem() {
+        return item;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        if (quantity > 0) {
+            this.quantity = quantity;
+        } else {
+            throw new IllegalArgumentException("Debe ser mayor que 0");
+        }
+    }
+}
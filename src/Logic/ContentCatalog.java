@@ -0,0 +1,62 @@
+package Logic;
+
+import Characters.Monster;
+import Items.Item;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/*
+ * The game content by key: items by id, monsters by name and by encounter.
+ * Entries are the shared templates created by Game.createItems and
+ * createMonsters. Heroes and saves point to the item templates themselves;
+ * monsters are spawned from theirs for each combat (Monster.spawn).
+ * Classes are looked up by id in the class tree (ClassTree.findById).
+ */
+public class ContentCatalog {
+
+    private final HashMap<String, Item> items;
+    private final HashMap<String, Monster> monsters;
+    private final HashMap<String, ArrayList<Monster>> encounters;
+
+    public ContentCatalog() {
+        this.items = new HashMap<>();
+        this.monsters = new HashMap<>();
+        this.encounters = new HashMap<>();
+    }
+
+    // The first item added with an id keeps it
+    public void addItem(Item item) {
+        items.putIfAbsent(item.getId(), item);
+    }
+
+    public void addMonster(Monster monster) {
+        monsters.putIfAbsent(monster.getName(), monster);
+        encounters.computeIfAbsent(monster.getEncounter().toLowerCase(), e -> new ArrayList<>()).add(monster);
+    }
+
+    // Null when there is no item with that id
+    public Item findItem(String id) {
+        return items.get(id);
+    }
+
+    public Monster findMonster(String name) {
+        return monsters.get(name);
+    }
+
+    // Monsters of an encounter, ignoring case, in the order they were added
+    public List<Monster> findEncounter(String encounter) {
+        ArrayList<Monster> found = encounters.get(encounter.toLowerCase());
+        return found != null ? Collections.unmodifiableList(found) : Collections.emptyList();
+    }
+
+    public int itemCount() {
+        return items.size();
+    }
+
+    public int monsterCount() {
+        return monsters.size();
+    }
+}
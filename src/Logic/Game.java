@@ -6,9 +6,11 @@ import Misc.*;
 import Tree.*;
 import Utils.*;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.io.StreamCorruptedException;
 import java.time.LocalDateTime;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -19,30 +21,59 @@ public class Game {
 
     private File save;
     private File archives;
+    private SaveArchive saveArchive;
+    private SaveFile saveFile;
+    private SaveCompression saveCompression = StandardCompression.DEFLATE;
+    private SaveJournal journal;
+    private SaveService saveService;
+    private final Object saveLock = new Object();
     private Hero hero;
     private ArrayList<NPC> characters;
     private ArrayList<Task> tasks;
     private ArrayList<Item> items;
+    private ContentCatalog catalog;
     private GeneralTree<Classes> classes;
     private LocalDateTime playedTime;
+    // When play time was last added to the hero, System.nanoTime
+    private long playClock;
 
     public Hero getHero() {
         return hero;
     }
 
+    // A hero read from a save only now sets its task states on the tasks
+    // it shares with Game.tasks
+    public void setHero(Hero hero) {
+        if (hero != null) {
+            hero.applyTaskStates();
+        }
+        this.hero = hero;
+        this.playClock = System.nanoTime();
+    }
+
+    // Adds the time played since the last call, or since the hero was set,
+    // to the hero. Called before saving it
+    public void updatePlayTime() {
+        long now = System.nanoTime();
+        if (hero != null) {
+            hero.addPlayTime((now - playClock) / 1_000_000);
+        }
+        playClock = now;
+    }
+
     public void createHero(String name) {
         Classes root = ((BinaryTreeNode<Classes>) classes.getRoot()).getInfo();
-        hero = new Hero(name, (Weapon) items.get(0), (Armor) items.get(8), root);
+        setHero(new Hero(name, (Weapon) findItem("H000"), (Armor) findItem("A000"), root));
         // Para testear el inventario 
-        hero.getItems().addLast(items.get(1));
-        hero.getItems().addLast(items.get(7));
-        hero.getItems().addLast(items.get(7));
-        hero.getItems().addLast(items.get(14));
-        hero.getItems().addLast(items.get(15));
-        hero.getItems().addLast(items.get(16));
-        hero.getItems().addLast(items.get(9));
-        hero.getItems().addLast(items.get(23));
-        hero.getItems().addLast(items.get(24));
+        hero.getItems().add(findItem("SW000"));
+        hero.getItems().add(findItem("WS01"));
+        hero.getItems().add(findItem("WS01"));
+        hero.getItems().add(findItem("A001"));
+        hero.getItems().add(findItem("P000"));
+        hero.getItems().add(findItem("P001"));
+        hero.getItems().add(findItem("H002"));
+        hero.getItems().add(findItem("A002"));
+        hero.getItems().add(findItem("A003"));
 
         // Para agregar misiones
         hero.addTasks(tasks.get(0));
@@ -72,16 +103,21 @@ public class Game {
     }
 
     private BinaryTreeNode<Classes> findNthNode(int n) {
-        InBreadthIterator<Classes> it = classes.inBreadthIterator();
-        int counter = 0;
         BinaryTreeNode<Classes> result = null;
 
-        while (it.hasNext() && result == null) {
-            BinaryTreeNode<Classes> node = it.nextNode();
-            if (counter == n) {
-                result = node;
+        if (classes instanceof IndexedGeneralTree) {
+            result = ((IndexedGeneralTree<Classes>) classes).breadthNode(n);
+        } else {
+            InBreadthIterator<Classes> it = classes.inBreadthIterator();
+            int counter = 0;
+
+            while (it.hasNext() && result == null) {
+                BinaryTreeNode<Classes> node = it.nextNode();
+                if (counter == n) {
+                    result = node;
+                }
+                counter++;
             }
-            counter++;
         }
 
         return result;
@@ -92,21 +128,27 @@ public class Game {
         BinaryTreeNode<Classes> parentHero = findNodeById(parentGame.getInfo().getId());
 
         if (parentHero != null) {
-            hero.getUnlockedClasses().insertNode(new BinaryTreeNode<>(nodeToInsert.getInfo()), parentHero);
+            hero.unlockClass(nodeToInsert.getInfo(), parentHero);
         }
     }
 
     private BinaryTreeNode<Classes> findNodeById(String id) {
-        InBreadthIterator<Classes> it = hero.getUnlockedClasses().inBreadthIterator();
-        BinaryTreeNode<Classes> result = null;
+        return hero.findHeroSkillTreeNode(id);
+    }
 
-        while (it.hasNext() && result == null) {
-            BinaryTreeNode<Classes> node = it.nextNode();
-            if (node.getInfo().getId().equalsIgnoreCase(id)) {
-                result = node;
+    public BinaryTreeNode<Classes> findClassNode(String id) {
+        BinaryTreeNode<Classes> result = null;
+        if (classes instanceof ClassTree) {
+            result = ((ClassTree) classes).findById(id);
+        } else {
+            InBreadthIterator<Classes> it = classes.inBreadthIterator();
+            while (it.hasNext() && result == null) {
+                BinaryTreeNode<Classes> node = it.nextNode();
+                if (node.getInfo().getId().equalsIgnoreCase(id)) {
+                    result = node;
+                }
             }
         }
-
         return result;
     }
 
@@ -124,6 +166,16 @@ public class Game {
 
     public void setSave(File save) {
         this.save = save;
+        this.saveFile = null;
+        this.journal = null;
+    }
+
+    // Changes since the last full save are journaled next to it
+    public SaveJournal getJournal() {
+        if (journal == null) {
+            journal = new SaveJournal(new File(save.getParentFile(), save.getName() + ".journal"));
+        }
+        return journal;
     }
 
     public ArrayList<NPC> getCharacters() {
@@ -132,6 +184,9 @@ public class Game {
 
     public void addCharacters(NPC npc) {
         characters.add(npc);
+        if (npc instanceof Monster) {
+            catalog.addMonster((Monster) npc);
+        }
     }
 
     public ArrayList<Task> getTasks() {
@@ -148,6 +203,19 @@ public class Game {
 
     public void addItems(Item i) {
         items.add(i);
+        catalog.addItem(i);
+    }
+
+    public ContentCatalog getCatalog() {
+        return catalog;
+    }
+
+    public Item findItem(String id) {
+        return catalog.findItem(id);
+    }
+
+    public Monster findMonster(String name) {
+        return catalog.findMonster(name);
     }
 
     public File getArchives() {
@@ -156,6 +224,14 @@ public class Game {
 
     public void setArchives(File archives) {
         this.archives = archives;
+        this.saveArchive = null;
+    }
+
+    public SaveArchive getSaveArchive() {
+        if (saveArchive == null) {
+            saveArchive = new SaveArchive(archives);
+        }
+        return saveArchive;
     }
 
     public GeneralTree<Classes> getClasses() {
@@ -178,7 +254,8 @@ public class Game {
         this.characters = new ArrayList<>();
         this.tasks = new ArrayList<>();
         this.items = new ArrayList<>();
-        this.classes = new GeneralTree<>();
+        this.catalog = new ContentCatalog();
+        this.classes = new ClassTree();
 
         createClassTree();
     }
@@ -236,7 +313,7 @@ public class Game {
         boolean canEquip = hero.searchHeroSkillTreeNode(w.getType());
         if (canEquip) {
             equiped = true;
-            hero.getItems().addLast(hero.getActualWeapon());
+            hero.getItems().add(hero.getActualWeapon());
             hero.setActualWeapon(w);
             hero.getItems().remove(w);
         }
@@ -244,24 +321,192 @@ public class Game {
     }
 
     public boolean equipArmor(Armor a) {
-        hero.getItems().addLast(hero.getArmor());
+        hero.getItems().add(hero.getArmor());
         boolean equiped = hero.setArmor(a);
         hero.getItems().remove(a);
         return equiped;
     }
 
     public boolean createSaveGame() {
+        updatePlayTime();
+        return writeSaveGame(hero, hero);
+    }
+
+    // Writes snapshot, a copy of owner taken while owner was not changing,
+    // as the save of owner. Safe to call from a thread other than the one
+    // playing with owner
+    public boolean writeSaveGame(Hero owner, Hero snapshot) {
         boolean created = false;
 
-        File parent = save.getParentFile();
-        if (parent != null && !parent.exists()) {
-            parent.mkdirs();
+        synchronized (saveLock) {
+            try {
+                SaveCodec codec = new SaveCodec(this);
+                long generation = getSaveFile().write(out -> codec.writeHero(out, snapshot));
+                getJournal().reset(owner, snapshot, generation);
+                created = true;
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return created;
+    }
+
+    // Cheap save for scene changes and combat ends: only what changed since
+    // the last save is appended to the journal, until it is time to write
+    // the whole hero again
+    public boolean autoSave() {
+        updatePlayTime();
+        return autoSave(hero, hero);
+    }
+
+    public boolean autoSave(Hero owner, Hero snapshot) {
+        boolean saved;
+
+        synchronized (saveLock) {
+            if (!getSaveFile().exists() || getJournal().needsCompaction(owner)) {
+                saved = writeSaveGame(owner, snapshot);
+            } else {
+                try {
+                    getJournal().append(owner, snapshot, new SaveCodec(this));
+                    saved = true;
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
         }
+        return saved;
+    }
 
-        try (RandomAccessFile raf = new RandomAccessFile(save, "rw")) {
-            byte[] data = Convert.toBytes(hero);
-            raf.writeInt(data.length);
-            raf.write(data);
+    public boolean readSaveGame() {
+        setHero(loadSaveGame());
+        return hero != null;
+    }
+
+    // Reads the last good save and its journal without touching the current
+    // hero. Null when there is no save
+    public Hero loadSaveGame() {
+        Hero loaded = null;
+        SaveCodec codec = new SaveCodec(this);
+
+        synchronized (saveLock) {
+            try {
+                SaveFile.Generation generation = getSaveFile().read();
+                if (generation != null) {
+                    try (DataInputStream in = new DataInputStream(
+                            new BufferedInputStream(generation.open()))) {
+                        in.mark(Integer.BYTES);
+                        int head = in.readInt();
+                        if (head == SaveCodec.MAGIC) {
+                            in.reset();
+                            loaded = codec.readHero(in);
+                        } else if (head > 0 && head <= generation.getLength() - Integer.BYTES) {
+                            // Old saves: length followed by the serialized Hero
+                            byte[] data = new byte[head];
+                            in.readFully(data);
+                            loaded = (Hero) Convert.toObject(data);
+                            useCatalogItems(loaded);
+                        } else {
+                            throw new StreamCorruptedException("Bad save length " + head);
+                        }
+                    }
+                    getJournal().replay(loaded, codec, generation.getNumber());
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return loaded;
+    }
+
+    // A serialized hero holds copies of the catalog items. They are swapped
+    // for the catalog templates, so they stack with copies got later and
+    // the next save writes them as references
+    private void useCatalogItems(Hero loaded) {
+        Inventory inventory = new Inventory();
+        for (ItemStack s : loaded.getInventory().getStacks()) {
+            inventory.addStack(new ItemStack(catalogItem(s.getItem()), s.getQuantity()));
+        }
+        loaded.setInventory(inventory);
+        loaded.setActualWeapon((Weapon) catalogItem(loaded.getActualWeapon()));
+        loaded.setArmor((Armor) catalogItem(loaded.getArmor()));
+    }
+
+    // The catalog template with the id of item, or item itself when there
+    // is none of the same class
+    private Item catalogItem(Item item) {
+        Item template = item != null ? getCatalog().findItem(item.getId()) : null;
+        return template != null && template.getClass() == item.getClass() ? template : item;
+    }
+
+    // Name, level, location and play time of the last good save, with its
+    // journal applied, reading neither items nor tasks nor classes. Null
+    // when there is no save
+    public SaveCodec.Summary loadSaveSummary() {
+        SaveCodec.Summary summary = null;
+
+        synchronized (saveLock) {
+            try {
+                SaveFile.Generation generation = getSaveFile().read();
+                if (generation != null) {
+                    try (DataInputStream in = new DataInputStream(
+                            new BufferedInputStream(generation.open()))) {
+                        in.mark(Integer.BYTES);
+                        int head = in.readInt();
+                        in.reset();
+                        if (head == SaveCodec.MAGIC) {
+                            summary = SaveCodec.readSummary(in);
+                        }
+                    }
+                    if (summary != null) {
+                        getJournal().replay(summary, generation.getNumber());
+                    } else {
+                        // Old serialized saves have no header to read alone
+                        Hero loaded = loadSaveGame();
+                        summary = loaded != null ? SaveCodec.Summary.of(loaded) : null;
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return summary;
+    }
+
+    public boolean hasSaveGame() {
+        return getSaveFile().exists();
+    }
+
+    public SaveFile getSaveFile() {
+        if (saveFile == null) {
+            saveFile = new SaveFile(save, saveCompression);
+        }
+        return saveFile;
+    }
+
+    public SaveCompression getSaveCompression() {
+        return saveCompression;
+    }
+
+    // Used for the next saves; saves already written keep theirs
+    public void setSaveCompression(SaveCompression saveCompression) {
+        this.saveCompression = saveCompression;
+        this.saveFile = null;
+    }
+
+    public SaveService getSaveService() {
+        if (saveService == null) {
+            saveService = new SaveService(this);
+        }
+        return saveService;
+    }
+
+    // Writes snapshot, a copy of the hero (see writeSaveGame), to a slot of
+    // the save archive. SaveService.saveToSlot takes the copy and calls this
+    // off the JavaFX thread
+    public boolean saveToSlot(int slot, Hero snapshot) {
+        boolean created = false;
+        try {
+            getSaveArchive().write(slot, snapshot, new SaveCodec(this));
             created = true;
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -269,25 +514,49 @@ public class Game {
         return created;
     }
 
-    public boolean readSaveGame() {
-        boolean correct = false;
-        try (RandomAccessFile raf = new RandomAccessFile(save, "rw")) {
-            int len = raf.readInt();
-            byte[] data = new byte[len];
-            raf.readFully(data);
-            hero = (Hero) Convert.toObject(data);
-            correct = true;
-            raf.close();
-        } catch (IOException | ClassNotFoundException e) {
+    public boolean loadFromSlot(int slot) {
+        Hero loaded = loadSlotGame(slot);
+        if (loaded != null) {
+            setHero(loaded);
+        }
+        return loaded != null;
+    }
+
+    // Reads a slot without touching the current hero. Null for an empty slot
+    public Hero loadSlotGame(int slot) {
+        try {
+            return getSaveArchive().read(slot, new SaveCodec(this));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Only reads the archive directory, no hero is loaded
+    public ArrayList<SaveArchive.Slot> listSaveSlots() {
+        try {
+            return getSaveArchive().listSlots();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Only reads the header of the slot save. Null for an empty slot
+    public SaveCodec.Summary loadSlotSummary(int slot) {
+        try {
+            return getSaveArchive().readSummary(slot);
+        } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        return correct;
     }
 
     public boolean deleteSaveGame() {
-        boolean correct = false;
-        if (save.exists()) {
-            correct = save.delete();
+        boolean correct;
+        synchronized (saveLock) {
+            correct = getSaveFile().delete();
+            File journalFile = getJournal().getFile();
+            if (journalFile.exists()) {
+                journalFile.delete();
+            }
         }
         return correct;
     }
@@ -351,76 +620,76 @@ public class Game {
 
     public void createItems() {
         //Weapons
-        items.add(new Fist("Your hands, it is the easiest way to attack!", "Bare Hands", "H000", 5, 120000, "Inflicts damage.", -1));
-        items.add(new Sword("Basic Sword made of old trees.", "Wooden Sword", "SW000", 9, 120000, "Hard but cuts", 30));
-        items.add(new Spell("Basic thrown magic with hands", "Basic Spell", "H001", 6, 10, "It can attack", 50));
-        items.add(new Gun("It shoots.", "Desert Eagle", "GUN01", 20, 100, "Inflict damage.",
+        addItems(new Fist("Your hands, it is the easiest way to attack!", "Bare Hands", "H000", 5, 120000, "Inflicts damage.", -1));
+        addItems(new Sword("Basic Sword made of old trees.", "Wooden Sword", "SW000", 9, 120000, "Hard but cuts", 30));
+        addItems(new Spell("Basic thrown magic with hands", "Basic Spell", "H001", 6, 10, "It can attack", 50));
+        addItems(new Gun("It shoots.", "Desert Eagle", "GUN01", 20, 100, "Inflict damage.",
                 "A", 30, 50.0));
-        items.add(new Sword("It cuts.", "Guardian Sword", "SW01", 30, 100, "Inflicts damage.", 100));
-        items.add(new Spear("It drills.", "Guardian Spear", "SP000", 18, 100, "Inflicts damage.", 100));
-        items.add(new Claymore("An old weapon belonging to the royal guard of the kingdom.", "Royal Claymore", "CLY01", 100, 100, "Inflicts damage", 300));
-        items.add(new Wares("It cures.", "Healing Bandages", "WS01", 50, 10));
-        items.add(new Armor("Basic Armor", "Broken Cloath", "A000", 5, "Offers extra Defense", 5));
-        items.add(new Fist("Monster Claws to scratch the enemy", "Claws", "H002", 13, 120000, "Inflicts damage by scratching.", 15));
-        items.add(new Spear("A punzanct surface weapon", "Spike", "SP001", 6, 2, "It can hurt a bit more on some attacks", 10));
-        items.add(new Spell("Dark magic spells", "Basic Spell", "H003", 6, 10, "It can attack launching shadow balls", 25));
-        items.add(new Fist("Tentacles to constrict the enemy", "Tentacles", "H004", 14, 120000, "Inflicts damage by constriction.", 10));
-        items.add(new Spell("Fire throwing spell", "Flamethrower", "H005", 12, 15, "Inflicts damage by burning.", 120));
-        items.add(new Armor("Basic Armor", "Adventurer´s Cloath", "A001", 9, "Worn by a mysterious adventurer that once saved the Kingdom.", 45));
+        addItems(new Sword("It cuts.", "Guardian Sword", "SW01", 30, 100, "Inflicts damage.", 100));
+        addItems(new Spear("It drills.", "Guardian Spear", "SP000", 18, 100, "Inflicts damage.", 100));
+        addItems(new Claymore("An old weapon belonging to the royal guard of the kingdom.", "Royal Claymore", "CLY01", 100, 100, "Inflicts damage", 300));
+        addItems(new Wares("It cures.", "Healing Bandages", "WS01", 50, 10));
+        addItems(new Armor("Basic Armor", "Broken Cloath", "A000", 5, "Offers extra Defense", 5));
+        addItems(new Fist("Monster Claws to scratch the enemy", "Claws", "H002", 13, 120000, "Inflicts damage by scratching.", 15));
+        addItems(new Spear("A punzanct surface weapon", "Spike", "SP001", 6, 2, "It can hurt a bit more on some attacks", 10));
+        addItems(new Spell("Dark magic spells", "Basic Spell", "H003", 6, 10, "It can attack launching shadow balls", 25));
+        addItems(new Fist("Tentacles to constrict the enemy", "Tentacles", "H004", 14, 120000, "Inflicts damage by constriction.", 10));
+        addItems(new Spell("Fire throwing spell", "Flamethrower", "H005", 12, 15, "Inflicts damage by burning.", 120));
+        addItems(new Armor("Basic Armor", "Adventurer´s Cloath", "A001", 9, "Worn by a mysterious adventurer that once saved the Kingdom.", 45));
         //    Weapon w = new Weapon(info, name, id, 0, 0, effect,cost) 
 
         //Healing items
-        items.add(new Wares("It cures.", "Ultra Potion", "P000", 75, 120));
-        items.add(new Wares("It cures.", "Sacred Potion", "P001", 100, 200));
-        items.add(new Wares("It cures.", "Blueberry", "B000", 10, 15));
-        items.add(new Wares("It cures.", "Raspberry", "B001", 25, 25));
+        addItems(new Wares("It cures.", "Ultra Potion", "P000", 75, 120));
+        addItems(new Wares("It cures.", "Sacred Potion", "P001", 100, 200));
+        addItems(new Wares("It cures.", "Blueberry", "B000", 10, 15));
+        addItems(new Wares("It cures.", "Raspberry", "B001", 25, 25));
         //Wares(String description, String name, String id, int healing,int cost)
 
         //Key Items
-        items.add(new KeyItem("A mysterious orb found in the Swamp.", "Toxic Orb.", "K000"));
-        items.add(new KeyItem("A mysterious orb found in the Volcano.", "Lava Orb.", "K001"));
-        items.add(new KeyItem("Use it to open a door.", "Key.", "K002"));
-        items.add(new KeyItem("The Village's Mayor authorization.", "Mayor's letter.", "K003"));
+        addItems(new KeyItem("A mysterious orb found in the Swamp.", "Toxic Orb.", "K000"));
+        addItems(new KeyItem("A mysterious orb found in the Volcano.", "Lava Orb.", "K001"));
+        addItems(new KeyItem("Use it to open a door.", "Key.", "K002"));
+        addItems(new KeyItem("The Village's Mayor authorization.", "Mayor's letter.", "K003"));
         //KeyItem(String info, String name, String id)
 
         //More armor
-        items.add(new Armor("Stronger armor", "Steel Plate", "A002", 14, "A sturdy armor forged by a great smith.", 200));
-        items.add(new Armor("Stronger armor", "Sapphire Plate", "A003", 20, "Majestic armor worn by the most royal soldiers.", 500));
+        addItems(new Armor("Stronger armor", "Steel Plate", "A002", 14, "A sturdy armor forged by a great smith.", 200));
+        addItems(new Armor("Stronger armor", "Sapphire Plate", "A003", 20, "Majestic armor worn by the most royal soldiers.", 500));
         //Armor(String info, String name, String id ,int defense, String effect)
 
     }
 
     public void createMonsters() {
         //Overworld
-        characters.add(new Monster((Weapon) items.get(2), 2, 5, "Gnome", "/Resources/sprites/Monsters/goblin01.png", 20, 20, 20, 25, "Overworld"));
-        characters.add(new Monster((Weapon) items.get(1), 4, 3, "Goblin", "/Resources/sprites/Monsters/elf01.png", 25, 20, 15, 25, "Overworld"));
-        characters.add(new Monster((Weapon) items.get(0), 3, 3, "Mystical Crab", "/Resources/sprites/Monsters/crab01.png", 20, 20, 12, 25, "Overworld"));
-        characters.add(new Monster((Weapon) items.get(10), 5, 4, "Mechanical Bee", "/Resources/sprites/Monsters/fieldBee.png", 55, 55, 25, 50, "Overworld"));
-        characters.add(new Monster((Weapon) items.get(2), 6, 4, "Foongus", "/Resources/sprites/Monsters/fieldFoongus.png", 40, 40, 20, 35, "Overworld"));
-        characters.add(new Monster((Weapon) items.get(9), 2, 1, "Messi", "/Resources/sprites/Monsters/messi.png", 10, 10, 10, 15, "Overworld"));
-        characters.add(new Monster((Weapon) items.get(9), 3, 3, "Dark Crow", "/Resources/sprites/Monsters/Crow.png", 75, 75, 50, 100, "Overworld"));
+        addCharacters(new Monster((Weapon) findItem("H001"), 2, 5, "Gnome", "/Resources/sprites/Monsters/goblin01.png", 20, 20, 20, 25, "Overworld"));
+        addCharacters(new Monster((Weapon) findItem("SW000"), 4, 3, "Goblin", "/Resources/sprites/Monsters/elf01.png", 25, 20, 15, 25, "Overworld"));
+        addCharacters(new Monster((Weapon) findItem("H000"), 3, 3, "Mystical Crab", "/Resources/sprites/Monsters/crab01.png", 20, 20, 12, 25, "Overworld"));
+        addCharacters(new Monster((Weapon) findItem("SP001"), 5, 4, "Mechanical Bee", "/Resources/sprites/Monsters/fieldBee.png", 55, 55, 25, 50, "Overworld"));
+        addCharacters(new Monster((Weapon) findItem("H001"), 6, 4, "Foongus", "/Resources/sprites/Monsters/fieldFoongus.png", 40, 40, 20, 35, "Overworld"));
+        addCharacters(new Monster((Weapon) findItem("H002"), 2, 1, "Messi", "/Resources/sprites/Monsters/messi.png", 10, 10, 10, 15, "Overworld"));
+        addCharacters(new Monster((Weapon) findItem("H002"), 3, 3, "Dark Crow", "/Resources/sprites/Monsters/Crow.png", 75, 75, 50, 100, "Overworld"));
         //Swamp
-        characters.add(new Monster((Weapon) items.get(9), 12, 7, "Zombie Dog", "/Resources/sprites/Monsters/swampMonster00.png", 75, 75, 50, 100, "Swamp"));
-        characters.add(new Monster((Weapon) items.get(0), 9, 4, "Zombie", "/Resources/sprites/Monsters/swampMonster02.png", 100, 100, 55, 100, "Swamp"));
-        characters.add(new Monster((Weapon) items.get(9), 15, 9, "Shadow Fiend", "/Resources/sprites/Monsters/swampMonster01.png", 87, 87, 70, 120, "Swamp"));
-        characters.add(new Monster((Weapon) items.get(11), 14, 12, "Pot Fiend", "/Resources/sprites/Monsters/swampMonster04.png", 52, 52, 60, 125, "Swamp"));
-        characters.add(new Monster((Weapon) items.get(9), 12, 7, "Toxic Lizard", "/Resources/sprites/Monsters/swampMonster03.png", 75, 75, 50, 100, "Swamp"));
-        characters.add(new Boss((Weapon) items.get(9), 32, 15, "Venom Demon King", "/Resources/sprites/Monsters/swampBoss01.png", 280, 180, 200, 800, "SwampBoss"));
+        addCharacters(new Monster((Weapon) findItem("H002"), 12, 7, "Zombie Dog", "/Resources/sprites/Monsters/swampMonster00.png", 75, 75, 50, 100, "Swamp"));
+        addCharacters(new Monster((Weapon) findItem("H000"), 9, 4, "Zombie", "/Resources/sprites/Monsters/swampMonster02.png", 100, 100, 55, 100, "Swamp"));
+        addCharacters(new Monster((Weapon) findItem("H002"), 15, 9, "Shadow Fiend", "/Resources/sprites/Monsters/swampMonster01.png", 87, 87, 70, 120, "Swamp"));
+        addCharacters(new Monster((Weapon) findItem("H003"), 14, 12, "Pot Fiend", "/Resources/sprites/Monsters/swampMonster04.png", 52, 52, 60, 125, "Swamp"));
+        addCharacters(new Monster((Weapon) findItem("H002"), 12, 7, "Toxic Lizard", "/Resources/sprites/Monsters/swampMonster03.png", 75, 75, 50, 100, "Swamp"));
+        addCharacters(new Boss((Weapon) findItem("H002"), 32, 15, "Venom Demon King", "/Resources/sprites/Monsters/swampBoss01.png", 280, 180, 200, 800, "SwampBoss"));
         //Volcano
-        characters.add(new Monster((Weapon) items.get(13), 18, 10, "Salaflamender", "/Resources/sprites/Monsters/volcano00.png", 105, 105, 100, 150, "Volcano"));
-        characters.add(new Monster((Weapon) items.get(9), 16, 13, "Dragon Egg", "/Resources/sprites/Monsters/volcano01.png", 110, 110, 95, 140, "Volcano"));
-        characters.add(new Monster((Weapon) items.get(9), 20, 14, "Figoat", "/Resources/sprites/Monsters/volcano02.png", 105, 105, 100, 160, "Volcano"));
-        characters.add(new Monster((Weapon) items.get(4), 18, 15, "Stone Soldier", "/Resources/sprites/Monsters/volcano03.png", 110, 110, 110, 170, "Volcano"));
-        characters.add(new Monster((Weapon) items.get(13), 50, 50, "Phoenix", "/Resources/sprites/Monsters/volcanoBoss00.png", 300, 300, 300, 300, "Boss"));
-        characters.add(new Monster((Weapon) items.get(13), 62, 90, "Fire Demon King", "/Resources/sprites/Monsters/volcanoBoss01.png", 500, 500, 500, 1500, "Boss"));
+        addCharacters(new Monster((Weapon) findItem("H005"), 18, 10, "Salaflamender", "/Resources/sprites/Monsters/volcano00.png", 105, 105, 100, 150, "Volcano"));
+        addCharacters(new Monster((Weapon) findItem("H002"), 16, 13, "Dragon Egg", "/Resources/sprites/Monsters/volcano01.png", 110, 110, 95, 140, "Volcano"));
+        addCharacters(new Monster((Weapon) findItem("H002"), 20, 14, "Figoat", "/Resources/sprites/Monsters/volcano02.png", 105, 105, 100, 160, "Volcano"));
+        addCharacters(new Monster((Weapon) findItem("SW01"), 18, 15, "Stone Soldier", "/Resources/sprites/Monsters/volcano03.png", 110, 110, 110, 170, "Volcano"));
+        addCharacters(new Monster((Weapon) findItem("H005"), 50, 50, "Phoenix", "/Resources/sprites/Monsters/volcanoBoss00.png", 300, 300, 300, 300, "Boss"));
+        addCharacters(new Monster((Weapon) findItem("H005"), 62, 90, "Fire Demon King", "/Resources/sprites/Monsters/volcanoBoss01.png", 500, 500, 500, 1500, "Boss"));
         //Sky
-        characters.add(new Monster((Weapon) items.get(12), 21, 15, "Fly Sight", "/Resources/sprites/Monsters/skyMonster00.png", 260, 260, 290, 270, "Sky"));
-        characters.add(new Monster((Weapon) items.get(9), 24, 12, "Dragon Minion", "/Resources/sprites/Monsters/skyMonster01.png", 295, 225, 320, 310, "Sky"));
-        characters.add(new Monster((Weapon) items.get(11), 26, 10, "Novel Sorcerer", "/Resources/sprites/Monsters/skyMonster02.png", 280, 220, 220, 300, "Sky"));
-        characters.add(new Monster((Weapon) items.get(2), 20, 14, "Flower Fairy", "/Resources/sprites/Monsters/skyMonster03.png", 290, 290, 200, 180, "Sky"));
-        characters.add(new Monster((Weapon) items.get(2), 25, 14, "Demon Harpy", "/Resources/sprites/Monsters/skyMonster04.png", 320, 320, 250, 180, "Sky"));
-        characters.add(new Monster((Weapon) items.get(13), 85, 90, "Light Rider", "/Resources/sprites/Monsters/skyBoss01.png", 1500, 1500, 1500, 1000, "SkyBoss"));
-        characters.add(new Monster((Weapon) items.get(13), 125, 100, "Count Artigas", "/Resources/sprites/Monsters/finalBoss.png", 3500, 3500, 2500, 10500, "SkyBoss"));
+        addCharacters(new Monster((Weapon) findItem("H004"), 21, 15, "Fly Sight", "/Resources/sprites/Monsters/skyMonster00.png", 260, 260, 290, 270, "Sky"));
+        addCharacters(new Monster((Weapon) findItem("H002"), 24, 12, "Dragon Minion", "/Resources/sprites/Monsters/skyMonster01.png", 295, 225, 320, 310, "Sky"));
+        addCharacters(new Monster((Weapon) findItem("H003"), 26, 10, "Novel Sorcerer", "/Resources/sprites/Monsters/skyMonster02.png", 280, 220, 220, 300, "Sky"));
+        addCharacters(new Monster((Weapon) findItem("H001"), 20, 14, "Flower Fairy", "/Resources/sprites/Monsters/skyMonster03.png", 290, 290, 200, 180, "Sky"));
+        addCharacters(new Monster((Weapon) findItem("H001"), 25, 14, "Demon Harpy", "/Resources/sprites/Monsters/skyMonster04.png", 320, 320, 250, 180, "Sky"));
+        addCharacters(new Monster((Weapon) findItem("H005"), 85, 90, "Light Rider", "/Resources/sprites/Monsters/skyBoss01.png", 1500, 1500, 1500, 1000, "SkyBoss"));
+        addCharacters(new Monster((Weapon) findItem("H005"), 125, 100, "Count Artigas", "/Resources/sprites/Monsters/finalBoss.png", 3500, 3500, 2500, 10500, "SkyBoss"));
 
         //Monster m = new Monster(weapon, attack, defense, name, sprite, life, actualLife, exp, money, encounter)
     }
@@ -479,7 +748,7 @@ public class Game {
         //Main Quests
         addTasks(new Task("Explore the Misterious Sky Ruins.", "Search what is hidden in the Sky Island.", "M000", 10000, true));
         addTasks(new Task("Search the Toxic Orb.", "Complete the road of Swamp.", "M001", 1000, true));
-        getTasks().get(1).addReward(getItems().get(19));
+        getTasks().get(1).addReward(findItem("K000"));
         addTasks(new Task("Search the Lava Orb.", "Complete the road of Volcano.", "M002", 1000, true));
         addTasks(new Task("Battle against the swamp boss.", "Defeat the Swamp Boss Monster to get the toxic orb.", "M003", 0, true));
         addTasks(new Task("Get the Mayor's authorization.", "Talk with Village's Mayor.", "M003", 500, true));
@@ -0,0 +1,439 @@
+package Logic;
+
+import Characters.Hero;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.zip.CRC32C;
+
+/*
+ * Several saves in one file. The file starts with a fixed directory: for
+ * each slot, which of its two records is current and the two records. A
+ * record keeps where its save is, its length, its checksum and a summary
+ * (hero name, level, location, date) so the load menu can list the slots
+ * reading only the directory.
+ * A new save of a slot goes to the region of the record that is not
+ * current, and only once it and its record are on disk does the one byte
+ * saying which record is current change. A crash leaves the slot with the
+ * save it had before; a current save that fails its checksum falls back to
+ * the other record.
+ * A record that needs more room gets the first free gap between regions
+ * that fits, or the end of the file, and the region it leaves becomes a
+ * gap for later saves.
+ */
+public class SaveArchive {
+
+    public static final int MAGIC = 0x48415243; // "HARC"
+    public static final int VERSION = 1;
+    public static final int SLOTS = 64;
+
+    private static final int HEADER_SIZE = 16;
+    // One byte per slot: 0 or 1, its current record
+    private static final int CURRENT = HEADER_SIZE;
+    private static final int RECORDS = 128;
+    private static final int RECORD_SIZE = 64;
+    private static final int DIRECTORY_SIZE = RECORDS + SLOTS * 2 * RECORD_SIZE;
+    private static final int NAME_BYTES = 30;
+    // Regions grow in blocks so small changes fit in place
+    private static final int BLOCK = 512;
+
+    private final File file;
+
+    public SaveArchive(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    // Summary of a used slot, read from the directory only
+    public static class Slot {
+
+        private final int index;
+        private final String heroName;
+        private final int level;
+        private final Hero.Location location;
+        private final long savedAt;
+        private final int length;
+
+        private Slot(int index, String heroName, int level, Hero.Location location, long savedAt, int length) {
+            this.index = index;
+            this.heroName = heroName;
+            this.level = level;
+            this.location = location;
+            this.savedAt = savedAt;
+            this.length = length;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getHeroName() {
+            return heroName;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public Hero.Location getLocation() {
+            return location;
+        }
+
+        // Milliseconds since the epoch
+        public long getSavedAt() {
+            return savedAt;
+        }
+
+        public int getLength() {
+            return length;
+        }
+    }
+
+    public synchronized ArrayList<Slot> listSlots() throws IOException {
+        ArrayList<Slot> slots = new ArrayList<>();
+
+        if (file.exists()) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                ByteBuffer directory = readDirectory(channel);
+                for (int i = 0; i < SLOTS; i++) {
+                    Slot slot = slotAt(directory, i);
+                    if (slot != null) {
+                        slots.add(slot);
+                    }
+                }
+            }
+        }
+
+        return slots;
+    }
+
+    public synchronized boolean isUsed(int slot) throws IOException {
+        checkSlot(slot);
+        boolean used = false;
+
+        if (file.exists()) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                used = slotAt(readDirectory(channel), slot) != null;
+            }
+        }
+
+        return used;
+    }
+
+    public synchronized void write(int slot, Hero hero, SaveCodec codec) throws IOException {
+        checkSlot(slot);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(BLOCK);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            codec.writeHero(out, hero);
+        }
+        byte[] data = bytes.toByteArray();
+
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < DIRECTORY_SIZE) {
+                createDirectory(channel);
+            }
+            MappedByteBuffer directory = channel.map(FileChannel.MapMode.READ_WRITE, 0, DIRECTORY_SIZE);
+            checkHeader(directory);
+
+            // The current record is not touched until the flip at the end
+            int next = 1 - current(directory, slot);
+            int record = record(slot, next);
+            long offset = directory.getLong(record);
+            int capacity = directory.getInt(record + 12);
+
+            if (offset == 0 || data.length > capacity) {
+                capacity = (data.length + BLOCK - 1) / BLOCK * BLOCK;
+                offset = allocate(channel, directory, record, capacity);
+            }
+
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, offset, capacity);
+            region.put(data);
+            region.force();
+
+            CRC32C crc = new CRC32C();
+            crc.update(data);
+            directory.putLong(record, offset);
+            directory.putInt(record + 8, data.length);
+            directory.putInt(record + 12, capacity);
+            directory.putInt(record + 16, (int) crc.getValue());
+            directory.putLong(record + 20, System.currentTimeMillis());
+            directory.putInt(record + 28, hero.getLevel());
+            directory.put(record + 32, (byte) hero.getLastLocation().ordinal());
+            byte[] name = nameBytes(hero.getName());
+            directory.put(record + 33, (byte) name.length);
+            directory.put(record + 34, name);
+            directory.force();
+
+            directory.put(CURRENT + slot, (byte) next);
+            directory.force();
+        }
+    }
+
+    public synchronized Hero read(int slot, SaveCodec codec) throws IOException {
+        checkSlot(slot);
+        Hero hero = null;
+
+        if (file.exists()) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                ByteBuffer directory = readDirectory(channel);
+                int current = record(slot, current(directory, slot));
+                int other = record(slot, 1 - current(directory, slot));
+
+                if (directory.getInt(current + 8) > 0) {
+                    MappedByteBuffer region = checkedRegion(channel, directory, current);
+                    if (region == null) {
+                        region = checkedRegion(channel, directory, other);
+                    }
+                    if (region == null) {
+                        throw new StreamCorruptedException("Slot " + slot + " is damaged");
+                    }
+                    hero = codec.readHero(new DataInputStream(new BufferInput(region)));
+                }
+            }
+        }
+
+        return hero;
+    }
+
+    // Reads the save header of the slot alone; only the pages it is on are
+    // touched, so the rest of the save is not checked. Null for an empty slot
+    public synchronized SaveCodec.Summary readSummary(int slot) throws IOException {
+        checkSlot(slot);
+        SaveCodec.Summary summary = null;
+
+        if (file.exists()) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                ByteBuffer directory = readDirectory(channel);
+                MappedByteBuffer region = region(channel, directory, record(slot, current(directory, slot)));
+                if (region != null) {
+                    summary = SaveCodec.readSummary(new DataInputStream(new BufferInput(region)));
+                }
+            }
+        }
+
+        return summary;
+    }
+
+    public synchronized void delete(int slot) throws IOException {
+        checkSlot(slot);
+
+        if (file.exists()) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                MappedByteBuffer directory = channel.map(FileChannel.MapMode.READ_WRITE, 0, DIRECTORY_SIZE);
+                checkHeader(directory);
+                // The regions are kept so a later save of this slot can reuse them
+                for (int copy = 0; copy < 2; copy++) {
+                    int record = record(slot, copy);
+                    directory.putInt(record + 8, 0);
+                    directory.putInt(record + 16, 0);
+                    directory.put(record + 33, (byte) 0);
+                    directory.put(record + 32, (byte) Hero.Location.UNKNOWN.ordinal());
+                    directory.putLong(record + 20, 0L);
+                }
+                directory.force();
+            }
+        }
+    }
+
+    private static int record(int slot, int copy) {
+        return RECORDS + (slot * 2 + copy) * RECORD_SIZE;
+    }
+
+    private static int current(ByteBuffer directory, int slot) {
+        return directory.get(CURRENT + slot) & 1;
+    }
+
+    // The save of a record, mapped. Null when the record is empty
+    private static MappedByteBuffer region(FileChannel channel, ByteBuffer directory, int record) throws IOException {
+        MappedByteBuffer region = null;
+        long offset = directory.getLong(record);
+        int length = directory.getInt(record + 8);
+
+        if (offset != 0 && length > 0) {
+            if (offset + length > channel.size()) {
+                throw new StreamCorruptedException("Save archive is truncated");
+            }
+            region = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        }
+
+        return region;
+    }
+
+    // Like region, but also null when the save fails its checksum
+    private static MappedByteBuffer checkedRegion(FileChannel channel, ByteBuffer directory, int record) throws IOException {
+        MappedByteBuffer region = null;
+        long offset = directory.getLong(record);
+        int length = directory.getInt(record + 8);
+
+        if (offset != 0 && length > 0 && offset + length <= channel.size()) {
+            region = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            CRC32C crc = new CRC32C();
+            crc.update(region.duplicate());
+            if ((int) crc.getValue() != directory.getInt(record + 16)) {
+                region = null;
+            }
+        }
+
+        return region;
+    }
+
+    // Start of the first gap of at least capacity bytes between the regions
+    // of the other records, or the end of the file. The region of record
+    // itself counts as free: it is about to be replaced
+    private static long allocate(FileChannel channel, ByteBuffer directory, int record, int capacity) throws IOException {
+        int records = SLOTS * 2;
+        long[] starts = new long[records];
+        long[] ends = new long[records];
+        int used = 0;
+
+        for (int r = 0; r < records; r++) {
+            int at = RECORDS + r * RECORD_SIZE;
+            long offset = directory.getLong(at);
+            if (at != record && offset != 0) {
+                // Insertion sort by start; there are at most 2 * SLOTS regions
+                int i = used++;
+                while (i > 0 && starts[i - 1] > offset) {
+                    starts[i] = starts[i - 1];
+                    ends[i] = ends[i - 1];
+                    i--;
+                }
+                starts[i] = offset;
+                ends[i] = offset + directory.getInt(at + 12);
+            }
+        }
+
+        long free = DIRECTORY_SIZE;
+        long found = -1;
+        for (int i = 0; i < used && found < 0; i++) {
+            if (starts[i] - free >= capacity) {
+                found = free;
+            }
+            free = Math.max(free, ends[i]);
+        }
+        if (found < 0) {
+            found = free;
+        }
+        return found;
+    }
+
+    private static void createDirectory(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(DIRECTORY_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(SLOTS);
+        header.putInt(RECORD_SIZE);
+        header.clear();
+        channel.write(header, 0);
+    }
+
+    private static ByteBuffer readDirectory(FileChannel channel) throws IOException {
+        if (channel.size() < DIRECTORY_SIZE) {
+            throw new StreamCorruptedException("Not a save archive");
+        }
+        MappedByteBuffer directory = channel.map(FileChannel.MapMode.READ_ONLY, 0, DIRECTORY_SIZE);
+        checkHeader(directory);
+        return directory;
+    }
+
+    private static void checkHeader(ByteBuffer directory) throws IOException {
+        if (directory.getInt(0) != MAGIC || directory.getInt(8) != SLOTS
+                || directory.getInt(12) != RECORD_SIZE) {
+            throw new StreamCorruptedException("Not a save archive");
+        }
+        if (directory.getInt(4) != VERSION) {
+            throw new StreamCorruptedException("Unsupported archive version " + directory.getInt(4));
+        }
+    }
+
+    // A slot is used while its current record has a save; deleted slots
+    // keep their regions
+    private static Slot slotAt(ByteBuffer directory, int index) {
+        Slot slot = null;
+        int record = record(index, current(directory, index));
+        int length = directory.getInt(record + 8);
+
+        if (directory.getLong(record) != 0 && length > 0) {
+            byte[] name = new byte[Math.min(directory.get(record + 33) & 0xFF, NAME_BYTES)];
+            directory.get(record + 34, name);
+            Hero.Location[] locations = Hero.Location.values();
+            int location = directory.get(record + 32) & 0xFF;
+            slot = new Slot(index, new String(name, StandardCharsets.UTF_8), directory.getInt(record + 28),
+                    location < locations.length ? locations[location] : Hero.Location.UNKNOWN,
+                    directory.getLong(record + 20), length);
+        }
+
+        return slot;
+    }
+
+    // UTF-8 name cut to NAME_BYTES without splitting a character
+    private static byte[] nameBytes(String name) {
+        String cut = name;
+        byte[] bytes = cut.getBytes(StandardCharsets.UTF_8);
+
+        while (bytes.length > NAME_BYTES) {
+            cut = cut.substring(0, cut.offsetByCodePoints(cut.length(), -1));
+            bytes = cut.getBytes(StandardCharsets.UTF_8);
+        }
+
+        return bytes;
+    }
+
+    private static void checkSlot(int slot) {
+        if (slot < 0 || slot >= SLOTS) {
+            throw new IndexOutOfBoundsException("Slot " + slot + " out of 0.." + (SLOTS - 1));
+        }
+    }
+
+    // Reads a mapped region without copying it to the heap first
+    private static class BufferInput extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        BufferInput(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            int read = -1;
+            if (len == 0) {
+                read = 0;
+            } else if (buffer.hasRemaining()) {
+                read = Math.min(len, buffer.remaining());
+                buffer.get(b, off, read);
+            }
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
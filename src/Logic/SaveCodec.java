@@ -0,0 +1,678 @@
+package Logic;
+
+import Characters.Hero;
+import Items.*;
+import Misc.*;
+import Tree.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+
+/*
+ * Binary save format. Only primitives and strings are written: items, tasks
+ * and classes that come from the Game catalogs (items, tasks, classes) are
+ * stored as their ids and resolved back to the same catalog instances when
+ * the save is read. Items that are not catalog instances are written whole.
+ * The inventory is written as stacks (see Inventory).
+ * Saves written before this format (a length followed by a serialized Hero)
+ * start with a small positive int, never with MAGIC.
+ * A short header (name, level, location, play time and thumbnail slot)
+ * comes first, with its length, so menus can read a Summary and stop there;
+ * items, tasks and classes are only decoded by readHero.
+ */
+public class SaveCodec {
+
+    public static final int MAGIC = 0x48534156; // "HSAV"
+    public static final int VERSION = 4;
+    // Thumbnail slot of saves without one
+    public static final int NO_THUMBNAIL = -1;
+
+    private static final byte NULL = 0;
+    private static final byte REF = 1;
+    private static final byte FIST = 2;
+    private static final byte SWORD = 3;
+    private static final byte CLAYMORE = 4;
+    private static final byte SABER = 5;
+    private static final byte SPEAR = 6;
+    private static final byte SPELL = 7;
+    private static final byte HEALING_SPELL = 8;
+    private static final byte WAND = 9;
+    private static final byte GUN = 10;
+    private static final byte ARMOR = 11;
+    private static final byte WARES = 12;
+    private static final byte KEY_ITEM = 13;
+    private static final byte TASK = 14;
+
+    private final Game game;
+    private final ContentCatalog catalog;
+
+    // What a save menu shows, read from the header alone
+    public static class Summary {
+
+        private final String heroName;
+        private int level;
+        private Hero.Location location;
+        private long playTime;
+        private final int thumbnail;
+
+        Summary(String heroName, int level, Hero.Location location, long playTime, int thumbnail) {
+            this.heroName = heroName;
+            this.level = level;
+            this.location = location;
+            this.playTime = playTime;
+            this.thumbnail = thumbnail;
+        }
+
+        static Summary of(Hero hero) {
+            return new Summary(hero.getName(), hero.getLevel(), hero.getLastLocation(), hero.getPlayTime(),
+                    NO_THUMBNAIL);
+        }
+
+        public String getHeroName() {
+            return heroName;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        void setLevel(int level) {
+            this.level = level;
+        }
+
+        public Hero.Location getLocation() {
+            return location;
+        }
+
+        void setLocation(Hero.Location location) {
+            this.location = location;
+        }
+
+        // Milliseconds
+        public long getPlayTime() {
+            return playTime;
+        }
+
+        void setPlayTime(long playTime) {
+            this.playTime = playTime;
+        }
+
+        public int getThumbnail() {
+            return thumbnail;
+        }
+    }
+
+    public SaveCodec(Game game) {
+        this.game = game;
+        this.catalog = game.getCatalog();
+    }
+
+    public void writeHero(DataOutput out, Hero hero) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream(64);
+        DataOutputStream headerOut = new DataOutputStream(header);
+        headerOut.writeUTF(hero.getName());
+        headerOut.writeInt(hero.getLevel());
+        headerOut.writeByte(hero.getLastLocation().ordinal());
+        headerOut.writeLong(hero.getPlayTime());
+        headerOut.writeInt(NO_THUMBNAIL);
+        if (header.size() > 0xFFFF) {
+            throw new IOException("Save header too long");
+        }
+        out.writeShort(header.size());
+        out.write(header.toByteArray());
+
+        writeString(out, hero.getSpritePath());
+        out.writeInt(hero.getExpMax());
+        out.writeInt(hero.getExpActual());
+        out.writeInt(hero.getAttack());
+        out.writeInt(hero.getMagic());
+        out.writeInt(hero.getDefense());
+        out.writeInt(hero.getLife());
+        out.writeInt(hero.getActualLife());
+        out.writeInt(hero.getMoney());
+        out.writeInt(hero.getDefeatedMonsters());
+        out.writeDouble(hero.getLastPosX());
+        out.writeDouble(hero.getLastPosY());
+
+        writeItem(out, hero.getActualWeapon());
+        writeItem(out, hero.getArmor());
+        writeClasses(out, hero.getUnlockedClassesSnapshot());
+
+        writeInventory(out, hero.getInventory());
+
+        writeTasks(out, hero.getTasks().toArray(new Task[0]), hero.getTaskStates());
+        writeTasks(out, hero.getCompletedTasks().toArray(new Task[0]), hero.getCompletedTaskStates());
+    }
+
+    // Count and tasks, each written with its state in states
+    void writeTasks(DataOutput out, Task[] tasks, boolean[] states) throws IOException {
+        out.writeInt(tasks.length);
+        for (int i = 0; i < tasks.length; i++) {
+            writeTask(out, tasks[i], states[i]);
+        }
+    }
+
+    // Reads what writeHero wrote, MAGIC included
+    public Hero readHero(DataInput in) throws IOException {
+        readVersion(in);
+        Summary summary = readHeader(in);
+
+        String name = summary.getHeroName();
+        String spritePath = readString(in);
+        int expMax = in.readInt();
+        int expActual = in.readInt();
+        int attack = in.readInt();
+        int magic = in.readInt();
+        int defense = in.readInt();
+        int level = summary.getLevel();
+        int life = in.readInt();
+        int actualLife = in.readInt();
+        int money = in.readInt();
+        int defeatedMonsters = in.readInt();
+        Hero.Location location = summary.getLocation();
+        double posX = in.readDouble();
+        double posY = in.readDouble();
+
+        Weapon weapon = (Weapon) readItem(in);
+        Armor armor = (Armor) readItem(in);
+        ClassTree classes = readClasses(in);
+
+        Hero hero = new Hero(name, weapon, armor, ((BinaryTreeNode<Classes>) classes.getRoot()).getInfo());
+        hero.setUnlockedClasses(classes);
+        hero.setSpritePath(spritePath);
+        hero.setExpMax(expMax);
+        hero.setExpActual(expActual);
+        hero.setAttack(attack);
+        hero.setMagic(magic);
+        hero.setDefense(defense);
+        hero.setLevel(level);
+        hero.setLife(life);
+        hero.setActualLife(actualLife);
+        hero.setMoney(money);
+        hero.setDefeatedMonsters(defeatedMonsters);
+        hero.setLastLocation(location);
+        hero.setLastPosX(posX);
+        hero.setLastPosY(posY);
+        hero.setPlayTime(summary.getPlayTime());
+
+        hero.setInventory(readInventory(in));
+        readTasks(in, hero);
+
+        return hero;
+    }
+
+    // Reads only the start of what writeHero wrote, MAGIC included, and
+    // leaves the rest of the input unread
+    public static Summary readSummary(DataInput in) throws IOException {
+        readVersion(in);
+        return readHeader(in);
+    }
+
+    private static void readVersion(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new StreamCorruptedException("Not a save file");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new StreamCorruptedException("Unsupported save version " + version);
+        }
+    }
+
+    private static Summary readHeader(DataInput in) throws IOException {
+        byte[] header = new byte[in.readUnsignedShort()];
+        in.readFully(header);
+        // Fields a later version adds at the end of the header are skipped
+        DataInputStream fields = new DataInputStream(new ByteArrayInputStream(header));
+        return new Summary(fields.readUTF(), fields.readInt(), readLocation(fields), fields.readLong(),
+                fields.readInt());
+    }
+
+    static Hero.Location readLocation(DataInput in) throws IOException {
+        Hero.Location[] locations = Hero.Location.values();
+        int location = in.readUnsignedByte();
+        return location < locations.length ? locations[location] : Hero.Location.UNKNOWN;
+    }
+
+    private static void skip(DataInput in, int bytes) throws IOException {
+        in.readFully(new byte[bytes]);
+    }
+
+    void writeItem(DataOutput out, Item item) throws IOException {
+        if (item == null) {
+            out.writeByte(NULL);
+        } else if (catalog.findItem(item.getId()) == item) {
+            out.writeByte(REF);
+            out.writeUTF(item.getId());
+        } else {
+            out.writeByte(itemTag(item));
+            writeString(out, item.getInfo());
+            writeString(out, item.getName());
+            writeString(out, item.getId());
+
+            if (item instanceof Weapon) {
+                Weapon w = (Weapon) item;
+                out.writeInt(w.getAttack());
+                out.writeInt(w.getLifeSpan());
+                writeString(out, w.getEffect());
+                out.writeInt(w.getCost());
+                if (w instanceof Gun) {
+                    out.writeDouble(((Gun) w).getRange());
+                }
+            } else if (item instanceof Armor) {
+                Armor a = (Armor) item;
+                out.writeInt(a.getDefense());
+                writeString(out, a.getEffect());
+                out.writeInt(a.getCost());
+            } else if (item instanceof Wares) {
+                Wares w = (Wares) item;
+                out.writeInt(w.getHealing());
+                out.writeInt(w.getCost());
+            } else {
+                out.writeBoolean(((KeyItem) item).isUsed());
+            }
+        }
+    }
+
+    private static byte itemTag(Item item) throws IOException {
+        byte tag;
+        // Subclasses before their parents
+        if (item instanceof Claymore) {
+            tag = CLAYMORE;
+        } else if (item instanceof Saber) {
+            tag = SABER;
+        } else if (item instanceof Sword) {
+            tag = SWORD;
+        } else if (item instanceof HealingSpell) {
+            tag = HEALING_SPELL;
+        } else if (item instanceof Spell) {
+            tag = SPELL;
+        } else if (item instanceof Fist) {
+            tag = FIST;
+        } else if (item instanceof Spear) {
+            tag = SPEAR;
+        } else if (item instanceof Wand) {
+            tag = WAND;
+        } else if (item instanceof Gun) {
+            tag = GUN;
+        } else if (item instanceof Armor) {
+            tag = ARMOR;
+        } else if (item instanceof Wares) {
+            tag = WARES;
+        } else if (item instanceof KeyItem) {
+            tag = KEY_ITEM;
+        } else {
+            throw new IOException("Item type not supported by the save format: " + item.getClass().getName());
+        }
+        return tag;
+    }
+
+    void writeInventory(DataOutput out, Inventory inventory) throws IOException {
+        out.writeInt(inventory.getStacks().size());
+        for (ItemStack s : inventory.getStacks()) {
+            writeItem(out, s.getItem());
+            out.writeInt(s.getQuantity());
+        }
+    }
+
+    Inventory readInventory(DataInput in) throws IOException {
+        Inventory inventory = new Inventory();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            Item item = readItem(in);
+            int quantity = in.readInt();
+            if (item == null || quantity < 1) {
+                throw new StreamCorruptedException("Bad inventory stack");
+            }
+            inventory.addStack(new ItemStack(item, quantity));
+        }
+        return inventory;
+    }
+
+    static void skipInventory(DataInput in) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            skipItem(in);
+            in.readInt();
+        }
+    }
+
+    // Passes over an item written by writeItem without resolving it
+    static void skipItem(DataInput in) throws IOException {
+        byte tag = in.readByte();
+
+        if (tag == REF) {
+            in.readUTF();
+        } else if (tag != NULL) {
+            readString(in);
+            readString(in);
+            readString(in);
+
+            switch (tag) {
+                case ARMOR:
+                    in.readInt();
+                    readString(in);
+                    in.readInt();
+                    break;
+                case WARES:
+                    skip(in, 2 * Integer.BYTES);
+                    break;
+                case KEY_ITEM:
+                    in.readBoolean();
+                    break;
+                default:
+                    skip(in, 2 * Integer.BYTES);
+                    readString(in);
+                    in.readInt();
+                    if (tag == GUN) {
+                        in.readDouble();
+                    }
+                    break;
+            }
+        }
+    }
+
+    Item readItem(DataInput in) throws IOException {
+        Item item = null;
+        byte tag = in.readByte();
+
+        if (tag == REF) {
+            String id = in.readUTF();
+            item = catalog.findItem(id);
+            if (item == null) {
+                throw new StreamCorruptedException("Unknown item id " + id);
+            }
+        } else if (tag != NULL) {
+            String info = readString(in);
+            String name = readString(in);
+            String id = readString(in);
+
+            switch (tag) {
+                case ARMOR:
+                    item = new Armor(info, name, id, in.readInt(), readString(in), in.readInt());
+                    break;
+                case WARES:
+                    item = new Wares(info, name, id, in.readInt(), in.readInt());
+                    break;
+                case KEY_ITEM:
+                    KeyItem k = new KeyItem(info, name, id);
+                    k.setUsed(in.readBoolean());
+                    item = k;
+                    break;
+                default:
+                    item = readWeapon(in, tag, info, name, id);
+                    break;
+            }
+        }
+
+        return item;
+    }
+
+    private static Weapon readWeapon(DataInput in, byte tag, String info, String name, String id) throws IOException {
+        Weapon weapon;
+        int attack = in.readInt();
+        int lifeSpan = in.readInt();
+        String effect = readString(in);
+        int cost = in.readInt();
+
+        switch (tag) {
+            case FIST:
+                weapon = new Fist(info, name, id, attack, lifeSpan, effect, cost);
+                break;
+            case SWORD:
+                weapon = new Sword(info, name, id, attack, lifeSpan, effect, cost);
+                break;
+            case CLAYMORE:
+                weapon = new Claymore(info, name, id, attack, lifeSpan, effect, cost);
+                break;
+            case SABER:
+                weapon = new Saber(info, name, id, attack, lifeSpan, effect, cost);
+                break;
+            case SPEAR:
+                weapon = new Spear(info, name, id, attack, lifeSpan, effect, cost);
+                break;
+            case SPELL:
+                weapon = new Spell(info, name, id, attack, lifeSpan, effect, cost);
+                break;
+            case HEALING_SPELL:
+                weapon = new HealingSpell(info, name, id, attack, lifeSpan, effect, cost);
+                break;
+            case WAND:
+                weapon = new Wand(info, name, id, attack, lifeSpan, effect, cost);
+                break;
+            case GUN:
+                weapon = new Gun(info, name, id, attack, lifeSpan, effect, null, cost, in.readDouble());
+                break;
+            default:
+                throw new StreamCorruptedException("Unknown item tag " + tag);
+        }
+
+        return weapon;
+    }
+
+    // Tasks are shared with Game.tasks, whose ids are not unique, so they are
+    // referenced by position and the id is kept to check it. The state is
+    // passed apart, as a snapshot holds it and the task may have changed
+    void writeTask(DataOutput out, Task task, boolean state) throws IOException {
+        int index = indexOfTask(task);
+
+        if (index >= 0) {
+            out.writeByte(REF);
+            out.writeShort(index);
+            out.writeUTF(task.getId());
+            out.writeBoolean(state);
+        } else {
+            out.writeByte(TASK);
+            writeString(out, task.getName());
+            writeString(out, task.getInfo());
+            writeString(out, task.getId());
+            out.writeInt(task.getMoney());
+            out.writeBoolean(task.isMainQuest());
+            out.writeBoolean(state);
+            out.writeInt(task.getRewards().size());
+            for (Item i : task.getRewards()) {
+                writeItem(out, i);
+            }
+        }
+    }
+
+    private int indexOfTask(Task task) {
+        ArrayList<Task> tasks = game.getTasks();
+        int index = -1;
+        for (int i = 0; i < tasks.size() && index < 0; i++) {
+            if (tasks.get(i) == task) {
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    // Both lists as writeHero wrote them. The states go to the hero apart
+    // (Hero.setTasks): catalog tasks are shared with the game hero, which
+    // must not change while a save that may still fail is read
+    void readTasks(DataInput in, Hero hero) throws IOException {
+        Task[][] lists = new Task[2][];
+        boolean[][] states = new boolean[2][];
+
+        for (int list = 0; list < 2; list++) {
+            int count = in.readInt();
+            lists[list] = new Task[count];
+            states[list] = new boolean[count];
+            for (int i = 0; i < count; i++) {
+                lists[list][i] = readTask(in, states[list], i);
+            }
+        }
+
+        hero.setTasks(lists[0], states[0], lists[1], states[1]);
+    }
+
+    // Reads a task and stores its state in states[index]
+    private Task readTask(DataInput in, boolean[] states, int index) throws IOException {
+        Task task;
+        byte tag = in.readByte();
+
+        if (tag == REF) {
+            int position = in.readUnsignedShort();
+            String id = in.readUTF();
+            ArrayList<Task> tasks = game.getTasks();
+            if (position >= tasks.size() || !id.equals(tasks.get(position).getId())) {
+                throw new StreamCorruptedException("Unknown task " + id);
+            }
+            task = tasks.get(position);
+            states[index] = in.readBoolean();
+        } else if (tag == TASK) {
+            String name = readString(in);
+            String info = readString(in);
+            String id = readString(in);
+            int money = in.readInt();
+            task = new Task(name, info, id, money, in.readBoolean());
+            states[index] = in.readBoolean();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                task.addReward(readItem(in));
+            }
+        } else {
+            throw new StreamCorruptedException("Unknown task tag " + tag);
+        }
+
+        return task;
+    }
+
+    static void skipTask(DataInput in) throws IOException {
+        byte tag = in.readByte();
+
+        if (tag == REF) {
+            in.readUnsignedShort();
+            in.readUTF();
+            in.readBoolean();
+        } else if (tag == TASK) {
+            readString(in);
+            readString(in);
+            readString(in);
+            in.readInt();
+            in.readBoolean();
+            in.readBoolean();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                skipItem(in);
+            }
+        } else {
+            throw new StreamCorruptedException("Unknown task tag " + tag);
+        }
+    }
+
+    // Preorder of class ids, each followed by its number of sons. Read from
+    // the immutable version so a snapshot needs no copy of the tree
+    void writeClasses(DataOutput out, PersistentGeneralTree<Classes> tree) throws IOException {
+        out.writeInt(tree.totalNodes());
+        Deque<PersistentTreeNode<Classes>> stack = new ArrayDeque<>();
+        if (!tree.isEmpty()) {
+            stack.push(tree.getRoot());
+        }
+
+        while (!stack.isEmpty()) {
+            PersistentTreeNode<Classes> node = stack.pop();
+            String id = node.getInfo().getId();
+            if (game.findClassNode(id) == null) {
+                throw new IOException("Class not in the game class tree: " + id);
+            }
+            out.writeUTF(id);
+            out.writeShort(node.sonsCount());
+            for (int i = node.sonsCount() - 1; i >= 0; i--) {
+                stack.push(node.getSon(i));
+            }
+        }
+    }
+
+    ClassTree readClasses(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 1) {
+            throw new StreamCorruptedException("Save without classes");
+        }
+
+        BinaryTreeNode<Classes> root = null;
+        // Nodes still waiting for sons, with how many are left
+        Deque<BinaryTreeNode<Classes>> fathers = new ArrayDeque<>();
+        Deque<int[]> pending = new ArrayDeque<>();
+        // Last son linked under each father, to chain the next one
+        HashMap<BinaryTreeNode<Classes>, BinaryTreeNode<Classes>> lastSon = new HashMap<>();
+
+        for (int i = 0; i < count; i++) {
+            String id = in.readUTF();
+            int degree = in.readUnsignedShort();
+            BinaryTreeNode<Classes> classNode = game.findClassNode(id);
+            if (classNode == null) {
+                throw new StreamCorruptedException("Unknown class id " + id);
+            }
+            BinaryTreeNode<Classes> node = new BinaryTreeNode<>(classNode.getInfo());
+
+            if (root == null) {
+                root = node;
+            } else {
+                if (fathers.isEmpty()) {
+                    throw new StreamCorruptedException("Malformed class tree");
+                }
+                BinaryTreeNode<Classes> father = fathers.peek();
+                BinaryTreeNode<Classes> brother = lastSon.put(father, node);
+                if (brother == null) {
+                    father.setLeft(node);
+                } else {
+                    brother.setRight(node);
+                }
+                if (--pending.peek()[0] == 0) {
+                    fathers.pop();
+                    pending.pop();
+                    lastSon.remove(father);
+                }
+            }
+
+            if (degree > 0) {
+                fathers.push(node);
+                pending.push(new int[]{degree});
+            }
+        }
+
+        if (!fathers.isEmpty()) {
+            throw new StreamCorruptedException("Malformed class tree");
+        }
+
+        ClassTree tree = new ClassTree();
+        tree.setRoot(root);
+        return tree;
+    }
+
+    static void skipClasses(DataInput in) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            in.readUTF();
+            in.readUnsignedShort();
+        }
+    }
+
+    private static void writeString(DataOutput out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) {
+            out.writeUTF(s);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        String s = null;
+        if (in.readBoolean()) {
+            s = in.readUTF();
+        }
+        return s;
+    }
+}
@@ -0,0 +1,21 @@
+package Logic;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/*
+ * Compression applied to the body of a save. The id is stored in the save
+ * so it can be read back with the same codec; ids below 16 are taken by
+ * StandardCompression. Other codecs must be registered in SaveFile before
+ * a save that uses them is read.
+ */
+public interface SaveCompression {
+
+    int getId();
+
+    // Closing the returned stream must finish the compressed data and close out
+    OutputStream compress(OutputStream out) throws IOException;
+
+    InputStream decompress(InputStream in) throws IOException;
+}
@@ -0,0 +1,372 @@
+package Logic;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/*
+ * A save file that is never left half written. A new generation is written
+ * to name.tmp and synced, the current file is kept as name.bak and the
+ * temporary one is renamed over the name. Each generation is one record:
+ * header (magic, version, generation, compression id), the body compressed
+ * as it is encoded, and a trailer with the body length and a CRC32C of
+ * everything after the magic and version.
+ * Reading takes the first good record among name, name.tmp and name.bak,
+ * so a crash at any point of a write leaves either the new or the previous
+ * generation. Bodies are streamed in both directions, never held whole.
+ * Files from before records existed (a length, then the serialized Hero)
+ * still load, read whole as generation 0.
+ */
+public class SaveFile {
+
+    public static final int MAGIC = 0x48535646; // "HSVF"
+    public static final int VERSION = 2;
+
+    private static final int HEADER_SIZE = 20;
+    private static final int TRAILER_SIZE = 8;
+    private static final int BUFFER = 8192;
+    // Start of a Java serialization stream, which follows the length in
+    // files from before records existed
+    private static final int SERIALIZED = 0xACED0005;
+
+    private static final HashMap<Integer, SaveCompression> COMPRESSIONS = new HashMap<>();
+
+    static {
+        for (StandardCompression c : StandardCompression.values()) {
+            COMPRESSIONS.put(c.getId(), c);
+        }
+    }
+
+    private final File file;
+    private final File temp;
+    private final File previous;
+    private final SaveCompression compression;
+
+    // Encodes a body straight into the file
+    public interface Writer {
+
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    // A good record found by read. Its body is opened on demand
+    public static class Generation {
+
+        private final long number;
+        private final File source;
+        private final long offset;
+        private final long length;
+        private final SaveCompression compression;
+
+        private Generation(long number, File source, long offset, long length, SaveCompression compression) {
+            this.number = number;
+            this.source = source;
+            this.offset = offset;
+            this.length = length;
+            this.compression = compression;
+        }
+
+        public long getNumber() {
+            return number;
+        }
+
+        public File getSource() {
+            return source;
+        }
+
+        // Stored length of the body, compressed if it is
+        public long getLength() {
+            return length;
+        }
+
+        // The body, decompressed. Closing it closes the file
+        public InputStream open() throws IOException {
+            FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ);
+            return compression.decompress(new RegionInputStream(channel, offset, length));
+        }
+    }
+
+    public SaveFile(File file) {
+        this(file, StandardCompression.DEFLATE);
+    }
+
+    public SaveFile(File file, SaveCompression compression) {
+        this.file = file;
+        this.temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        this.previous = new File(file.getParentFile(), file.getName() + ".bak");
+        this.compression = compression;
+    }
+
+    public static synchronized void registerCompression(SaveCompression compression) {
+        COMPRESSIONS.put(compression.getId(), compression);
+    }
+
+    private static synchronized SaveCompression compression(int id) {
+        return COMPRESSIONS.get(id);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public SaveCompression getCompression() {
+        return compression;
+    }
+
+    public boolean exists() {
+        return file.exists() || temp.exists() || previous.exists();
+    }
+
+    // Writes the body as the next generation and returns its number
+    public synchronized long write(Writer body) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+
+        long number = lastGeneration() + 1;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putLong(number);
+        header.putInt(compression.getId());
+        CRC32C crc = new CRC32C();
+        crc.update(header.array(), 8, HEADER_SIZE - 8);
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+
+            // Closing the chain finishes the compressed data but keeps the
+            // channel open for the trailer
+            OutputStream channelOut = new FilterOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER)) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    compression.compress(new CheckedOutputStream(channelOut, crc)), BUFFER))) {
+                body.write(out);
+            }
+
+            long length = channel.position() - HEADER_SIZE;
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+            trailer.putInt((int) length);
+            trailer.putInt((int) crc.getValue());
+            trailer.flip();
+            while (trailer.hasRemaining()) {
+                channel.write(trailer);
+            }
+            channel.force(true);
+        }
+
+        // A damaged current file must not push out a good previous one
+        if (file.exists() && readRecord(file) != null) {
+            move(file.toPath(), previous.toPath());
+        }
+        move(temp.toPath(), file.toPath());
+        syncDirectory(parent);
+
+        return number;
+    }
+
+    // First good generation among the file, the temporary one and the
+    // previous one. Null when none of them exists
+    public synchronized Generation read() throws IOException {
+        Generation found = null;
+        boolean any = false;
+        File[] candidates = {file, temp, previous};
+
+        for (int i = 0; i < candidates.length && found == null; i++) {
+            if (candidates[i].exists()) {
+                any = true;
+                found = readRecord(candidates[i]);
+            }
+        }
+
+        if (any && found == null) {
+            throw new StreamCorruptedException("No good save generation in " + file);
+        }
+
+        return found;
+    }
+
+    public synchronized boolean delete() {
+        boolean deleted = false;
+        for (File f : new File[]{file, temp, previous}) {
+            if (f.exists()) {
+                deleted |= f.delete();
+            }
+        }
+        return deleted;
+    }
+
+    private long lastGeneration() {
+        long number = 0;
+        for (File f : new File[]{file, previous}) {
+            if (f.exists()) {
+                try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+                    ByteBuffer header = ByteBuffer.allocate(16);
+                    channel.read(header, 0);
+                    header.flip();
+                    if (header.remaining() == 16 && header.getInt() == MAGIC) {
+                        header.getInt();
+                        number = Math.max(number, header.getLong());
+                    }
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        return number;
+    }
+
+    // Checks the record without keeping its body. Null when it is torn,
+    // damaged or uses an unknown compression
+    private static Generation readRecord(File f) throws IOException {
+        Generation found = null;
+
+        try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            header.flip();
+
+            if (header.remaining() >= 2 * Integer.BYTES && header.getInt(0) != MAGIC) {
+                // Only a length that covers the rest of the file followed by
+                // a serialized object is taken as an old save
+                if (header.getInt(0) == size - Integer.BYTES && header.getInt(4) == SERIALIZED) {
+                    found = new Generation(0, f, 0, size, StandardCompression.NONE);
+                }
+            } else if (header.remaining() == HEADER_SIZE && header.getInt(4) == VERSION
+                    && size >= HEADER_SIZE + TRAILER_SIZE) {
+                SaveCompression compression = compression(header.getInt(16));
+                long length = readInt(channel, size - TRAILER_SIZE) & 0xFFFFFFFFL;
+                if (compression != null && length == size - HEADER_SIZE - TRAILER_SIZE
+                        && checksum(channel, HEADER_SIZE + length) == readInt(channel, size - Integer.BYTES)) {
+                    found = new Generation(header.getLong(8), f, HEADER_SIZE, length, compression);
+                }
+            }
+        }
+
+        return found;
+    }
+
+    // CRC32C of the bytes from 8 (after magic and version) up to end
+    private static int checksum(FileChannel channel, long end) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER);
+        long position = 8;
+
+        while (position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(BUFFER, end - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new StreamCorruptedException("Save ended early");
+            }
+            buffer.flip();
+            crc.update(buffer);
+            position += read;
+        }
+
+        return (int) crc.getValue();
+    }
+
+    private static int readInt(FileChannel channel, long position) throws IOException {
+        ByteBuffer word = ByteBuffer.allocate(Integer.BYTES);
+        while (word.hasRemaining()) {
+            if (channel.read(word, position + word.position()) < 0) {
+                throw new StreamCorruptedException("Save ended early");
+            }
+        }
+        return word.getInt(0);
+    }
+
+    private static void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Makes the renames durable where the platform allows opening a directory
+    private static void syncDirectory(File dir) {
+        if (dir != null) {
+            try (FileChannel channel = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+                channel.force(true);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // Part of a file, read with positional reads. Owns the channel
+    private static class RegionInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private long position;
+        private final long end;
+
+        RegionInputStream(FileChannel channel, long offset, long length) {
+            this.channel = channel;
+            this.position = offset;
+            this.end = offset + length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = -1;
+            if (len == 0) {
+                read = 0;
+            } else if (position < end) {
+                ByteBuffer target = ByteBuffer.wrap(b, off, (int) Math.min(len, end - position));
+                read = channel.read(target, position);
+                if (read > 0) {
+                    position += read;
+                }
+            }
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, end - position);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
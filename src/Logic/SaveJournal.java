@@ -0,0 +1,479 @@
+package Logic;
+
+import Characters.Hero;
+import Items.*;
+import Misc.*;
+import Tree.PersistentGeneralTree;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/*
+ * Journal of changes made to the hero since the last full save. Each append
+ * compares the hero with the state of the previous one and writes only what
+ * changed (a stat, the location, the inventory, the tasks, the classes) as
+ * one batch: length, records and a CRC32C. Records hold the new values, not
+ * differences, so replaying a batch twice gives the same hero.
+ * A batch cut by a crash fails its checksum and is dropped with whatever
+ * follows it. The journal names the generation of the full save it follows
+ * (see SaveFile) and is dropped when read against another one. The owner
+ * writes a full save and resets the journal when needsCompaction says it
+ * has grown enough.
+ */
+public class SaveJournal {
+
+    public static final int MAGIC = 0x484A4E4C; // "HJNL"
+    public static final int VERSION = 3;
+    public static final int COMPACT_BATCHES = 64;
+    public static final long COMPACT_BYTES = 64 * 1024;
+
+    // Magic, version and the generation of the full save it follows
+    private static final int HEADER_SIZE = 16;
+
+    private static final byte END = 0;
+    private static final byte STAT = 1;
+    private static final byte LOCATION = 2;
+    private static final byte WEAPON = 3;
+    private static final byte ARMOR = 4;
+    // Inventory as stacks
+    private static final byte ITEMS = 5;
+    private static final byte TASKS = 6;
+    private static final byte CLASSES = 7;
+    private static final byte PLAY_TIME = 8;
+
+    private final File file;
+    private HeroState baseline;
+    private int batches;
+    private long generation;
+
+    public SaveJournal(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    // To be called once snapshot, a copy of hero, has been written whole as
+    // the given generation of the save
+    public synchronized void reset(Hero hero, Hero snapshot, long generation) throws IOException {
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Cannot delete " + file);
+        }
+        baseline = hero != null ? new HeroState(hero, snapshot) : null;
+        batches = 0;
+        this.generation = generation;
+    }
+
+    public synchronized boolean needsCompaction(Hero hero) {
+        return baseline == null || baseline.hero != hero
+                || batches >= COMPACT_BATCHES || file.length() >= COMPACT_BYTES;
+    }
+
+    // Writes what changed since the last append, reset or replay. False
+    // when nothing did
+    public boolean append(Hero hero, SaveCodec codec) throws IOException {
+        return append(hero, hero, codec);
+    }
+
+    // Same, reading the changes from a snapshot of the hero
+    public synchronized boolean append(Hero hero, Hero snapshot, SaveCodec codec) throws IOException {
+        if (baseline == null || baseline.hero != hero) {
+            throw new IllegalStateException("The journal does not follow this hero");
+        }
+
+        HeroState current = new HeroState(hero, snapshot);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        boolean changed = writeChanges(out, baseline, current, codec);
+
+        if (changed) {
+            out.writeByte(END);
+            out.flush();
+            byte[] payload = bytes.toByteArray();
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+
+            ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + payload.length + Integer.BYTES + Integer.BYTES);
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE)) {
+                long position = channel.size();
+                if (position < HEADER_SIZE) {
+                    frame.putInt(MAGIC);
+                    frame.putInt(VERSION);
+                    frame.putLong(generation);
+                    position = 0;
+                }
+                frame.putInt(payload.length);
+                frame.put(payload);
+                frame.putInt((int) crc.getValue());
+                frame.flip();
+                while (frame.hasRemaining()) {
+                    position += channel.write(frame, position);
+                }
+            }
+
+            baseline = current;
+            batches++;
+        }
+
+        return changed;
+    }
+
+    // Applies the journal to a hero just read from the given generation of
+    // its full save and starts following it. A journal written after another
+    // generation is dropped. Returns the number of batches applied
+    public synchronized int replay(Hero hero, SaveCodec codec, long generation) throws IOException {
+        int[] applied = {0};
+
+        if (file.exists()) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                long position = readBatches(channel, firstBatch(channel, generation), in -> {
+                    applyChanges(in, hero, codec);
+                    applied[0]++;
+                });
+
+                // Drop a torn tail so the next batch follows a good one
+                if (position < channel.size()) {
+                    channel.truncate(position);
+                }
+            }
+        }
+
+        baseline = new HeroState(hero, hero);
+        batches = applied[0];
+        this.generation = generation;
+        return applied[0];
+    }
+
+    // Brings the summary of the given generation up to date with the journal
+    // without reading items, tasks or classes. The journal is not changed
+    public synchronized void replay(SaveCodec.Summary summary, long generation) throws IOException {
+        if (file.exists()) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                readBatches(channel, firstBatch(channel, generation), in -> applyChanges(in, summary));
+            }
+        }
+    }
+
+    // Reads one batch payload
+    private interface BatchReader {
+
+        void read(DataInputStream in) throws IOException;
+    }
+
+    // Position of the first batch that follows the generation, 0 when there
+    // is none. A journal cut before its header holds nothing yet, one of
+    // another version is dropped like one of another generation
+    private static long firstBatch(FileChannel channel, long generation) throws IOException {
+        long position = 0;
+
+        if (channel.size() >= HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new StreamCorruptedException("Not a save journal");
+            }
+            if (header.getInt() == VERSION && header.getLong() == generation) {
+                position = HEADER_SIZE;
+            }
+        }
+
+        return position;
+    }
+
+    // Passes each good batch from position on to reader and returns where
+    // the good batches end
+    private static long readBatches(FileChannel channel, long position, BatchReader reader) throws IOException {
+        long size = channel.size();
+        boolean valid = true;
+        ByteBuffer word = ByteBuffer.allocate(Integer.BYTES);
+
+        while (valid && position > 0 && position + Integer.BYTES <= size) {
+            word.clear();
+            channel.read(word, position);
+            int length = word.flip().getInt();
+            valid = length > 0 && position + Integer.BYTES + length + Integer.BYTES <= size;
+
+            if (valid) {
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                channel.read(payload, position + Integer.BYTES);
+                word.clear();
+                channel.read(word, position + Integer.BYTES + length);
+                CRC32C crc = new CRC32C();
+                crc.update(payload.array());
+                valid = (int) crc.getValue() == word.flip().getInt();
+
+                if (valid) {
+                    reader.read(new DataInputStream(new ByteArrayInputStream(payload.array())));
+                    position += Integer.BYTES + length + Integer.BYTES;
+                }
+            }
+        }
+
+        return position;
+    }
+
+    private static boolean writeChanges(DataOutputStream out, HeroState before, HeroState after,
+            SaveCodec codec) throws IOException {
+        boolean changed = false;
+
+        for (int i = 0; i < after.stats.length; i++) {
+            if (after.stats[i] != before.stats[i]) {
+                out.writeByte(STAT);
+                out.writeByte(i);
+                out.writeInt(after.stats[i]);
+                changed = true;
+            }
+        }
+        if (after.location != before.location || after.posX != before.posX || after.posY != before.posY) {
+            out.writeByte(LOCATION);
+            out.writeByte(after.location.ordinal());
+            out.writeDouble(after.posX);
+            out.writeDouble(after.posY);
+            changed = true;
+        }
+        if (after.weapon != before.weapon) {
+            out.writeByte(WEAPON);
+            codec.writeItem(out, after.weapon);
+            changed = true;
+        }
+        if (after.armor != before.armor) {
+            out.writeByte(ARMOR);
+            codec.writeItem(out, after.armor);
+            changed = true;
+        }
+        if (!sameItems(after, before)) {
+            out.writeByte(ITEMS);
+            codec.writeInventory(out, after.inventory);
+            changed = true;
+        }
+        if (!sameTasks(after, before)) {
+            out.writeByte(TASKS);
+            codec.writeTasks(out, after.tasks, after.taskStates);
+            codec.writeTasks(out, after.completed, after.completedStates);
+            changed = true;
+        }
+        if (after.classes != before.classes) {
+            out.writeByte(CLASSES);
+            codec.writeClasses(out, after.classes);
+            changed = true;
+        }
+        if (after.playTime != before.playTime) {
+            out.writeByte(PLAY_TIME);
+            out.writeLong(after.playTime);
+            changed = true;
+        }
+
+        return changed;
+    }
+
+    private static void applyChanges(DataInputStream in, Hero hero, SaveCodec codec) throws IOException {
+        byte tag = in.readByte();
+
+        while (tag != END) {
+            switch (tag) {
+                case STAT:
+                    setStat(hero, in.readUnsignedByte(), in.readInt());
+                    break;
+                case LOCATION:
+                    Hero.Location[] locations = Hero.Location.values();
+                    int location = in.readUnsignedByte();
+                    hero.setLastLocation(location < locations.length ? locations[location] : Hero.Location.UNKNOWN);
+                    hero.setLastPosX(in.readDouble());
+                    hero.setLastPosY(in.readDouble());
+                    break;
+                case WEAPON:
+                    hero.setActualWeapon((Weapon) codec.readItem(in));
+                    break;
+                case ARMOR:
+                    hero.setArmor((Armor) codec.readItem(in));
+                    break;
+                case ITEMS:
+                    hero.setInventory(codec.readInventory(in));
+                    break;
+                case TASKS:
+                    codec.readTasks(in, hero);
+                    break;
+                case CLASSES:
+                    hero.setUnlockedClasses(codec.readClasses(in));
+                    break;
+                case PLAY_TIME:
+                    hero.setPlayTime(in.readLong());
+                    break;
+                default:
+                    throw new StreamCorruptedException("Unknown journal record " + tag);
+            }
+            tag = in.readByte();
+        }
+    }
+
+    // Same records, keeping what a summary shows and skipping the rest
+    private static void applyChanges(DataInputStream in, SaveCodec.Summary summary) throws IOException {
+        byte tag = in.readByte();
+
+        while (tag != END) {
+            switch (tag) {
+                case STAT:
+                    int index = in.readUnsignedByte();
+                    int value = in.readInt();
+                    if (index == 5) {
+                        summary.setLevel(value);
+                    }
+                    break;
+                case LOCATION:
+                    summary.setLocation(SaveCodec.readLocation(in));
+                    in.readDouble();
+                    in.readDouble();
+                    break;
+                case WEAPON:
+                case ARMOR:
+                    SaveCodec.skipItem(in);
+                    break;
+                case ITEMS:
+                    SaveCodec.skipInventory(in);
+                    break;
+                case TASKS:
+                    for (int list = 0; list < 2; list++) {
+                        int count = in.readInt();
+                        for (int i = 0; i < count; i++) {
+                            SaveCodec.skipTask(in);
+                        }
+                    }
+                    break;
+                case CLASSES:
+                    SaveCodec.skipClasses(in);
+                    break;
+                case PLAY_TIME:
+                    summary.setPlayTime(in.readLong());
+                    break;
+                default:
+                    throw new StreamCorruptedException("Unknown journal record " + tag);
+            }
+            tag = in.readByte();
+        }
+    }
+
+    // Same order as HeroState.stats
+    private static void setStat(Hero hero, int index, int value) throws IOException {
+        switch (index) {
+            case 0:
+                hero.setExpMax(value);
+                break;
+            case 1:
+                hero.setExpActual(value);
+                break;
+            case 2:
+                hero.setAttack(value);
+                break;
+            case 3:
+                hero.setMagic(value);
+                break;
+            case 4:
+                hero.setDefense(value);
+                break;
+            case 5:
+                hero.setLevel(value);
+                break;
+            case 6:
+                hero.setLife(value);
+                break;
+            case 7:
+                hero.setActualLife(value);
+                break;
+            case 8:
+                hero.setMoney(value);
+                break;
+            case 9:
+                hero.setDefeatedMonsters(value);
+                break;
+            default:
+                throw new StreamCorruptedException("Unknown stat " + index);
+        }
+    }
+
+    private static boolean sameItems(HeroState a, HeroState b) {
+        boolean same = a.items.length == b.items.length;
+        for (int i = 0; i < a.items.length && same; i++) {
+            same = a.items[i] == b.items[i] && a.quantities[i] == b.quantities[i];
+        }
+        return same;
+    }
+
+    private static boolean sameTasks(HeroState a, HeroState b) {
+        boolean same = a.tasks.length == b.tasks.length && a.completed.length == b.completed.length;
+        for (int i = 0; i < a.tasks.length && same; i++) {
+            same = a.tasks[i] == b.tasks[i] && a.taskStates[i] == b.taskStates[i];
+        }
+        for (int i = 0; i < a.completed.length && same; i++) {
+            same = a.completed[i] == b.completed[i] && a.completedStates[i] == b.completedStates[i];
+        }
+        return same;
+    }
+
+    // What the journal compares between appends. Items and tasks are
+    // compared by identity, as they come from the Game catalogs, and classes
+    // by their immutable snapshot, which changes with every unlock
+    private static class HeroState {
+
+        private final Hero hero;
+        private final int[] stats;
+        private final Hero.Location location;
+        private final double posX;
+        private final double posY;
+        private final Weapon weapon;
+        private final Armor armor;
+        private final Inventory inventory;
+        private final Item[] items;
+        private final int[] quantities;
+        private final Task[] tasks;
+        private final boolean[] taskStates;
+        private final Task[] completed;
+        private final boolean[] completedStates;
+        private final PersistentGeneralTree<Classes> classes;
+        private final long playTime;
+
+        HeroState(Hero owner, Hero hero) {
+            this.hero = owner;
+            this.stats = new int[]{hero.getExpMax(), hero.getExpActual(), hero.getAttack(), hero.getMagic(),
+                hero.getDefense(), hero.getLevel(), hero.getLife(), hero.getActualLife(), hero.getMoney(),
+                hero.getDefeatedMonsters()};
+            this.location = hero.getLastLocation();
+            this.posX = hero.getLastPosX();
+            this.posY = hero.getLastPosY();
+            this.weapon = hero.getActualWeapon();
+            this.armor = hero.getArmor();
+            // Copied, stacks change in place
+            this.inventory = new Inventory(hero.getInventory());
+            List<ItemStack> stacks = inventory.getStacks();
+            this.items = new Item[stacks.size()];
+            this.quantities = new int[stacks.size()];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = stacks.get(i).getItem();
+                quantities[i] = stacks.get(i).getQuantity();
+            }
+            this.tasks = hero.getTasks().toArray(new Task[0]);
+            this.taskStates = hero.getTaskStates();
+            this.completed = hero.getCompletedTasks().toArray(new Task[0]);
+            this.completedStates = hero.getCompletedTaskStates();
+            this.classes = hero.getUnlockedClassesSnapshot();
+            this.playTime = hero.getPlayTime();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package Logic;
+
+import Characters.Hero;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.DoubleConsumer;
+import javafx.application.Platform;
+
+/*
+ * Saves and loads on a background thread so the JavaFX thread keeps
+ * drawing. Requests run one at a time in the order they were made.
+ * save and autoSave must be called on the JavaFX thread: they copy the hero
+ * there (Hero.snapshot) and the copy is what gets written. The returned
+ * futures complete on the JavaFX thread, so callbacks chained to them with
+ * the non-async methods can touch the scene and the game.
+ * Progress goes from 0 to 1 in a few coarse steps, also on the JavaFX thread.
+ */
+public class SaveService {
+
+    private static final Executor FX = Platform::runLater;
+
+    private final Game game;
+    private final ExecutorService worker;
+
+    public SaveService(Game game) {
+        this.game = game;
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "save-service");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public CompletableFuture<Boolean> save() {
+        return save(null);
+    }
+
+    public CompletableFuture<Boolean> save(DoubleConsumer progress) {
+        game.updatePlayTime();
+        Hero owner = game.getHero();
+        Hero snapshot = owner.snapshot();
+        report(progress, 0.0);
+        return publish(CompletableFuture.supplyAsync(() -> game.writeSaveGame(owner, snapshot), worker), progress);
+    }
+
+    public CompletableFuture<Boolean> autoSave() {
+        game.updatePlayTime();
+        Hero owner = game.getHero();
+        Hero snapshot = owner.snapshot();
+        return publish(CompletableFuture.supplyAsync(() -> game.autoSave(owner, snapshot), worker), null);
+    }
+
+    // Writes the hero to a slot of the save archive instead of the main save
+    public CompletableFuture<Boolean> saveToSlot(int slot) {
+        game.updatePlayTime();
+        Hero snapshot = game.getHero().snapshot();
+        return publish(CompletableFuture.supplyAsync(() -> game.saveToSlot(slot, snapshot), worker), null);
+    }
+
+    // Header of the save only, for menus. The game hero is not touched
+    public CompletableFuture<SaveCodec.Summary> loadSummary() {
+        return publish(CompletableFuture.supplyAsync(game::loadSaveSummary, worker), null);
+    }
+
+    // The loaded hero becomes the game hero on the JavaFX thread, before the
+    // future completes
+    public CompletableFuture<Hero> load() {
+        return load(null);
+    }
+
+    public CompletableFuture<Hero> load(DoubleConsumer progress) {
+        report(progress, 0.0);
+        CompletableFuture<Hero> read = CompletableFuture.supplyAsync(() -> {
+            Hero loaded = game.loadSaveGame();
+            report(progress, 0.5);
+            return loaded;
+        }, worker);
+        return publish(read.thenApplyAsync(loaded -> {
+            game.setHero(loaded);
+            return loaded;
+        }, FX), progress);
+    }
+
+    // Like load, from a slot of the save archive. An empty slot leaves the
+    // game hero as it was and completes with null
+    public CompletableFuture<Hero> loadFromSlot(int slot) {
+        CompletableFuture<Hero> read = CompletableFuture.supplyAsync(() -> game.loadSlotGame(slot), worker);
+        return publish(read.thenApplyAsync(loaded -> {
+            if (loaded != null) {
+                game.setHero(loaded);
+            }
+            return loaded;
+        }, FX), null);
+    }
+
+    // Lets the requests already made finish, then stops the thread
+    public void shutdown() {
+        worker.shutdown();
+    }
+
+    private static <T> CompletableFuture<T> publish(CompletableFuture<T> work, DoubleConsumer progress) {
+        return work.whenCompleteAsync((result, error) -> {
+            if (progress != null && error == null) {
+                progress.accept(1.0);
+            }
+        }, FX);
+    }
+
+    private static void report(DoubleConsumer progress, double done) {
+        if (progress != null) {
+            if (Platform.isFxApplicationThread()) {
+                progress.accept(done);
+            } else {
+                Platform.runLater(() -> progress.accept(done));
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package Misc;
+
+import Tree.BinaryTreeNode;
+import Tree.AugmentedGeneralTree;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Locale;
+
+// Class tree with a case-insensitive id -> node index kept in sync with the tree
+public class ClassTree extends AugmentedGeneralTree<Classes> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private transient HashMap<String, BinaryTreeNode<Classes>> ids;
+
+    public ClassTree() {
+        super();
+    }
+
+    public ClassTree(BinaryTreeNode<Classes> root) {
+        super(root);
+    }
+
+    public BinaryTreeNode<Classes> findById(String id) {
+        BinaryTreeNode<Classes> node = null;
+        if (id != null && ids != null) {
+            node = ids.get(key(id));
+        }
+        return node;
+    }
+
+    public boolean containsId(String id) {
+        return findById(id) != null;
+    }
+
+    @Override
+    protected void indexCleared() {
+        ids = new HashMap<>();
+    }
+
+    @Override
+    protected void nodeIndexed(BinaryTreeNode<Classes> node) {
+        Classes c = node.getInfo();
+        if (c != null && c.getId() != null) {
+            ids.putIfAbsent(key(c.getId()), node);
+        }
+    }
+
+    @Override
+    protected void nodeUnindexed(BinaryTreeNode<Classes> node) {
+        Classes c = node.getInfo();
+        if (c != null && c.getId() != null) {
+            ids.remove(key(c.getId()), node);
+        }
+    }
+
+    private static String key(String id) {
+        return id.toLowerCase(Locale.ROOT);
+    }
+}
@@ -56,6 +56,7 @@ public class MainScreen extends GameApplication {
     private double volumeSetting = 0.7;
     private MediaPlayer bgMusic;
     private boolean configOpen = false;
+    private boolean saveBusy = false;
     private static final double CURSOR_UP_OFFSET = 8.0;
     private GameMapScreen currentMapScreen;
     private static final int DURACION_CARGA_MS = 600;
@@ -155,7 +156,7 @@ public class MainScreen extends GameApplication {
             if (n instanceof Button) {
                 Button b = (Button) n;
                 if ("Continuar".equals(b.getText())) {
-                    boolean saveExists = (game != null && game.getSave() != null && game.getSave().exists());
+                    boolean saveExists = (game != null && game.hasSaveGame());
                     b.setDisable(!saveExists);
                     if (b.isDisable()) {
                         b.setStyle("-fx-background-color: rgba(80,80,80,0.5); -fx-text-fill: rgba(200,200,200,0.7);");
@@ -351,10 +352,7 @@ public class MainScreen extends GameApplication {
             deleteBtn.setOnAction(e -> {
                 boolean deleted = false;
                 if (game != null && game.getSave() != null) {
-                    File saveFile = game.getSave();
-                    if (saveFile.exists()) {
-                        deleted = saveFile.delete();
-                    }
+                    deleted = game.deleteSaveGame();
                 }
                 if (!deleted && game != null && game.getArchives() != null) {
                     File arch = game.getArchives();
@@ -394,7 +392,7 @@ public class MainScreen extends GameApplication {
                 for (Node n : menuBox.getChildren()) {
                     if (n instanceof Button) {
                         Button b = (Button) n;
-                        boolean saveExists = (game != null && game.getSave() != null && game.getSave().exists());
+                        boolean saveExists = (game != null && game.hasSaveGame());
                         if ("Continuar".equals(b.getText())) {
                             b.setDisable(!saveExists);
                             if (b.isDisable()) {
@@ -517,8 +515,33 @@ public class MainScreen extends GameApplication {
         }
     }
 
+    private void resumeGame() {
+        game.getSaveService().load().whenComplete((loaded, error) -> {
+            saveBusy = false;
+            if (error == null && loaded != null) {
+                stopBackgroundMusic();
+                showLoadingThenMap();
+            } else {
+                showLoadError();
+            }
+        });
+    }
+
+    private void showLoadError() {
+        a = new Alert(Alert.AlertType.ERROR);
+        a.setTitle("No se pudo iniciar la partida");
+        a.setHeaderText("Incorrecto");
+        a.setContentText("Error ");
+        a.showAndWait();
+    }
+
+    private static String formatPlayTime(long millis) {
+        long minutes = millis / 60000;
+        return String.format("%d:%02d", minutes / 60, minutes % 60);
+    }
+
     private void activateSelected() {
-        if (configOpen) {
+        if (configOpen || saveBusy) {
             return;
         }
         String sel = labels[selectedIndex];
@@ -541,54 +564,58 @@ public class MainScreen extends GameApplication {
         st.play();
         switch (sel) {
             case "Continuar":
-                if (game.getSave().exists()) {
-                    boolean correct = game.readSaveGame();
-                    a = new Alert(Alert.AlertType.INFORMATION);
-                    if (correct) {
-                        a.setHeaderText("Partida Iniciada");
-                        a.setTitle("Iniciada la partida correctamente");
-                        a.setContentText("La partida se ha cargado correctamente: " + game.getHero().getName());
-                        a.showAndWait();
-                        stopBackgroundMusic();
-                        showLoadingThenMap();
-
-                    } else {
-                        a.setAlertType(Alert.AlertType.ERROR);
-                        a.setTitle("No se pudo iniciar la partida");
-                        a.setHeaderText("Incorrecto");
-                        a.setContentText("Error ");
-                        a.showAndWait();
-                    }
+                if (game.hasSaveGame()) {
+                    saveBusy = true;
+                    // Only the save header is read for the dialog; the hero
+                    // is loaded once the game resumes. Both off the FX thread
+                    game.getSaveService().loadSummary().whenComplete((summary, error) -> {
+                        if (error == null && summary != null) {
+                            a = new Alert(Alert.AlertType.INFORMATION);
+                            a.setHeaderText("Partida Iniciada");
+                            a.setTitle("Iniciada la partida correctamente");
+                            a.setContentText("Continuar la partida de " + summary.getHeroName()
+                                    + "\nNivel " + summary.getLevel()
+                                    + "\nTiempo de juego: " + formatPlayTime(summary.getPlayTime()));
+                            a.showAndWait();
+                            resumeGame();
+                        } else {
+                            saveBusy = false;
+                            showLoadError();
+                        }
+                    });
                 }
                 break;
             case "Nueva Partida":
                 String name = showNewGameDialog();
                 if (name != null) {
                     game.createHero(name);
-                    boolean cor = game.createSaveGame();
-                    a = new Alert(Alert.AlertType.INFORMATION);
-                    if (cor) {
-                        a.setHeaderText("Partida Creada");
-                        a.setTitle("Creada la partida correctamente");
-                        a.setContentText("Creada la partida con nombre: " + name);
-                        a.showAndWait();
-                        for (Node n : menuBox.getChildren()) {
-                            if (n instanceof Button) {
-                                Button b = (Button) n;
-                                if ("Continuar".equals(b.getText())) {
-                                    b.setDisable(false);
-                                    b.setStyle("-fx-background-color: rgba(0,0,0,0.6); -fx-text-fill: white; -fx-background-radius: 6; -fx-padding: 8 12 8 12;");
+                    saveBusy = true;
+                    game.getSaveService().save().whenComplete((cor, error) -> {
+                        saveBusy = false;
+                        a = new Alert(Alert.AlertType.INFORMATION);
+                        if (error == null && cor) {
+                            a.setHeaderText("Partida Creada");
+                            a.setTitle("Creada la partida correctamente");
+                            a.setContentText("Creada la partida con nombre: " + name);
+                            a.showAndWait();
+                            for (Node n : menuBox.getChildren()) {
+                                if (n instanceof Button) {
+                                    Button b = (Button) n;
+                                    if ("Continuar".equals(b.getText())) {
+                                        b.setDisable(false);
+                                        b.setStyle("-fx-background-color: rgba(0,0,0,0.6); -fx-text-fill: white; -fx-background-radius: 6; -fx-padding: 8 12 8 12;");
+                                    }
                                 }
                             }
+                            updateCursorSmooth();
+                        } else {
+                            a.setAlertType(Alert.AlertType.ERROR);
+                            a.setTitle("No se pudo crear la partida");
+                            a.setHeaderText("Incorrecto");
+                            a.setContentText("Error ");
+                            a.showAndWait();
                         }
-                        updateCursorSmooth();
-                    } else {
-                        a.setAlertType(Alert.AlertType.ERROR);
-                        a.setTitle("No se pudo crear la partida");
-                        a.setHeaderText("Incorrecto");
-                        a.setContentText("Error ");
-                        a.showAndWait();
-                    }
+                    });
                 }
                 break;
             case "Configuración":
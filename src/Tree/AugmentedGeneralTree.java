@@ -0,0 +1,209 @@
+package Tree;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Indexed general tree where every node caches the size, height and number
+ * of leaves of its subtree. insertNode, insertAsFirstSon and deleteNode
+ * update only the path from the touched father up to the root, so
+ * totalNodes, treeHeight and leafCount are answered without a traversal.
+ * Sizes and leaves of the root brothers are added up in totalNodes and
+ * leafCount, treeHeight only looks at the root like the GeneralTree one.
+ */
+public class AugmentedGeneralTree<E> extends IndexedGeneralTree<E> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public AugmentedGeneralTree() {
+		super();
+	}
+
+	public AugmentedGeneralTree(BinaryTreeNode<E> root) {
+		super(root);
+	}
+
+	public AugmentedGeneralTree(List<Tree<E>> trees) {
+		super(trees);
+	}
+
+	@Override
+	public void reindex() {
+		super.reindex();
+
+		BinaryTreeNode<E> cursor = (BinaryTreeNode<E>) root;
+		while (cursor != null) {
+			computeSubTree(cursor);
+			cursor = cursor.getRight();
+		}
+	}
+
+	public int subTreeSize(BinaryTreeNode<E> node) {
+		return contains(node) ? node.size : 0;
+	}
+
+	public int subTreeHeight(BinaryTreeNode<E> node) {
+		return contains(node) ? node.height : -1;
+	}
+
+	public int subTreeLeaves(BinaryTreeNode<E> node) {
+		return contains(node) ? node.leaves : 0;
+	}
+
+	public int leafCount() {
+		int count = 0;
+
+		BinaryTreeNode<E> cursor = (BinaryTreeNode<E>) root;
+		while (cursor != null) {
+			count += cursor.leaves;
+			cursor = cursor.getRight();
+		}
+
+		return count;
+	}
+
+	@Override
+	public int treeHeight() {
+		return isEmpty() ? -1 : ((BinaryTreeNode<E>) root).height;
+	}
+
+	@Override
+	public boolean insertNode(BinaryTreeNode<E> node, BinaryTreeNode<E> father) {
+		boolean wasLeaf = father != null && father.getLeft() == null;
+		boolean inserted = super.insertNode(node, father);
+
+		if (inserted) {
+			int addedSize = 0;
+			int addedLeaves = 0;
+
+			BinaryTreeNode<E> cursor = node;
+			while (cursor != null) {
+				computeSubTree(cursor);
+				addedSize += cursor.size;
+				addedLeaves += cursor.leaves;
+				cursor = cursor.getRight();
+			}
+
+			if (father != null)
+				propagate(father, addedSize, wasLeaf ? addedLeaves - 1 : addedLeaves);
+		}
+
+		return inserted;
+	}
+
+	@Override
+	public boolean insertAsFirstSon(BinaryTreeNode<E> node,
+			BinaryTreeNode<E> father) {
+		boolean wasLeaf = father != null && father.getLeft() == null;
+		boolean founded = super.insertAsFirstSon(node, father);
+
+		if (founded) {
+			int addedSize = 0;
+			int addedLeaves = 0;
+
+			// on a leaf father the whole brothers chain of node was hung
+			BinaryTreeNode<E> cursor = node;
+			while (cursor != null) {
+				computeSubTree(cursor);
+				addedSize += cursor.size;
+				addedLeaves += cursor.leaves;
+				cursor = wasLeaf ? cursor.getRight() : null;
+			}
+
+			propagate(father, addedSize, wasLeaf ? addedLeaves - 1 : addedLeaves);
+		}
+
+		return founded;
+	}
+
+	@Override
+	public E deleteNode(BinaryTreeNode<E> node) {
+		BinaryTreeNode<E> father = getFather(node);
+		int removedSize = subTreeSize(node);
+		int removedLeaves = subTreeLeaves(node);
+		boolean indexed = contains(node);
+
+		E info = super.deleteNode(node);
+
+		// a null info does not tell a missing node from one holding null
+		if (indexed && !contains(node) && father != null)
+			propagate(father, -removedSize,
+					father.getLeft() == null ? 1 - removedLeaves : -removedLeaves);
+
+		return info;
+	}
+
+	// Adds the deltas from father to the root, heights are recomputed
+	// only while they keep changing
+	private void propagate(BinaryTreeNode<E> father, int sizeDelta, int leavesDelta) {
+		boolean heightChanged = true;
+
+		while (father != null) {
+			father.size += sizeDelta;
+			father.leaves += leavesDelta;
+
+			if (heightChanged) {
+				int height = sonsHeight(father);
+				heightChanged = height != father.height;
+				father.height = height;
+			}
+
+			father = getFather(father);
+		}
+	}
+
+	private int sonsHeight(BinaryTreeNode<E> node) {
+		int height = 0;
+
+		BinaryTreeNode<E> son = node.getLeft();
+		while (son != null) {
+			if (son.height + 1 > height)
+				height = son.height + 1;
+			son = son.getRight();
+		}
+
+		return height;
+	}
+
+	// Fills the metadata of node and its descendants (not its brothers).
+	// Fathers come before their sons in the list, so walking it backwards
+	// every son is done before its father
+	private void computeSubTree(BinaryTreeNode<E> node) {
+		ArrayList<BinaryTreeNode<E>> order = new ArrayList<BinaryTreeNode<E>>();
+		ArrayDeque<BinaryTreeNode<E>> pending = new ArrayDeque<BinaryTreeNode<E>>();
+
+		order.add(node);
+		if (node.getLeft() != null)
+			pending.push(node.getLeft());
+
+		while (!pending.isEmpty()) {
+			BinaryTreeNode<E> son = pending.pop();
+
+			while (son != null) {
+				order.add(son);
+				if (son.getLeft() != null)
+					pending.push(son.getLeft());
+				son = son.getRight();
+			}
+		}
+
+		for (int i = order.size() - 1; i >= 0; i--) {
+			BinaryTreeNode<E> current = order.get(i);
+			BinaryTreeNode<E> son = current.getLeft();
+
+			current.size = 1;
+			current.height = 0;
+			current.leaves = (son == null) ? 1 : 0;
+
+			while (son != null) {
+				current.size += son.size;
+				current.leaves += son.leaves;
+				if (son.height + 1 > current.height)
+					current.height = son.height + 1;
+				son = son.getRight();
+			}
+		}
+	}
+}
@@ -2,6 +2,7 @@ package Tree;
 
 
 import java.io.Serializable; 
+import java.util.ArrayDeque; 
 import java.util.ArrayList; 
 import java.util.List; 
 
@@ -22,14 +23,30 @@ Serializable{
 		this.root = root; 
 	} 
 
+	// Level by level so skewed trees do not overflow the stack 
 	protected int level(BinaryTreeNode<E> cursor) { 
+		int level = -1; 
+
 		if (cursor != null) { 
-			int levelLST = level(cursor.getLeft()); 
-			int levelRST = level(cursor.getRight()); 
-			return ((levelLST >= levelRST) ? levelLST : 
-				levelRST) + 1; 
+			ArrayDeque<BinaryTreeNode<E>> deque = new 
+					ArrayDeque<BinaryTreeNode<E>>(); 
+			deque.add(cursor); 
+
+			while (!deque.isEmpty()) { 
+				level++; 
+
+				for (int i = deque.size(); i > 0; i--) { 
+					BinaryTreeNode<E> node = deque.poll(); 
+
+					if (node.getLeft() != null) 
+						deque.add(node.getLeft()); 
+					if (node.getRight() != null) 
+						deque.add(node.getRight()); 
+				} 
+			} 
 		} 
-		return -1; 
+
+		return level; 
 	} 
 
 	public int treeLevel() { 
@@ -41,12 +58,35 @@ Serializable{
 		return level; 
 	} 
 
+	// One breadth pass instead of a getFather scan per level 
 	public int nodeLevel(TreeNode<E> node) { 
-		if (node != null) { 
-			return node.equals(root) ? 0 : 
-				nodeLevel(getFather((BinaryTreeNode<E>)node)) + 1; 
+		int level = -1; 
+
+		if (node != null && root != null) { 
+			ArrayDeque<BinaryTreeNode<E>> deque = new 
+					ArrayDeque<BinaryTreeNode<E>>(); 
+			deque.add((BinaryTreeNode<E>) root); 
+			int current = -1; 
+
+			while (!deque.isEmpty() && level == -1) { 
+				current++; 
+
+				for (int i = deque.size(); i > 0 && level == -1; i--) { 
+					BinaryTreeNode<E> cursor = deque.poll(); 
+
+					if (cursor.equals(node)) 
+						level = current; 
+					else { 
+						if (cursor.getLeft() != null) 
+							deque.add(cursor.getLeft()); 
+						if (cursor.getRight() != null) 
+							deque.add(cursor.getRight()); 
+					} 
+				} 
+			} 
 		} 
-		return -1; 
+
+		return level; 
 	}   
 
 	public E deleteNode(BinaryTreeNode<E> node) { 
@@ -116,7 +156,7 @@ node, treeA);
 
 		if (node != null && !node.equals(root)) {   
 
-			PreorderIterator<E> iterator = preOrderIterator(); 
+			FastPreorderIterator<E> iterator = fastPreOrderIterator(); 
 
 			boolean stop = false; 
 
@@ -139,7 +179,7 @@ node, treeA);
 		List<TreeNode<E>> leavesList = new 
 				ArrayList<TreeNode<E>>(); 
 
-		PreorderIterator<E> iterator = preOrderIterator(); 
+		FastPreorderIterator<E> iterator = fastPreOrderIterator(); 
 
 		while(iterator.hasNext()){ 
 			BinaryTreeNode<E> node = iterator.nextNode(); 
@@ -153,32 +193,6 @@ node, treeA);
 		return leavesList; 
 	} 
 
-	private void getNodeSubTree(BinaryTreeNode<E> root, BinaryTreeNode<E> node, BinaryTree<E> tree) { 
-		if (root != null && !root.equals(node)) { 
-			BinaryTreeNode<E> cursor = new 
-					BinaryTreeNode<E>(root.getInfo()); 
-
-			if (root.getLeft() != null && 
-					!root.getLeft().equals(node)) { 
-				getNodeSubTree(root.getLeft(), node, tree); 
-				cursor.setLeft((BinaryTreeNode<E>) 
-						tree.getRoot()); 
-			} else { 
-				cursor.setLeft(null); 
-			} 
-			if (root.getRight() != null && 
-					root.getRight().equals(node)) { 
-				getNodeSubTree(root.getRight(), node, tree); 
-				cursor.setRight((BinaryTreeNode<E>) 
-						tree.getRoot()); 
-			} else { 
-				cursor.setRight(null); 
-			} 
-
-			tree.setRoot(cursor); 
-		} 
-	} 
-
 	public List<BinaryTreeNode<E>> getSons(BinaryTreeNode<E> 
 	node) { 
 		List<BinaryTreeNode<E>> sons = new 
@@ -199,7 +213,7 @@ node, treeA);
 		BinaryTree<E> tree = null; 
 
 		if(node != null){ 
-			PreorderIterator<E> iter = preOrderIterator(); 
+			FastPreorderIterator<E> iter = fastPreOrderIterator(); 
 			boolean found = false; 
 
 			while(iter.hasNext() && !found){ 
@@ -222,26 +236,32 @@ node, treeA);
 		return tree; 
 	} 
 
+	// Copies the sons of srcFather below newFather with explicit stacks 
 	private void buildSubTree(BinaryTreeNode<E> srcFather, 
 			BinaryTreeNode<E> newFather){ 
-		if(srcFather.getLeft() != null){ 
-			BinaryTreeNode<E> newLeft = new 
-					BinaryTreeNode<E>(srcFather.getLeft().getInfo()); 
-
-			newFather.setLeft(newLeft); 
-
-			buildSubTree(srcFather.getLeft(), 
-					newFather.getLeft()); 
-		} 
-
-		if(srcFather.getRight() != null){ 
-			BinaryTreeNode<E> newRight = new 
-					BinaryTreeNode<E>(srcFather.getRight().getInfo()); 
-
-			newFather.setRight(newRight); 
+		ArrayDeque<BinaryTreeNode<E>> srcStack = new 
+				ArrayDeque<BinaryTreeNode<E>>(); 
+		ArrayDeque<BinaryTreeNode<E>> newStack = new 
+				ArrayDeque<BinaryTreeNode<E>>(); 
+
+		srcStack.push(srcFather); 
+		newStack.push(newFather); 
+
+		while(!srcStack.isEmpty()){ 
+			BinaryTreeNode<E> src = srcStack.pop(); 
+			BinaryTreeNode<E> copy = newStack.pop(); 
+
+			if(src.getLeft() != null){ 
+				copy.setLeft(new BinaryTreeNode<E>(src.getLeft().getInfo())); 
+				srcStack.push(src.getLeft()); 
+				newStack.push(copy.getLeft()); 
+			} 
 
-			buildSubTree(srcFather.getRight(), 
-					newFather.getRight()); 
+			if(src.getRight() != null){ 
+				copy.setRight(new BinaryTreeNode<E>(src.getRight().getInfo())); 
+				srcStack.push(src.getRight()); 
+				newStack.push(copy.getRight()); 
+			} 
 		} 
 	} 
 
@@ -258,7 +278,7 @@ node, treeA);
 				inserted = true; 
 			}  
 			else {         
-				PreorderIterator<E> iterator = preOrderIterator(); 
+				FastPreorderIterator<E> iterator = fastPreOrderIterator(); 
 				boolean existsFather = false; 
 				while(iterator.hasNext() && !existsFather){ 
 					BinaryTreeNode<E> currentNode = iterator.nextNode(); 
@@ -283,7 +303,7 @@ node, treeA);
 	public int totalNodes() {   
 		int count = 0; 
 
-		PreorderIterator<E> iterator = preOrderIterator(); 
+		FastPreorderIterator<E> iterator = fastPreOrderIterator(); 
 
 
 		while(iterator.hasNext()){ 
@@ -302,6 +322,12 @@ node, treeA);
 	public PosOrderIterator<E> posOrderIterator(){ 
 		return new PosOrderIterator<E>(this); 
 	} 
+	public FastPreorderIterator<E> fastPreOrderIterator(){ 
+		return new FastPreorderIterator<E>(this); 
+	} 
+	public FastPosOrderIterator<E> fastPosOrderIterator(){ 
+		return new FastPosOrderIterator<E>(this); 
+	} 
 	public boolean nodeIsLeaf(TreeNode<E> node) {   
 		return ((BinaryTreeNode<E>)node).getLeft() == null && 
 				((BinaryTreeNode<E>)node).getRight() == null; 
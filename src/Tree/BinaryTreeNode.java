@@ -7,6 +7,10 @@ public class BinaryTreeNode<E> extends TreeNode<E> implements Serializable {
 	private static final long serialVersionUID = 1L; 
 	protected BinaryTreeNode<E> left; 
 	protected BinaryTreeNode<E> right; 
+	// Subtree metadata, only kept up to date by AugmentedGeneralTree 
+	transient int size; 
+	transient int height; 
+	transient int leaves; 
 
 	public BinaryTreeNode() { 
 		this.info = null; 
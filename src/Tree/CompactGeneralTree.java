@@ -0,0 +1,205 @@
+package Tree;
+
+import java.util.ArrayDeque;
+import java.util.function.Predicate;
+
+/*
+ * Frozen, array backed copy of a GeneralTree for read-mostly content.
+ * Node i is described by parallel arrays (first son, right brother,
+ * father, subtree size and info) instead of a BinaryTreeNode object, and
+ * nodes are numbered in the order InDepthIterator visits them. So the
+ * depth traversal is a plain scan of the arrays and the subtree of i is
+ * the range [i, i + subTreeSize(i)). -1 stands for "no node".
+ * The tree cannot be modified; rebuild it with of() after changes.
+ */
+public final class CompactGeneralTree<E> {
+
+	private final int[] firstSon;
+	private final int[] rightBrother;
+	private final int[] father;
+	private final int[] size;
+	private final Object[] infos;
+	private int height;
+
+	private CompactGeneralTree(int nodes) {
+		firstSon = new int[nodes];
+		rightBrother = new int[nodes];
+		father = new int[nodes];
+		size = new int[nodes];
+		infos = new Object[nodes];
+		height = -1;
+	}
+
+	public static <E> CompactGeneralTree<E> of(GeneralTree<E> tree) {
+		int nodes = tree.isEmpty() ? 0 : tree.totalNodes();
+		CompactGeneralTree<E> built = new CompactGeneralTree<E>(nodes);
+		int[] lastSon = new int[nodes];
+		int lastRoot = -1;
+
+		ArrayDeque<BinaryTreeNode<E>> pending = new ArrayDeque<BinaryTreeNode<E>>();
+		IntStack fathers = new IntStack();
+		if (!tree.isEmpty()) {
+			pending.push((BinaryTreeNode<E>) tree.getRoot());
+			fathers.push(-1);
+		}
+
+		int index = 0;
+		while (!pending.isEmpty()) {
+			BinaryTreeNode<E> node = pending.pop();
+			int nodeFather = fathers.pop();
+
+			built.infos[index] = node.getInfo();
+			built.father[index] = nodeFather;
+			built.firstSon[index] = -1;
+			built.rightBrother[index] = -1;
+			built.size[index] = 1;
+			lastSon[index] = -1;
+
+			int previous = (nodeFather == -1) ? lastRoot : lastSon[nodeFather];
+			if (previous != -1)
+				built.rightBrother[previous] = index;
+			else if (nodeFather != -1)
+				built.firstSon[nodeFather] = index;
+
+			if (nodeFather == -1)
+				lastRoot = index;
+			else
+				lastSon[nodeFather] = index;
+
+			// right first so the whole left side is numbered before it
+			if (node.getRight() != null) {
+				pending.push(node.getRight());
+				fathers.push(nodeFather);
+			}
+			if (node.getLeft() != null) {
+				pending.push(node.getLeft());
+				fathers.push(index);
+			}
+
+			index++;
+		}
+
+		// sons always come after their father
+		for (int i = nodes - 1; i > 0; i--) {
+			if (built.father[i] != -1)
+				built.size[built.father[i]] += built.size[i];
+		}
+
+		// the root subtree is [0, size[0]), lastSon is reused for the levels
+		int[] levels = lastSon;
+		for (int i = 0; i < nodes && i < built.size[0]; i++) {
+			levels[i] = (i == 0) ? 0 : levels[built.father[i]] + 1;
+			if (levels[i] > built.height)
+				built.height = levels[i];
+		}
+
+		return built;
+	}
+
+	public boolean isEmpty() {
+		return infos.length == 0;
+	}
+
+	public int totalNodes() {
+		return infos.length;
+	}
+
+	// Height of the root subtree, like GeneralTree.treeHeight
+	public int treeHeight() {
+		return height;
+	}
+
+	@SuppressWarnings("unchecked")
+	public E getInfo(int node) {
+		return (E) infos[node];
+	}
+
+	public int getFather(int node) {
+		return father[node];
+	}
+
+	public int getFirstSon(int node) {
+		return firstSon[node];
+	}
+
+	public int getRightBrother(int node) {
+		return rightBrother[node];
+	}
+
+	public int subTreeSize(int node) {
+		return size[node];
+	}
+
+	public boolean nodeIsLeaf(int node) {
+		return firstSon[node] == -1;
+	}
+
+	public int nodeLevel(int node) {
+		int level = -1;
+
+		for (int cursor = node; cursor != -1; cursor = father[cursor])
+			level++;
+
+		return level;
+	}
+
+	public int nodeDegree(int node) {
+		int degree = 0;
+
+		for (int son = firstSon[node]; son != -1; son = rightBrother[son])
+			degree++;
+
+		return degree;
+	}
+
+	public int leafCount() {
+		int leaves = 0;
+
+		for (int i = 0; i < firstSon.length; i++) {
+			if (firstSon[i] == -1)
+				leaves++;
+		}
+
+		return leaves;
+	}
+
+	// First node in depth order whose info matches, -1 if none
+	public int indexOf(Predicate<? super E> condition) {
+		int found = -1;
+
+		for (int i = 0; i < infos.length && found == -1; i++) {
+			if (condition.test(getInfo(i)))
+				found = i;
+		}
+
+		return found;
+	}
+
+	// Mutable copy in first son / right brother layout
+	public GeneralTree<E> toGeneralTree() {
+		GeneralTree<E> tree = new GeneralTree<E>();
+
+		if (!isEmpty()) {
+			@SuppressWarnings("unchecked")
+			BinaryTreeNode<E>[] nodes = (BinaryTreeNode<E>[]) new BinaryTreeNode<?>[infos.length];
+			for (int i = infos.length - 1; i >= 0; i--) {
+				nodes[i] = new BinaryTreeNode<E>(getInfo(i));
+				if (firstSon[i] != -1)
+					nodes[i].setLeft(nodes[firstSon[i]]);
+				if (rightBrother[i] != -1)
+					nodes[i].setRight(nodes[rightBrother[i]]);
+			}
+			tree.setRoot(nodes[0]);
+		}
+
+		return tree;
+	}
+
+	public CompactInDepthIterator<E> inDepthIterator() {
+		return new CompactInDepthIterator<E>(this);
+	}
+
+	public CompactInBreadthIterator<E> inBreadthIterator() {
+		return new CompactInBreadthIterator<E>(this);
+	}
+}
@@ -0,0 +1,51 @@
+package Tree;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/*
+ * Breadth order over a CompactGeneralTree, same order as InBreadthIterator
+ * (brothers of the root are not visited). Only first sons are queued,
+ * brothers are followed through the rightBrother array.
+ * nextIndex() gives the node number instead of the info.
+ */
+public class CompactInBreadthIterator<E> implements Iterator<E> {
+	private CompactGeneralTree<E> tree;
+	private IntQueue queue;
+	private int nextNode;
+	private int currentNode;
+
+	public CompactInBreadthIterator(CompactGeneralTree<E> tree) {
+		this.tree = tree;
+		queue = new IntQueue();
+		nextNode = tree.isEmpty() ? -1 : 0;
+		currentNode = -1;
+	}
+
+	public boolean hasNext() {
+		return nextNode != -1;
+	}
+
+	public E next() {
+		return tree.getInfo(nextIndex());
+	}
+
+	public int nextIndex() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+
+		currentNode = nextNode;
+
+		if (tree.getFirstSon(currentNode) != -1)
+			queue.offer(tree.getFirstSon(currentNode));
+
+		if (currentNode != 0 && tree.getRightBrother(currentNode) != -1)
+			nextNode = tree.getRightBrother(currentNode);
+		else if (queue.isEmpty())
+			nextNode = -1;
+		else
+			nextNode = queue.poll();
+
+		return currentNode;
+	}
+}
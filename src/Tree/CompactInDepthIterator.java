@@ -0,0 +1,39 @@
+package Tree;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/*
+ * Depth order over a CompactGeneralTree, same order as InDepthIterator.
+ * Nodes are stored in that order, so it only walks the arrays.
+ * nextIndex() gives the node number instead of the info.
+ */
+public class CompactInDepthIterator<E> implements Iterator<E> {
+	private CompactGeneralTree<E> tree;
+	private int nextNode;
+	private int currentNode;
+
+	public CompactInDepthIterator(CompactGeneralTree<E> tree) {
+		this.tree = tree;
+		nextNode = 0;
+		currentNode = -1;
+	}
+
+	public boolean hasNext() {
+		return nextNode < tree.totalNodes();
+	}
+
+	public E next() {
+		return tree.getInfo(nextIndex());
+	}
+
+	public int nextIndex() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+
+		currentNode = nextNode;
+		nextNode++;
+
+		return currentNode;
+	}
+}
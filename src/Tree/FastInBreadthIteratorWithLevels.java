@@ -0,0 +1,83 @@
+package Tree;
+
+import java.util.ArrayDeque;
+
+/*
+ * Same order as InBreadthIteratorWithLevels without creating a BreadthNode
+ * per node: brothers are walked straight through getRight(), only the
+ * first son of each node is queued and its level goes in an IntQueue.
+ * getLevel() is the level of the node last returned.
+ * reset() restarts the traversal reusing both queues.
+ */
+public class FastInBreadthIteratorWithLevels<E> implements ITreeIterator<E> {
+	private ArrayDeque<BinaryTreeNode<E>> deque;
+	private IntQueue levels;
+	private BinaryTreeNode<E> currentNode;
+	private BinaryTreeNode<E> nextNode;
+	private int currentLevel;
+	private int nextLevel;
+	GeneralTree<E> tree;
+
+	public FastInBreadthIteratorWithLevels(GeneralTree<E> tree) {
+		this.tree = tree;
+		deque = new ArrayDeque<BinaryTreeNode<E>>();
+		levels = new IntQueue();
+		reset();
+	}
+
+	public void reset() {
+		deque.clear();
+		levels.clear();
+		currentNode = null;
+		currentLevel = -1;
+		nextNode = (BinaryTreeNode<E>) tree.getRoot();
+		nextLevel = 0;
+	}
+
+	public boolean hasNext() {
+		return nextNode != null;
+	}
+
+	public E next() {
+		E returnInfo = null;
+
+		BinaryTreeNode<E> current = nextNode();
+
+		if (current != null)
+			returnInfo = current.getInfo();
+
+		return returnInfo;
+	}
+
+	public BinaryTreeNode<E> nextNode() {
+		currentNode = nextNode;
+		currentLevel = nextLevel;
+
+		if (nextNode != null) {
+			if (nextNode.getLeft() != null) {
+				deque.offer(nextNode.getLeft());
+				levels.offer(nextLevel + 1);
+			}
+
+			// the brothers of the root are not part of the traversal
+			if (nextNode.getRight() != null && nextNode != tree.getRoot())
+				nextNode = nextNode.getRight();
+			else if (deque.isEmpty())
+				nextNode = null;
+			else {
+				nextNode = deque.poll();
+				nextLevel = levels.poll();
+			}
+		}
+
+		return currentNode;
+	}
+
+	public int getLevel() {
+		return currentLevel;
+	}
+
+	public void remove() {
+		tree.deleteNode(currentNode);
+	}
+}
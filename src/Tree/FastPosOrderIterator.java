@@ -0,0 +1,81 @@
+package Tree;
+
+import java.util.ArrayDeque;
+
+/*
+ * Same order as PosOrderIterator (left, right, node) using a plain node
+ * stack and the last visited node instead of counted StackNodes.
+ * reset() restarts the traversal reusing the stack.
+ */
+public class FastPosOrderIterator<E> implements ITreeIterator<E> {
+	private BinaryTreeNode<E> nextNode;
+	private BinaryTreeNode<E> currentNode;
+	private BinaryTreeNode<E> cursor;
+	private Tree<E> tree;
+	private ArrayDeque<BinaryTreeNode<E>> stack;
+
+	public FastPosOrderIterator(Tree<E> tree) {
+		this.tree = tree;
+		stack = new ArrayDeque<BinaryTreeNode<E>>();
+		reset();
+	}
+
+	public void reset() {
+		stack.clear();
+		currentNode = null;
+		cursor = (BinaryTreeNode<E>) tree.getRoot();
+		nextNode = advance(null);
+	}
+
+	public boolean hasNext() {
+		return nextNode != null;
+	}
+
+	public E next() {
+		E currentInfo = null;
+
+		BinaryTreeNode<E> current = nextNode();
+
+		if (current != null)
+			currentInfo = current.getInfo();
+
+		return currentInfo;
+	}
+
+	public BinaryTreeNode<E> nextNode() {
+		currentNode = nextNode;
+
+		if (nextNode != null)
+			nextNode = advance(nextNode);
+
+		return currentNode;
+	}
+
+	public void remove() {
+		if (currentNode != null)
+			tree.deleteNode(currentNode);
+	}
+
+	private BinaryTreeNode<E> advance(BinaryTreeNode<E> lastVisited) {
+		BinaryTreeNode<E> found = null;
+
+		while (found == null && (cursor != null || !stack.isEmpty())) {
+			if (cursor != null) {
+				stack.push(cursor);
+				cursor = cursor.getLeft();
+			}
+			else {
+				BinaryTreeNode<E> top = stack.peek();
+
+				if (top.getRight() != null && top.getRight() != lastVisited)
+					cursor = top.getRight();
+				else {
+					found = stack.pop();
+					lastVisited = found;
+				}
+			}
+		}
+
+		return found;
+	}
+}
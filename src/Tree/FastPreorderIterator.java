@@ -0,0 +1,65 @@
+package Tree;
+
+import java.util.ArrayDeque;
+
+/*
+ * Same order as PreorderIterator (node, left, right) but the stack keeps
+ * the pending right nodes themselves, so no StackNode is created per node.
+ * reset() restarts the traversal reusing the stack.
+ */
+public class FastPreorderIterator<E> implements ITreeIterator<E> {
+	private BinaryTreeNode<E> nextNode;
+	private BinaryTreeNode<E> currentNode;
+	private Tree<E> tree;
+	private ArrayDeque<BinaryTreeNode<E>> stack;
+
+	public FastPreorderIterator(Tree<E> tree) {
+		this.tree = tree;
+		stack = new ArrayDeque<BinaryTreeNode<E>>();
+		reset();
+	}
+
+	public void reset() {
+		stack.clear();
+		currentNode = null;
+		nextNode = (BinaryTreeNode<E>) tree.getRoot();
+	}
+
+	public boolean hasNext() {
+		return nextNode != null;
+	}
+
+	public E next() {
+		E currentInfo = null;
+
+		BinaryTreeNode<E> current = nextNode();
+
+		if (current != null)
+			currentInfo = current.getInfo();
+
+		return currentInfo;
+	}
+
+	public BinaryTreeNode<E> nextNode() {
+		currentNode = nextNode;
+
+		if (nextNode != null) {
+			if (nextNode.getLeft() != null) {
+				if (nextNode.getRight() != null)
+					stack.push(nextNode.getRight());
+				nextNode = nextNode.getLeft();
+			}
+			else if (nextNode.getRight() != null)
+				nextNode = nextNode.getRight();
+			else
+				nextNode = stack.poll();
+		}
+
+		return currentNode;
+	}
+
+	public void remove() {
+		if (currentNode != null)
+			tree.deleteNode(currentNode);
+	}
+}
@@ -3,6 +3,8 @@ package Tree;
 import java.io.Serializable; 
 import java.util.ArrayList; 
 import java.util.List; 
+import java.util.stream.Stream; 
+import java.util.stream.StreamSupport; 
 public class GeneralTree<E> extends Tree<E> implements Serializable {  
 	private static final long serialVersionUID = 1L; 
 
@@ -33,7 +35,7 @@ public class GeneralTree<E> extends Tree<E> implements Serializable {
 	public int totalNodes() { 
 		int count = 0; 
 
-		InDepthIterator<E> iterator = inDepthIterator();   
+		FastPreorderIterator<E> iterator = fastInDepthIterator();   
 
 		while(iterator.hasNext()){ 
 			iterator.next(); 
@@ -50,8 +52,8 @@ public class GeneralTree<E> extends Tree<E> implements Serializable {
 			if(node.equals(root)) 
 				root = null; 
 			else{ 
-				InDepthIterator<E> iterator = 
-						inDepthIterator(); 
+				FastPreorderIterator<E> iterator = 
+						fastInDepthIterator(); 
 
 				boolean foundedNode = false; 
 
@@ -107,7 +109,7 @@ public class GeneralTree<E> extends Tree<E> implements Serializable {
 		BinaryTreeNode<E> father = null; 
 
 		if (node != null && !isEmpty() || !root.equals(node)) { 
-			InDepthIterator<E> iterator = inDepthIterator(); 
+			FastPreorderIterator<E> iterator = fastInDepthIterator(); 
 
 			boolean foundedNode = false; 
 
@@ -157,7 +159,7 @@ cursor).getRight())){
 				ArrayList<TreeNode<E>>(); 
 
 		if (!isEmpty()) {        
-			InDepthIterator<E> iterator = inDepthIterator(); 
+			FastPreorderIterator<E> iterator = fastInDepthIterator(); 
 
 			while(iterator.hasNext()){ 
 				BinaryTreeNode<E> node = iterator.nextNode(); 
@@ -225,7 +227,7 @@ cursor).getRight())){
 			}  
 			else { 
 				if (father != null) {     
-					InDepthIterator<E> iterator = inDepthIterator(); 
+					FastPreorderIterator<E> iterator = fastInDepthIterator(); 
 					boolean stop = false; 
 					while(iterator.hasNext() && !stop){ 
 						BinaryTreeNode<E> iterNode = iterator.nextNode(); 
@@ -274,7 +276,7 @@ cursor).getRight())){
 		boolean founded = false; 
 
 		if(node != null && father != null){ 
-			InDepthIterator<E> iter = inDepthIterator(); 
+			FastPreorderIterator<E> iter = fastInDepthIterator(); 
 
 			while(iter.hasNext() && ! founded){ 
 				BinaryTreeNode<E> elem = iter.nextNode(); 
@@ -304,17 +306,17 @@ cursor).getRight())){
 			if(node.equals(root)) 
 				level = 0; 
 			else{ 
-				InBreadthIteratorWithLevels<E> iter = inBreadthIteratorWithLevels(); 
+				FastInBreadthIteratorWithLevels<E> iter = fastInBreadthIteratorWithLevels(); 
 
 				boolean found = false;    
 
 				while(iter.hasNext() && !found){ 
-					BreadthNode<E> cursor =  iter.nextNodeWithLevel(); 
+					BinaryTreeNode<E> cursor =  iter.nextNode(); 
 
-					if(cursor.getNode().equals(node)){ 
+					if(cursor.equals(node)){ 
 						found = true; 
 
-						level = cursor.getLevel(); 
+						level = iter.getLevel(); 
 					} 
 				} 
 			} 
@@ -349,8 +351,11 @@ cursor).getRight())){
 
 	private int rightBrotherCount(BinaryTreeNode<E> node) { 
 		int brother = 0; 
-		if (node.getRight() != null)  
-			brother = 1 + rightBrotherCount(node.getRight()); 
+		BinaryTreeNode<E> cursor = node.getRight(); 
+		while (cursor != null) { 
+			brother++; 
+			cursor = cursor.getRight(); 
+		} 
 		return brother; 
 	} 
 
@@ -367,18 +372,40 @@ cursor).getRight())){
 		return new InBreadthIteratorWithLevels<E>(this); 
 	} 
 
-	public int treeHeight() { 
-		int height = -1; 
-		InBreadthIteratorWithLevels<E> iter = 
-				inBreadthIteratorWithLevels(); 
+	public TreeSpliterator<E> spliterator(){ 
+		return TreeSpliterator.of(this); 
+	} 
+
+	public TreeSpliterator<E> spliterator(BinaryTreeNode<E> node){ 
+		return new TreeSpliterator<E>(this, node); 
+	} 
+
+	public Stream<E> stream(){ 
+		return StreamSupport.stream(spliterator(), false); 
+	} 
 
-		BreadthNode<E> lastNode = null; 
+	public Stream<E> parallelStream(){ 
+		return StreamSupport.stream(spliterator(), true); 
+	} 
+
+	public FastPreorderIterator<E> fastInDepthIterator(){ 
+		return new FastPreorderIterator<E>(this); 
+	} 
+
+	public FastInBreadthIteratorWithLevels<E> 
+	fastInBreadthIteratorWithLevels(){ 
+		return new FastInBreadthIteratorWithLevels<E>(this); 
+	} 
 
-		while(iter.hasNext()) 
-			lastNode = iter.nextNodeWithLevel(); 
+	public int treeHeight() { 
+		int height = -1; 
+		FastInBreadthIteratorWithLevels<E> iter = 
+				fastInBreadthIteratorWithLevels(); 
 
-		if(lastNode != null)  
-			height = lastNode.getLevel(); 
+		while(iter.hasNext()){ 
+			iter.nextNode(); 
+			height = iter.getLevel(); 
+		} 
 
 		return height; 
 	} 
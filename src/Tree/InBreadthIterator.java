@@ -18,7 +18,7 @@ public InBreadthIterator(GeneralTree<E> tree) {
  deque = new ArrayDeque<BinaryTreeNode<E>>(); 
   
  if(nextNode != null) 
-  deque.addAll(tree.getSons(nextNode)); 
+  addSons(nextNode); 
 } 
 
 public boolean hasNext() {  
@@ -38,7 +38,7 @@ public E next() {
    nextNode = deque.poll(); 
     
    if(!tree.nodeIsLeaf(nextNode)) 
-    deque.addAll(tree.getSons(nextNode)); 
+    addSons(nextNode); 
   } 
  } 
   
@@ -55,7 +55,7 @@ public BinaryTreeNode<E> nextNode(){
    nextNode = deque.poll(); 
     
    if(!tree.nodeIsLeaf(nextNode)) 
-    deque.addAll(tree.getSons(nextNode)); 
+    addSons(nextNode); 
   } 
  } 
   
@@ -66,4 +66,14 @@ public void remove() {
  tree.deleteNode(currentNode); 
 } 
 
+// walks the brothers chain instead of building a list with getSons 
+private void addSons(BinaryTreeNode<E> father){ 
+ BinaryTreeNode<E> son = father.getLeft(); 
+  
+ while(son != null){ 
+  deque.add(son); 
+  son = son.getRight(); 
+ } 
+} 
+
 } 
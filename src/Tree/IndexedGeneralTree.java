@@ -0,0 +1,328 @@
+package Tree;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/*
+ * General tree that keeps, next to the usual first son / right brother
+ * layout, an identity index node -> father. With it getFather, the
+ * membership check of insertNode/insertAsFirstSon and deleteNode no longer
+ * need to walk the whole tree with an InDepthIterator.
+ * Nodes hanging at the root level (brothers of the root) are indexed with
+ * a null father, the same answer getFather gives for them.
+ * If the nodes are linked by hand (setLeft/setRight) call reindex().
+ */
+public class IndexedGeneralTree<E> extends GeneralTree<E> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+	private transient IdentityHashMap<BinaryTreeNode<E>, BinaryTreeNode<E>> fathers;
+	// Level order cache, same order as InBreadthIterator. Null when stale
+	private transient ArrayList<BinaryTreeNode<E>> breadthOrder;
+
+	public IndexedGeneralTree() {
+		super();
+		reindex();
+	}
+
+	public IndexedGeneralTree(BinaryTreeNode<E> root) {
+		super(root);
+		reindex();
+	}
+
+	public IndexedGeneralTree(List<Tree<E>> trees) {
+		super(trees);
+		reindex();
+	}
+
+	public void reindex() {
+		fathers = new IdentityHashMap<BinaryTreeNode<E>, BinaryTreeNode<E>>();
+		breadthOrder = null;
+		indexCleared();
+
+		if (root != null)
+			indexBrothers((BinaryTreeNode<E>) root, null);
+	}
+
+	public boolean contains(BinaryTreeNode<E> node) {
+		return node != null && fathers.containsKey(node);
+	}
+
+	// Son indexes from the root down to node, as PersistentGeneralTree
+	// uses them. Null when node is not in the tree or hangs beside the root
+	public int[] pathOf(BinaryTreeNode<E> node) {
+		int[] path = null;
+
+		if (contains(node)) {
+			int depth = nodeLevel(node);
+			path = new int[depth];
+			BinaryTreeNode<E> cursor = node;
+
+			for (int i = depth - 1; i >= 0; i--) {
+				BinaryTreeNode<E> father = fathers.get(cursor);
+				int index = 0;
+				for (BinaryTreeNode<E> son = father.getLeft(); son != cursor; son = son.getRight())
+					index++;
+				path[i] = index;
+				cursor = father;
+			}
+
+			if (cursor != root)
+				path = null;
+		}
+
+		return path;
+	}
+
+	@Override
+	public void setRoot(TreeNode<E> root) {
+		super.setRoot(root);
+		reindex();
+	}
+
+	// n-th node visited by InBreadthIterator, null if out of range
+	public BinaryTreeNode<E> breadthNode(int n) {
+		BinaryTreeNode<E> node = null;
+		ArrayList<BinaryTreeNode<E>> order = breadthOrder();
+
+		if (n >= 0 && n < order.size())
+			node = order.get(n);
+
+		return node;
+	}
+
+	public int breadthIndex(BinaryTreeNode<E> node) {
+		int index = -1;
+
+		if (contains(node))
+			index = breadthOrder().indexOf(node);
+
+		return index;
+	}
+
+	private ArrayList<BinaryTreeNode<E>> breadthOrder() {
+		if (breadthOrder == null) {
+			ArrayList<BinaryTreeNode<E>> order = new ArrayList<BinaryTreeNode<E>>(fathers.size());
+
+			if (root != null)
+				order.add((BinaryTreeNode<E>) root);
+
+			// the list itself is the queue
+			for (int i = 0; i < order.size(); i++) {
+				BinaryTreeNode<E> son = order.get(i).getLeft();
+
+				while (son != null) {
+					order.add(son);
+					son = son.getRight();
+				}
+			}
+
+			breadthOrder = order;
+		}
+
+		return breadthOrder;
+	}
+
+	@Override
+	public int totalNodes() {
+		return fathers.size();
+	}
+
+	@Override
+	public BinaryTreeNode<E> getFather(BinaryTreeNode<E> node) {
+		BinaryTreeNode<E> father = null;
+
+		if (node != null)
+			father = fathers.get(node);
+
+		return father;
+	}
+
+	@Override
+	public int nodeLevel(TreeNode<E> node) {
+		int level = -1;
+
+		if (node != null && fathers.containsKey(node)) {
+			level = 0;
+			BinaryTreeNode<E> father = fathers.get(node);
+
+			while (father != null) {
+				level++;
+				father = fathers.get(father);
+			}
+		}
+
+		return level;
+	}
+
+	@Override
+	public boolean insertNode(BinaryTreeNode<E> node, BinaryTreeNode<E> father) {
+		boolean inserted = false;
+
+		if (node != null) {
+			if (isEmpty()) {
+				if (father == null) {
+					super.setRoot(node);
+					indexBrothers(node, null);
+					inserted = true;
+				}
+			}
+			else {
+				if (father == null) {
+					BinaryTreeNode<E> cursor = (BinaryTreeNode<E>) root;
+					while (cursor.getRight() != null)
+						cursor = cursor.getRight();
+					cursor.setRight(node);
+					indexBrothers(node, null);
+					inserted = true;
+				}
+				else if (fathers.containsKey(father)) {
+					BinaryTreeNode<E> cursor = father.getLeft();
+					if (cursor == null)
+						father.setLeft(node);
+					else {
+						while (cursor.getRight() != null)
+							cursor = cursor.getRight();
+						cursor.setRight(node);
+					}
+					indexBrothers(node, father);
+					inserted = true;
+				}
+			}
+		}
+
+		return inserted;
+	}
+
+	@Override
+	public boolean insertAsFirstSon(BinaryTreeNode<E> node,
+			BinaryTreeNode<E> father) {
+		boolean founded = false;
+
+		if (node != null && father != null && fathers.containsKey(father)) {
+			founded = true;
+
+			if (father.getLeft() == null) {
+				father.setLeft(node);
+				indexBrothers(node, father);
+			}
+			else {
+				node.setRight(father.getLeft());
+				father.setLeft(node);
+				indexSubTree(node, father);
+			}
+		}
+
+		return founded;
+	}
+
+	@Override
+	public E deleteNode(BinaryTreeNode<E> node) {
+		E info = null;
+
+		if (node != null && fathers.containsKey(node)) {
+			if (node == root) {
+				super.setRoot(null);
+				fathers.clear();
+				breadthOrder = null;
+				indexCleared();
+			}
+			else {
+				BinaryTreeNode<E> father = fathers.get(node);
+
+				if (father != null && father.getLeft() == node)
+					father.setLeft(node.getRight());
+				else {
+					BinaryTreeNode<E> prev = (father != null) ?
+							father.getLeft() : (BinaryTreeNode<E>) root;
+
+					while (prev.getRight() != node)
+						prev = prev.getRight();
+
+					prev.setRight(node.getRight());
+				}
+
+				unindexSubTree(node);
+			}
+
+			info = node.getInfo();
+		}
+
+		return info;
+	}
+
+	// Hooks for subclasses that keep their own index over the nodes
+	protected void indexCleared() {
+	}
+
+	protected void nodeIndexed(BinaryTreeNode<E> node) {
+	}
+
+	protected void nodeUnindexed(BinaryTreeNode<E> node) {
+	}
+
+	// Indexes node, its right brothers and all their descendants
+	private void indexBrothers(BinaryTreeNode<E> node, BinaryTreeNode<E> father) {
+		BinaryTreeNode<E> cursor = node;
+
+		while (cursor != null) {
+			indexSubTree(cursor, father);
+			cursor = cursor.getRight();
+		}
+	}
+
+	// Indexes node and its descendants, but not its right brothers
+	private void indexSubTree(BinaryTreeNode<E> node, BinaryTreeNode<E> father) {
+		fathers.put(node, father);
+		breadthOrder = null;
+		nodeIndexed(node);
+		ArrayDeque<BinaryTreeNode<E>> pending = new ArrayDeque<BinaryTreeNode<E>>();
+
+		if (node.getLeft() != null)
+			pending.push(node);
+
+		while (!pending.isEmpty()) {
+			BinaryTreeNode<E> parent = pending.pop();
+			BinaryTreeNode<E> son = parent.getLeft();
+
+			while (son != null) {
+				fathers.put(son, parent);
+				nodeIndexed(son);
+				if (son.getLeft() != null)
+					pending.push(son);
+				son = son.getRight();
+			}
+		}
+	}
+
+	private void unindexSubTree(BinaryTreeNode<E> node) {
+		fathers.remove(node);
+		breadthOrder = null;
+		nodeUnindexed(node);
+		ArrayDeque<BinaryTreeNode<E>> pending = new ArrayDeque<BinaryTreeNode<E>>();
+
+		if (node.getLeft() != null)
+			pending.push(node.getLeft());
+
+		while (!pending.isEmpty()) {
+			BinaryTreeNode<E> son = pending.pop();
+
+			while (son != null) {
+				fathers.remove(son);
+				nodeUnindexed(son);
+				if (son.getLeft() != null)
+					pending.push(son.getLeft());
+				son = son.getRight();
+			}
+		}
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		reindex();
+	}
+}
@@ -0,0 +1,42 @@
+package Tree;
+
+// Growable ring buffer of ints, used to carry levels without boxing
+class IntQueue {
+	private int[] values;
+	private int head;
+	private int size;
+
+	IntQueue() {
+		values = new int[16];
+		head = 0;
+		size = 0;
+	}
+
+	void offer(int value) {
+		if (size == values.length) {
+			int[] grown = new int[values.length * 2];
+			for (int i = 0; i < size; i++)
+				grown[i] = values[(head + i) % values.length];
+			values = grown;
+			head = 0;
+		}
+		values[(head + size) % values.length] = value;
+		size++;
+	}
+
+	int poll() {
+		int value = values[head];
+		head = (head + 1) % values.length;
+		size--;
+		return value;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	void clear() {
+		head = 0;
+		size = 0;
+	}
+}
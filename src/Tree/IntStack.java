@@ -0,0 +1,33 @@
+package Tree;
+
+// Growable stack of ints, used to carry indexes without boxing
+class IntStack {
+	private int[] values;
+	private int size;
+
+	IntStack() {
+		values = new int[16];
+		size = 0;
+	}
+
+	void push(int value) {
+		if (size == values.length) {
+			int[] grown = new int[values.length * 2];
+			System.arraycopy(values, 0, grown, 0, size);
+			values = grown;
+		}
+		values[size++] = value;
+	}
+
+	int pop() {
+		return values[--size];
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	void clear() {
+		size = 0;
+	}
+}
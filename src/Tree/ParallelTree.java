@@ -0,0 +1,159 @@
+package Tree;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/*
+ * Bulk operations over a subtree of a general tree run on the common
+ * ForkJoinPool. Visits and map are fork/join tasks that walk their
+ * subtree with a stack and only fork a son while the worker has few
+ * queued tasks left, so small trees do not pay for a task per node.
+ * They are CountedCompleters: nobody blocks in join, so a deep tree
+ * does not stack one task inside another.
+ * count, filter and forEach go through a parallel stream over
+ * TreeSpliterator.
+ * The tree must not be modified while an operation is running.
+ */
+public final class ParallelTree {
+
+	// Surplus of queued tasks under which a son is forked
+	private static final int SURPLUS = 3;
+
+	private ParallelTree() {
+	}
+
+	public static <E> void forEachNode(BinaryTreeNode<E> node,
+			Consumer<? super BinaryTreeNode<E>> action) {
+		if (node != null)
+			ForkJoinPool.commonPool().invoke(new VisitTask<E>(null, node, action));
+	}
+
+	public static <E> void forEach(GeneralTree<E> tree, BinaryTreeNode<E> node,
+			Consumer<? super E> action) {
+		StreamSupport.stream(new TreeSpliterator<E>(tree, node), true).forEach(action);
+	}
+
+	public static <E> long count(GeneralTree<E> tree, BinaryTreeNode<E> node,
+			Predicate<? super E> condition) {
+		return StreamSupport.stream(new TreeSpliterator<E>(tree, node), true)
+				.filter(condition).count();
+	}
+
+	public static <E> List<E> filter(GeneralTree<E> tree, BinaryTreeNode<E> node,
+			Predicate<? super E> condition) {
+		return StreamSupport.stream(new TreeSpliterator<E>(tree, node), true)
+				.filter(condition).collect(Collectors.toList());
+	}
+
+	// New tree with the shape of the subtree of node and mapped infos
+	public static <E, R> GeneralTree<R> map(BinaryTreeNode<E> node,
+			Function<? super E, ? extends R> mapper) {
+		GeneralTree<R> mapped = new GeneralTree<R>();
+
+		if (node != null) {
+			BinaryTreeNode<R> newRoot = new BinaryTreeNode<R>(mapper.apply(node.getInfo()));
+			ForkJoinPool.commonPool().invoke(new MapTask<E, R>(null, node, newRoot, mapper));
+			mapped.setRoot(newRoot);
+		}
+
+		return mapped;
+	}
+
+	private static class VisitTask<E> extends CountedCompleter<Void> {
+		private static final long serialVersionUID = 1L;
+		private final BinaryTreeNode<E> node;
+		private final transient Consumer<? super BinaryTreeNode<E>> action;
+
+		VisitTask(CountedCompleter<?> completer, BinaryTreeNode<E> node,
+				Consumer<? super BinaryTreeNode<E>> action) {
+			super(completer);
+			this.node = node;
+			this.action = action;
+		}
+
+		public void compute() {
+			ArrayDeque<BinaryTreeNode<E>> pending = new ArrayDeque<BinaryTreeNode<E>>();
+			pending.push(node);
+
+			while (!pending.isEmpty()) {
+				BinaryTreeNode<E> current = pending.pop();
+				action.accept(current);
+
+				BinaryTreeNode<E> son = current.getLeft();
+				while (son != null) {
+					if (getSurplusQueuedTaskCount() < SURPLUS) {
+						addToPendingCount(1);
+						new VisitTask<E>(this, son, action).fork();
+					}
+					else
+						pending.push(son);
+					son = son.getRight();
+				}
+			}
+
+			tryComplete();
+		}
+	}
+
+	// Fills the sons of copy from the sons of source; copy already
+	// holds the mapped info of source
+	private static class MapTask<E, R> extends CountedCompleter<Void> {
+		private static final long serialVersionUID = 1L;
+		private final BinaryTreeNode<E> source;
+		private final BinaryTreeNode<R> copy;
+		private final transient Function<? super E, ? extends R> mapper;
+
+		MapTask(CountedCompleter<?> completer, BinaryTreeNode<E> source,
+				BinaryTreeNode<R> copy, Function<? super E, ? extends R> mapper) {
+			super(completer);
+			this.source = source;
+			this.copy = copy;
+			this.mapper = mapper;
+		}
+
+		public void compute() {
+			ArrayDeque<BinaryTreeNode<E>> sources = new ArrayDeque<BinaryTreeNode<E>>();
+			ArrayDeque<BinaryTreeNode<R>> copies = new ArrayDeque<BinaryTreeNode<R>>();
+			sources.push(source);
+			copies.push(copy);
+
+			while (!sources.isEmpty()) {
+				BinaryTreeNode<E> father = sources.pop();
+				BinaryTreeNode<R> newFather = copies.pop();
+				BinaryTreeNode<R> lastSon = null;
+
+				BinaryTreeNode<E> son = father.getLeft();
+				while (son != null) {
+					BinaryTreeNode<R> newSon = new BinaryTreeNode<R>(mapper.apply(son.getInfo()));
+
+					if (lastSon == null)
+						newFather.setLeft(newSon);
+					else
+						lastSon.setRight(newSon);
+					lastSon = newSon;
+
+					if (son.getLeft() != null) {
+						if (getSurplusQueuedTaskCount() < SURPLUS) {
+							addToPendingCount(1);
+							new MapTask<E, R>(this, son, newSon, mapper).fork();
+						}
+						else {
+							sources.push(son);
+							copies.push(newSon);
+						}
+					}
+					son = son.getRight();
+				}
+			}
+
+			tryComplete();
+		}
+	}
+}
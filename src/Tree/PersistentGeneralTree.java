@@ -0,0 +1,297 @@
+package Tree;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/*
+ * Immutable general tree. Every change returns a new version that copies
+ * only the nodes on the path from the root to the change (O(depth) nodes,
+ * each copying its sons array) and shares the rest with the old version,
+ * which stays valid. Versions can be read from any thread without locks.
+ * Nodes are addressed by paths of son indexes from the root: {} is the
+ * root, {0, 2} the third son of the first son of the root.
+ * When the path does not exist the same version is returned, like the
+ * false of GeneralTree.insertNode.
+ * Only one root is kept: brothers of the root of a GeneralTree are left
+ * out by of().
+ */
+public final class PersistentGeneralTree<E> implements Iterable<E> {
+
+	private static final PersistentGeneralTree<?> EMPTY = new PersistentGeneralTree<Object>(null);
+
+	private final PersistentTreeNode<E> root;
+
+	private PersistentGeneralTree(PersistentTreeNode<E> root) {
+		this.root = root;
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <E> PersistentGeneralTree<E> empty() {
+		return (PersistentGeneralTree<E>) EMPTY;
+	}
+
+	public static <E> PersistentGeneralTree<E> of(GeneralTree<E> tree) {
+		PersistentGeneralTree<E> version = empty();
+
+		if (tree != null && !tree.isEmpty())
+			version = new PersistentGeneralTree<E>(copy((BinaryTreeNode<E>) tree.getRoot()));
+
+		return version;
+	}
+
+	public boolean isEmpty() {
+		return root == null;
+	}
+
+	public PersistentTreeNode<E> getRoot() {
+		return root;
+	}
+
+	public int totalNodes() {
+		return root == null ? 0 : root.size();
+	}
+
+	public PersistentTreeNode<E> getNode(int... path) {
+		PersistentTreeNode<E> node = root;
+
+		for (int i = 0; i < path.length && node != null; i++)
+			node = (path[i] >= 0 && path[i] < node.sonsCount()) ? node.getSon(path[i]) : null;
+
+		return node;
+	}
+
+	public E getInfo(int... path) {
+		PersistentTreeNode<E> node = getNode(path);
+		return node == null ? null : node.getInfo();
+	}
+
+	// Adds info as last son of the node at fatherPath; on an empty tree
+	// an empty path makes it the root
+	public PersistentGeneralTree<E> insertNode(E info, int... fatherPath) {
+		PersistentGeneralTree<E> version = this;
+
+		if (root == null) {
+			if (fatherPath.length == 0)
+				version = new PersistentGeneralTree<E>(new PersistentTreeNode<E>(info));
+		}
+		else {
+			PersistentTreeNode<E> father = getNode(fatherPath);
+
+			if (father != null) {
+				PersistentTreeNode<E>[] sons = Arrays.copyOf(father.sons(), father.sonsCount() + 1);
+				sons[sons.length - 1] = new PersistentTreeNode<E>(info);
+				version = replace(fatherPath, new PersistentTreeNode<E>(father.getInfo(), sons));
+			}
+		}
+
+		return version;
+	}
+
+	public PersistentGeneralTree<E> insertAsFirstSon(E info, int... fatherPath) {
+		PersistentGeneralTree<E> version = this;
+		PersistentTreeNode<E> father = getNode(fatherPath);
+
+		if (father != null) {
+			PersistentTreeNode<E>[] sons = newArray(father.sonsCount() + 1);
+			sons[0] = new PersistentTreeNode<E>(info);
+			System.arraycopy(father.sons(), 0, sons, 1, father.sonsCount());
+			version = replace(fatherPath, new PersistentTreeNode<E>(father.getInfo(), sons));
+		}
+
+		return version;
+	}
+
+	// Removes the node at path with its whole subtree
+	public PersistentGeneralTree<E> deleteNode(int... path) {
+		PersistentGeneralTree<E> version = this;
+
+		if (getNode(path) != null) {
+			if (path.length == 0)
+				version = empty();
+			else {
+				int[] fatherPath = Arrays.copyOf(path, path.length - 1);
+				int index = path[path.length - 1];
+				PersistentTreeNode<E> father = getNode(fatherPath);
+
+				PersistentTreeNode<E>[] sons = newArray(father.sonsCount() - 1);
+				System.arraycopy(father.sons(), 0, sons, 0, index);
+				System.arraycopy(father.sons(), index + 1, sons, index, sons.length - index);
+				version = replace(fatherPath, new PersistentTreeNode<E>(father.getInfo(), sons));
+			}
+		}
+
+		return version;
+	}
+
+	public PersistentGeneralTree<E> setInfo(E info, int... path) {
+		PersistentGeneralTree<E> version = this;
+		PersistentTreeNode<E> node = getNode(path);
+
+		if (node != null)
+			version = replace(path, new PersistentTreeNode<E>(info, node.sons()));
+
+		return version;
+	}
+
+	// Path of the first node in preorder whose info matches, null if none
+	public int[] findPath(Predicate<? super E> condition) {
+		int[] found = null;
+
+		if (root != null) {
+			ArrayDeque<PersistentTreeNode<E>> nodes = new ArrayDeque<PersistentTreeNode<E>>();
+			ArrayDeque<int[]> paths = new ArrayDeque<int[]>();
+			nodes.push(root);
+			paths.push(new int[0]);
+
+			while (!nodes.isEmpty() && found == null) {
+				PersistentTreeNode<E> node = nodes.pop();
+				int[] path = paths.pop();
+
+				if (condition.test(node.getInfo()))
+					found = path;
+				else {
+					for (int i = node.sonsCount() - 1; i >= 0; i--) {
+						int[] sonPath = Arrays.copyOf(path, path.length + 1);
+						sonPath[path.length] = i;
+						nodes.push(node.getSon(i));
+						paths.push(sonPath);
+					}
+				}
+			}
+		}
+
+		return found;
+	}
+
+	// Mutable copy in first son / right brother layout
+	public GeneralTree<E> toGeneralTree() {
+		GeneralTree<E> tree = new GeneralTree<E>();
+
+		if (root != null) {
+			BinaryTreeNode<E> newRoot = new BinaryTreeNode<E>(root.getInfo());
+			ArrayDeque<PersistentTreeNode<E>> sources = new ArrayDeque<PersistentTreeNode<E>>();
+			ArrayDeque<BinaryTreeNode<E>> copies = new ArrayDeque<BinaryTreeNode<E>>();
+			sources.push(root);
+			copies.push(newRoot);
+
+			while (!sources.isEmpty()) {
+				PersistentTreeNode<E> source = sources.pop();
+				BinaryTreeNode<E> father = copies.pop();
+				BinaryTreeNode<E> last = null;
+
+				for (int i = 0; i < source.sonsCount(); i++) {
+					BinaryTreeNode<E> son = new BinaryTreeNode<E>(source.getSon(i).getInfo());
+					if (last == null)
+						father.setLeft(son);
+					else
+						last.setRight(son);
+					last = son;
+					sources.push(source.getSon(i));
+					copies.push(son);
+				}
+			}
+
+			tree.setRoot(newRoot);
+		}
+
+		return tree;
+	}
+
+	// Infos in preorder
+	public Iterator<E> iterator() {
+		final ArrayDeque<PersistentTreeNode<E>> pending = new ArrayDeque<PersistentTreeNode<E>>();
+
+		if (root != null)
+			pending.push(root);
+
+		return new Iterator<E>() {
+			public boolean hasNext() {
+				return !pending.isEmpty();
+			}
+
+			public E next() {
+				if (pending.isEmpty())
+					throw new NoSuchElementException();
+
+				PersistentTreeNode<E> node = pending.pop();
+				for (int i = node.sonsCount() - 1; i >= 0; i--)
+					pending.push(node.getSon(i));
+
+				return node.getInfo();
+			}
+		};
+	}
+
+	// New version where the node at path is replaced by node; the nodes
+	// from the root to path are copied, everything else is shared
+	private PersistentGeneralTree<E> replace(int[] path, PersistentTreeNode<E> node) {
+		@SuppressWarnings("unchecked")
+		PersistentTreeNode<E>[] ancestors = (PersistentTreeNode<E>[]) new PersistentTreeNode<?>[path.length];
+
+		PersistentTreeNode<E> cursor = root;
+		for (int i = 0; i < path.length; i++) {
+			ancestors[i] = cursor;
+			cursor = cursor.getSon(path[i]);
+		}
+
+		PersistentTreeNode<E> replaced = node;
+		for (int i = path.length - 1; i >= 0; i--) {
+			PersistentTreeNode<E>[] sons = ancestors[i].sons().clone();
+			sons[path[i]] = replaced;
+			replaced = new PersistentTreeNode<E>(ancestors[i].getInfo(), sons);
+		}
+
+		return new PersistentGeneralTree<E>(replaced);
+	}
+
+	// Copies node and its descendants, sons are built before their fathers
+	private static <E> PersistentTreeNode<E> copy(BinaryTreeNode<E> node) {
+		ArrayDeque<BinaryTreeNode<E>> order = new ArrayDeque<BinaryTreeNode<E>>();
+		ArrayDeque<BinaryTreeNode<E>> pending = new ArrayDeque<BinaryTreeNode<E>>();
+		pending.push(node);
+
+		while (!pending.isEmpty()) {
+			BinaryTreeNode<E> current = pending.pop();
+			order.push(current);
+
+			BinaryTreeNode<E> son = current.getLeft();
+			while (son != null) {
+				pending.push(son);
+				son = son.getRight();
+			}
+		}
+
+		// order holds every father below its sons, so popping it builds
+		// sons first; built keeps the copies until their father takes them
+		IdentityHashMap<BinaryTreeNode<E>, PersistentTreeNode<E>> built =
+				new IdentityHashMap<BinaryTreeNode<E>, PersistentTreeNode<E>>();
+		PersistentTreeNode<E> copied = null;
+
+		while (!order.isEmpty()) {
+			BinaryTreeNode<E> current = order.pop();
+
+			int count = 0;
+			for (BinaryTreeNode<E> son = current.getLeft(); son != null; son = son.getRight())
+				count++;
+
+			PersistentTreeNode<E>[] sons = newArray(count);
+			int i = 0;
+			for (BinaryTreeNode<E> son = current.getLeft(); son != null; son = son.getRight())
+				sons[i++] = built.remove(son);
+
+			copied = new PersistentTreeNode<E>(current.getInfo(), sons);
+			built.put(current, copied);
+		}
+
+		return copied;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <E> PersistentTreeNode<E>[] newArray(int length) {
+		return (PersistentTreeNode<E>[]) new PersistentTreeNode<?>[length];
+	}
+}
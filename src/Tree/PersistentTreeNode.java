@@ -0,0 +1,54 @@
+package Tree;
+
+/*
+ * Immutable node of PersistentGeneralTree. Sons are kept in an array that
+ * is never modified, so a node can be shared by any number of versions.
+ */
+public final class PersistentTreeNode<E> {
+
+	private static final PersistentTreeNode<?>[] NO_SONS = new PersistentTreeNode<?>[0];
+
+	private final E info;
+	private final PersistentTreeNode<E>[] sons;
+	private final int size;
+
+	@SuppressWarnings("unchecked")
+	PersistentTreeNode(E info) {
+		this(info, (PersistentTreeNode<E>[]) NO_SONS);
+	}
+
+	PersistentTreeNode(E info, PersistentTreeNode<E>[] sons) {
+		this.info = info;
+		this.sons = sons;
+
+		int total = 1;
+		for (PersistentTreeNode<E> son : sons)
+			total += son.size;
+		this.size = total;
+	}
+
+	public E getInfo() {
+		return info;
+	}
+
+	public int sonsCount() {
+		return sons.length;
+	}
+
+	public PersistentTreeNode<E> getSon(int index) {
+		return sons[index];
+	}
+
+	public boolean isLeaf() {
+		return sons.length == 0;
+	}
+
+	// Nodes of the subtree, this one included
+	public int size() {
+		return size;
+	}
+
+	PersistentTreeNode<E>[] sons() {
+		return sons;
+	}
+}
@@ -87,29 +87,32 @@ public class PosOrderIterator<E> implements ITreeIterator<E> {
 	private BinaryTreeNode<E> 
 	moveCursorToLastLeftOrRightNode(BinaryTreeNode<E> initialNode){ 
 		BinaryTreeNode<E> cursor = initialNode; 
+		boolean descending = true; 
 
-		while(cursor.getLeft() != null){ 
-			StackNode<E> node = new StackNode<E>(cursor); 
+		// loop instead of recursion so long brother chains do not overflow 
+		while(descending){ 
+			while(cursor.getLeft() != null){ 
+				StackNode<E> node = new StackNode<E>(cursor); 
 
-			node.incrementCount(); 
+				node.incrementCount(); 
 
- 
+				stack.push(node); 
 
-			stack.push(node); 
-
-			cursor = cursor.getLeft(); 
-		} 
+				cursor = cursor.getLeft(); 
+			} 
 
-		if(cursor.getRight() != null){ 
-			StackNode<E> stackNode = new StackNode<E>(cursor); 
+			if(cursor.getRight() != null){ 
+				StackNode<E> stackNode = new StackNode<E>(cursor); 
 
-			stackNode.incrementCount(); 
-			stackNode.incrementCount(); 
+				stackNode.incrementCount(); 
+				stackNode.incrementCount(); 
 
-			stack.push(stackNode); 
+				stack.push(stackNode); 
 
-			cursor = 
-					moveCursorToLastLeftOrRightNode(cursor.getRight()); 
+				cursor = cursor.getRight(); 
+			} 
+			else 
+				descending = false; 
 		} 
 
 		return cursor; 
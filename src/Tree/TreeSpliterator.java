@@ -0,0 +1,126 @@
+package Tree;
+
+import java.util.ArrayDeque;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/*
+ * Spliterator over the infos of a general tree (first son / right brother
+ * layout). It keeps a frontier of subtree roots still to visit; trySplit
+ * hands half of the frontier to the new spliterator, and when only one
+ * subtree is left it is opened first (its sons go to the frontier and its
+ * own info waits in opened). Visiting order is not preorder.
+ * When the tree is an AugmentedGeneralTree the cached sizes are used to
+ * estimate the remaining work.
+ * The tree must not be modified while it is being traversed.
+ */
+public class TreeSpliterator<E> implements Spliterator<E> {
+	private ArrayDeque<BinaryTreeNode<E>> frontier;
+	private ArrayDeque<BinaryTreeNode<E>> opened;
+	private AugmentedGeneralTree<E> sizes;
+
+	// Traverses node and all its descendants, without its brothers
+	public TreeSpliterator(GeneralTree<E> tree, BinaryTreeNode<E> node) {
+		this(tree);
+
+		if (node != null)
+			frontier.add(node);
+	}
+
+	private TreeSpliterator(GeneralTree<E> tree) {
+		frontier = new ArrayDeque<BinaryTreeNode<E>>();
+		opened = new ArrayDeque<BinaryTreeNode<E>>();
+
+		if (tree instanceof AugmentedGeneralTree)
+			sizes = (AugmentedGeneralTree<E>) tree;
+	}
+
+	// Traverses the whole tree, brothers of the root included, like
+	// InDepthIterator does
+	public static <E> TreeSpliterator<E> of(GeneralTree<E> tree) {
+		TreeSpliterator<E> spliterator = new TreeSpliterator<E>(tree);
+
+		BinaryTreeNode<E> cursor = (BinaryTreeNode<E>) tree.getRoot();
+		while (cursor != null) {
+			spliterator.frontier.add(cursor);
+			cursor = cursor.getRight();
+		}
+
+		return spliterator;
+	}
+
+	public boolean tryAdvance(Consumer<? super E> action) {
+		boolean advanced = false;
+
+		if (!opened.isEmpty()) {
+			action.accept(opened.poll().getInfo());
+			advanced = true;
+		}
+		else if (!frontier.isEmpty()) {
+			BinaryTreeNode<E> node = frontier.pop();
+			pushSons(node);
+			action.accept(node.getInfo());
+			advanced = true;
+		}
+
+		return advanced;
+	}
+
+	public void forEachRemaining(Consumer<? super E> action) {
+		while (!opened.isEmpty())
+			action.accept(opened.poll().getInfo());
+
+		while (!frontier.isEmpty()) {
+			BinaryTreeNode<E> node = frontier.pop();
+			pushSons(node);
+			action.accept(node.getInfo());
+		}
+	}
+
+	public Spliterator<E> trySplit() {
+		TreeSpliterator<E> split = null;
+
+		if (frontier.size() == 1) {
+			BinaryTreeNode<E> node = frontier.pop();
+			opened.add(node);
+			pushSons(node);
+		}
+
+		if (frontier.size() > 1) {
+			split = new TreeSpliterator<E>(null);
+			split.sizes = sizes;
+
+			for (int i = frontier.size() / 2; i > 0; i--)
+				split.frontier.add(frontier.pollLast());
+		}
+
+		return split;
+	}
+
+	public long estimateSize() {
+		long size = Long.MAX_VALUE;
+
+		if (sizes != null) {
+			size = opened.size();
+			for (BinaryTreeNode<E> node : frontier)
+				size += sizes.subTreeSize(node);
+		}
+		else if (frontier.isEmpty())
+			size = opened.size();
+
+		return size;
+	}
+
+	public int characteristics() {
+		return 0;
+	}
+
+	private void pushSons(BinaryTreeNode<E> node) {
+		BinaryTreeNode<E> son = node.getLeft();
+
+		while (son != null) {
+			frontier.push(son);
+			son = son.getRight();
+		}
+	}
+}
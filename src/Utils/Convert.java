@@ -1,27 +1,42 @@
 package Utils;
 
-/*  3:   */ import java.io.ByteArrayInputStream;
-/*  4:   */ import java.io.ByteArrayOutputStream;
-/*  5:   */ import java.io.IOException;
-/*  6:   */ import java.io.ObjectInputStream;
-/*  7:   */ import java.io.ObjectOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 
-/*  8:   */
- /*  9:   */ public class Convert /* 10:   */ {
+/*
+ * Java serialization helpers. Saves no longer go through them (see
+ * Logic.SaveCodec); they are kept to read saves from before it.
+ * Reading only accepts the game's own classes and the collections they
+ * use; anything else in the stream is rejected before it is instantiated.
+ */
+public class Convert {
 
-    /* 11:   */ public static byte[] toBytes(Object object)
-            /* 12:   */ throws IOException /* 13:   */ {
-        /* 14:12 */ ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        /* 15:13 */ ObjectOutputStream oos = new ObjectOutputStream(baos);
-        /* 16:14 */ oos.writeObject(object);
-        /* 17:15 */ return baos.toByteArray();
-        /* 18:   */    }
+    public static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=64;maxrefs=1000000;maxbytes=67108864;maxarray=1000000;"
+            + "Characters.*;Items.*;Misc.*;Tree.*;Logic.*;"
+            + "java.lang.Object;java.lang.Enum;java.lang.String;java.lang.Number;java.lang.Integer;"
+            + "java.lang.Long;java.lang.Double;java.lang.Boolean;"
+            + "java.util.ArrayList;java.util.LinkedList;java.util.ArrayDeque;java.util.HashMap;"
+            + "!*");
 
-    /* 19:   */
- /* 20:   */ public static Object toObject(byte[] bytes)
-            /* 21:   */ throws IOException, ClassNotFoundException /* 22:   */ {
-        /* 23:20 */ Object object = null;
-        /* 24:21 */ object = new ObjectInputStream(new ByteArrayInputStream(bytes)).readObject();
-        /* 25:22 */ return object;
-        /* 26:   */    }
-    /* 27:   */ }
+    public static byte[] toBytes(Object object) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(object);
+        }
+        return baos.toByteArray();
+    }
+
+    public static Object toObject(byte[] bytes) throws IOException, ClassNotFoundException {
+        Object object;
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            ois.setObjectInputFilter(FILTER);
+            object = ois.readObject();
+        }
+        return object;
+    }
+}
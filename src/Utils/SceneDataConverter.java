@@ -0,0 +1,104 @@
+package Utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Build-time tool that writes a scene data file (see GUI.SceneData) from the
+ * double[][] literals of a scene class, so coordinates picked in game can
+ * leave the code without retyping them. Numbers are copied as written.
+ *
+ *   java Utils.SceneDataConverter <Scene.java> <out.csv> ARRAY=section... section:x,y...
+ *
+ * ARRAY=section copies the next double[][] named ARRAY (a name declared
+ * twice is taken in order); section:x,y,... adds a one-row section, for
+ * values that were plain locals such as spawn points.
+ */
+public class SceneDataConverter {
+
+    private static final Pattern ROW = Pattern.compile("\\{([^{}]*)\\}");
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: SceneDataConverter <Scene.java> <out.csv> ARRAY=section... section:x,y...");
+            System.exit(2);
+        }
+        Path source = Path.of(args[0]);
+        String code = stripComments(Files.readString(source, StandardCharsets.UTF_8));
+
+        List<String> lines = new ArrayList<>();
+        lines.add("# Scene data extracted from " + source.getFileName() + " by Utils.SceneDataConverter");
+        // Where the next search for each array name starts
+        Map<String, Integer> searchFrom = new HashMap<>();
+        for (int a = 2; a < args.length; a++) {
+            String arg = args[a];
+            int literal = arg.indexOf(':');
+            int array = arg.indexOf('=');
+            lines.add("");
+            if (literal > 0) {
+                lines.add("[" + arg.substring(0, literal) + "]");
+                lines.add(row(arg.substring(literal + 1).split(",")));
+            } else if (array > 0) {
+                String name = arg.substring(0, array);
+                lines.add("[" + arg.substring(array + 1) + "]");
+                int end = extract(code, name, searchFrom.getOrDefault(name, 0), lines);
+                searchFrom.put(name, end);
+            } else {
+                throw new IllegalArgumentException("Expected ARRAY=section or section:x,y but got " + arg);
+            }
+        }
+
+        try (Writer out = Files.newBufferedWriter(Path.of(args[1]), StandardCharsets.UTF_8)) {
+            for (String line : lines) {
+                out.write(line);
+                out.write("\r\n");
+            }
+        }
+    }
+
+    // Adds the rows of the first array named name from position from and
+    // returns where that array ends
+    private static int extract(String code, String name, int from, List<String> rows) {
+        Matcher decl = Pattern.compile("double\\s*\\[\\s*\\]\\s*\\[\\s*\\]\\s+" + Pattern.quote(name)
+                + "\\s*=\\s*new\\s+double\\s*\\[\\s*\\]\\s*\\[\\s*\\]\\s*\\{").matcher(code);
+        if (!decl.find(from)) {
+            throw new IllegalArgumentException("No double[][] " + name + " in the source");
+        }
+        int end = code.indexOf("};", decl.end());
+        if (end < 0) {
+            throw new IllegalArgumentException("Unterminated array " + name);
+        }
+
+        Matcher m = ROW.matcher(code.substring(decl.end(), end));
+        while (m.find()) {
+            rows.add(row(m.group(1).split(",")));
+        }
+        return end;
+    }
+
+    private static String row(String[] cells) {
+        StringBuilder sb = new StringBuilder();
+        for (String cell : cells) {
+            String value = cell.trim();
+            Double.parseDouble(value);
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(value);
+        }
+        return sb.toString();
+    }
+
+    private static String stripComments(String code) {
+        return code.replaceAll("/\\*(?s:.*?)\\*/", "").replaceAll("//[^\\n]*", "");
+    }
+}